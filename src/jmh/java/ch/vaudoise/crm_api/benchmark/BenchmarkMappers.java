@@ -0,0 +1,37 @@
+package ch.vaudoise.crm_api.benchmark;
+
+import ch.vaudoise.crm_api.api.json.Decimal128JsonComponent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.bson.types.Decimal128;
+
+/** Object mappers shared by the serialization benchmarks. */
+final class BenchmarkMappers {
+
+  private BenchmarkMappers() {}
+
+  /** Jackson defaults with Java time support only. */
+  static ObjectMapper baseline() {
+    return JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+  }
+
+  /** Same modules as the application mapper. */
+  static ObjectMapper application() {
+    return JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .addModule(
+            new SimpleModule()
+                .addSerializer(Decimal128.class, new Decimal128JsonComponent.Serializer())
+                .addDeserializer(Decimal128.class, new Decimal128JsonComponent.Deserializer()))
+        .addModule(new BlackbirdModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+  }
+}
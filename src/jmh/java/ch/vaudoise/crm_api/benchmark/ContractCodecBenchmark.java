@@ -0,0 +1,101 @@
+package ch.vaudoise.crm_api.benchmark;
+
+import ch.vaudoise.crm_api.api.json.Decimal128JsonComponent;
+import ch.vaudoise.crm_api.model.ClientType;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Encode and decode cost of a contract list in each negotiated format. The payload size is printed
+ * once per fork during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractCodecBenchmark {
+
+  @Param({"json", "cbor", "smile"})
+  String format;
+
+  @Param({"100"})
+  int size;
+
+  private ObjectMapper mapper;
+  private ResponseContractDTO[] contracts;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws IOException {
+    JsonFactory factory =
+        switch (format) {
+          case "cbor" -> new CBORFactory();
+          case "smile" -> new SmileFactory();
+          default -> new JsonFactory();
+        };
+    mapper =
+        JsonMapper.builder(factory)
+            .addModule(new JavaTimeModule())
+            .addModule(
+                new SimpleModule()
+                    .addSerializer(Decimal128.class, new Decimal128JsonComponent.Serializer())
+                    .addDeserializer(Decimal128.class, new Decimal128JsonComponent.Deserializer()))
+            .addModule(new BlackbirdModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    ResponseClientDTO client =
+        new ResponseClientDTO(
+            new ObjectId().toHexString(),
+            ClientType.PERSON,
+            "John Doe",
+            "+41791234567",
+            "john@example.com",
+            LocalDate.of(1994, 10, 19),
+            null,
+            1);
+    List<ResponseContractDTO> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(
+          new ResponseContractDTO(
+              new ObjectId().toHexString(),
+              LocalDate.of(2024, 1, 1).plusDays(i),
+              LocalDate.of(2030, 1, 1),
+              Decimal128.parse(i + ".95"),
+              client,
+              1));
+    }
+    contracts = list.toArray(ResponseContractDTO[]::new);
+    encoded = mapper.writeValueAsBytes(contracts);
+    System.out.printf("%n%s payload for %d contracts: %d bytes%n", format, size, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return mapper.writeValueAsBytes(contracts);
+  }
+
+  @Benchmark
+  public ResponseContractDTO[] decode() throws IOException {
+    return mapper.readValue(encoded, ResponseContractDTO[].class);
+  }
+}
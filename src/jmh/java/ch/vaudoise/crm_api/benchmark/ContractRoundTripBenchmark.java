@@ -0,0 +1,77 @@
+package ch.vaudoise.crm_api.benchmark;
+
+import ch.vaudoise.crm_api.model.ClientType;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+/** JSON write and read back of contract lists with the application mapper. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractRoundTripBenchmark {
+
+  private static final TypeReference<List<ResponseContractDTO>> CONTRACTS =
+      new TypeReference<>() {};
+
+  @Param({"1", "10", "100", "1000"})
+  int size;
+
+  private ObjectMapper mapper;
+  private List<ResponseContractDTO> contracts;
+  private byte[] json;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = BenchmarkMappers.application();
+    ResponseClientDTO client =
+        new ResponseClientDTO(
+            new ObjectId().toHexString(),
+            ClientType.PERSON,
+            "John Doe",
+            "+41791234567",
+            "john@example.com",
+            LocalDate.of(1994, 10, 19),
+            null,
+            1);
+    contracts = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      contracts.add(
+          new ResponseContractDTO(
+              new ObjectId().toHexString(),
+              LocalDate.of(2024, 1, 1).plusDays(i),
+              LocalDate.of(2030, 1, 1),
+              Decimal128.parse(i + ".95"),
+              client,
+              1));
+    }
+    json = mapper.writeValueAsBytes(contracts);
+  }
+
+  @Benchmark
+  public byte[] write() throws IOException {
+    return mapper.writeValueAsBytes(contracts);
+  }
+
+  @Benchmark
+  public List<ResponseContractDTO> read() throws IOException {
+    return mapper.readValue(json, CONTRACTS);
+  }
+
+  @Benchmark
+  public List<ResponseContractDTO> roundTrip() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(contracts), CONTRACTS);
+  }
+}
@@ -0,0 +1,69 @@
+package ch.vaudoise.crm_api.benchmark;
+
+import ch.vaudoise.crm_api.model.ClientType;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+/** Serialization throughput of contract lists, default mapper versus the application modules. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractSerializationBenchmark {
+
+  @Param({"10", "100", "1000"})
+  int size;
+
+  private ObjectMapper baseline;
+  private ObjectMapper optimized;
+  private List<ResponseContractDTO> contracts;
+
+  @Setup
+  public void setup() {
+    baseline = BenchmarkMappers.baseline();
+    optimized = BenchmarkMappers.application();
+
+    ResponseClientDTO client =
+        new ResponseClientDTO(
+            new ObjectId().toHexString(),
+            ClientType.PERSON,
+            "John Doe",
+            "+41791234567",
+            "john@example.com",
+            LocalDate.of(1994, 10, 19),
+            null,
+            1);
+    contracts = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      contracts.add(
+          new ResponseContractDTO(
+              new ObjectId().toHexString(),
+              LocalDate.of(2024, 1, 1).plusDays(i),
+              LocalDate.of(2030, 1, 1),
+              Decimal128.parse(i + ".95"),
+              client,
+              1));
+    }
+  }
+
+  @Benchmark
+  public byte[] baseline() throws JsonProcessingException {
+    return baseline.writeValueAsBytes(contracts);
+  }
+
+  @Benchmark
+  public byte[] optimized() throws JsonProcessingException {
+    return optimized.writeValueAsBytes(contracts);
+  }
+}
@@ -0,0 +1,62 @@
+package ch.vaudoise.crm_api.benchmark;
+
+import ch.vaudoise.crm_api.model.ClientType;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+/** Entity to response DTO mapping, run for every client and contract returned by the API. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+  private Client client;
+  private Contract contract;
+  private ResponseClientDTO clientDto;
+
+  @Setup
+  public void setup() {
+    client =
+        Client.builder()
+            .id(new ObjectId())
+            .type(ClientType.PERSON)
+            .name("John Doe")
+            .phone("+41791234567")
+            .email("john@example.com")
+            .birthday(LocalDate.of(1994, 10, 19))
+            .version(1)
+            .build();
+    contract =
+        Contract.builder()
+            .id(new ObjectId())
+            .startDate(LocalDate.of(2024, 1, 1))
+            .endDate(LocalDate.of(2030, 1, 1))
+            .cost(Decimal128.parse("1250.95"))
+            .updatedAt(Instant.parse("2024-01-01T00:00:00Z"))
+            .clientId(client.getId())
+            .version(1)
+            .build();
+    clientDto = client.toDTO();
+  }
+
+  @Benchmark
+  public ResponseClientDTO clientToDto() {
+    return client.toDTO();
+  }
+
+  @Benchmark
+  public ResponseContractDTO contractToDto() {
+    return contract.toDTO(clientDto);
+  }
+}
@@ -0,0 +1,52 @@
+package ch.vaudoise.crm_api.benchmark;
+
+import ch.vaudoise.crm_api.api.GlobalExceptionHandler;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * Cost of answering an unknown client id, from the exception raised {@code depth} frames down (a
+ * reactive pipeline is easily 100+ frames deep) to the error body, with a stack-capturing exception
+ * as before and the stackless {@link NotFoundException}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundPathBenchmark {
+
+  private static final String ID = "68d1aa5f8e2b4c1a9f3e7d21";
+
+  @Param({"16", "128"})
+  int depth;
+
+  private GlobalExceptionHandler handler;
+  private MockServerWebExchange exchange;
+
+  @Setup
+  public void setup() {
+    handler = new GlobalExceptionHandler();
+    exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/clients/" + ID));
+  }
+
+  @Benchmark
+  public Object withStackTrace() {
+    return answer(depth, message -> new IllegalStateException(message));
+  }
+
+  @Benchmark
+  public Object stackless() {
+    return answer(depth, NotFoundException::new);
+  }
+
+  private Object answer(int remaining, Function<String, RuntimeException> exception) {
+    if (remaining > 0) return answer(remaining - 1, exception);
+    return handler.handle404NotFound(exception.apply("Client not found: " + ID), exchange).block();
+  }
+}
@@ -0,0 +1,98 @@
+package ch.vaudoise.crm_api.benchmark;
+
+import ch.vaudoise.crm_api.model.ClientType;
+import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
+import ch.vaudoise.crm_api.validation.ClientValidator;
+import jakarta.validation.ClockProvider;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Validation of a create-client request: the {@link ClientValidator} cross-field rule alone, and
+ * the full Bean Validation pass the controller runs on a valid and an invalid body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+  private final ClientValidator clientValidator = new ClientValidator();
+  private final ConstraintValidatorContext context = new NoViolationContext();
+
+  private ValidatorFactory factory;
+  private Validator validator;
+  private CreateClientDTO valid;
+  private CreateClientDTO invalid;
+
+  @Setup
+  public void setup() {
+    factory = Validation.buildDefaultValidatorFactory();
+    validator = factory.getValidator();
+    valid =
+        CreateClientDTO.builder()
+            .type(ClientType.PERSON)
+            .name("John Doe")
+            .phone("+41791234567")
+            .email("john@example.com")
+            .birthday(LocalDate.of(1994, 10, 19))
+            .build();
+    invalid = valid.toBuilder().phone("invalid").email("invalid").birthday(null).build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    factory.close();
+  }
+
+  @Benchmark
+  public boolean clientValidator() {
+    return clientValidator.isValid(valid, context);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CreateClientDTO>> beanValidationValid() {
+    return validator.validate(valid);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CreateClientDTO>> beanValidationInvalid() {
+    return validator.validate(invalid);
+  }
+
+  /** Context for valid input only; the validator never builds a violation then. */
+  private static final class NoViolationContext implements ConstraintValidatorContext {
+
+    @Override
+    public void disableDefaultConstraintViolation() {}
+
+    @Override
+    public String getDefaultConstraintMessageTemplate() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ClockProvider getClockProvider() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ConstraintViolationBuilder buildConstraintViolationWithTemplate(String template) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
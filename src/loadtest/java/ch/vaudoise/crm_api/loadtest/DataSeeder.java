@@ -0,0 +1,86 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seeds clients and contracts through the public API, so the data goes through the same validation
+ * and indexes as in production. Contract counts per client vary around the configured average to
+ * give the list and total endpoints a realistic spread of result sizes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+final class DataSeeder {
+
+  private static final int CONCURRENCY = 32;
+
+  private final HttpClient http;
+  private final URI base;
+
+  DataSet seed(int clients, int contractsPerClient) {
+    long started = System.nanoTime();
+    Semaphore permits = new Semaphore(CONCURRENCY);
+    Queue<String> clientIds = new ConcurrentLinkedQueue<>();
+    Queue<String> contractIds = new ConcurrentLinkedQueue<>();
+    Queue<CompletableFuture<?>> pending = new ConcurrentLinkedQueue<>();
+
+    for (int i = 0; i < clients; i++) {
+      int contracts = ThreadLocalRandom.current().nextInt(2 * contractsPerClient + 1);
+      pending.add(
+          post(permits, "/api/clients", Scenario.clientJson())
+              .thenCompose(
+                  clientId -> {
+                    clientIds.add(clientId);
+                    CompletableFuture<?>[] created = new CompletableFuture<?>[contracts];
+                    for (int c = 0; c < contracts; c++) {
+                      created[c] =
+                          post(
+                                  permits,
+                                  "/api/contracts?clientId=" + clientId,
+                                  Scenario.contractJson())
+                              .thenAccept(contractIds::add);
+                    }
+                    return CompletableFuture.allOf(created);
+                  }));
+    }
+    CompletableFuture.allOf(pending.toArray(CompletableFuture<?>[]::new)).join();
+
+    log.info(
+        "Seeded {} clients and {} contracts in {} ms",
+        clientIds.size(),
+        contractIds.size(),
+        (System.nanoTime() - started) / 1_000_000);
+    return new DataSet(List.copyOf(clientIds), List.copyOf(contractIds));
+  }
+
+  private CompletableFuture<String> post(Semaphore permits, String path, String json) {
+    permits.acquireUninterruptibly();
+    HttpRequest request =
+        HttpRequest.newBuilder(base.resolve(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    return http.sendAsync(request, BodyHandlers.ofString())
+        .whenComplete((response, error) -> permits.release())
+        .thenApply(response -> createdId(path, response));
+  }
+
+  private static String createdId(String path, HttpResponse<String> response) {
+    if (response.statusCode() != 201) {
+      throw new IllegalStateException(
+          "Seeding POST " + path + " returned " + response.statusCode() + ": " + response.body());
+    }
+    return response.body().replace("\"", "").trim();
+  }
+}
@@ -0,0 +1,24 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Ids of the seeded clients and contracts the read and update scenarios pick from. */
+record DataSet(List<String> clientIds, List<String> contractIds) {
+
+  DataSet {
+    if (clientIds.isEmpty() || contractIds.isEmpty()) {
+      throw new IllegalStateException("Seeding produced no clients or no contracts");
+    }
+    clientIds = List.copyOf(clientIds);
+    contractIds = List.copyOf(contractIds);
+  }
+
+  String randomClient() {
+    return clientIds.get(ThreadLocalRandom.current().nextInt(clientIds.size()));
+  }
+
+  String randomContract() {
+    return contractIds.get(ThreadLocalRandom.current().nextInt(contractIds.size()));
+  }
+}
@@ -0,0 +1,89 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.flapdoodle.embed.mongo.commands.MongodArguments;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker.ReachedState;
+import de.flapdoodle.reverse.transitions.Start;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-node replica set started with flapdoodle. The application runs its writes in transactions,
+ * which MongoDB only allows on a replica set, so a plain standalone mongod would not do. The
+ * binaries are downloaded on first use and cached under {@code ~/.embedmongo}.
+ */
+@Slf4j
+final class EmbeddedMongo implements AutoCloseable {
+
+  private static final String REPLICA_SET = "rs0";
+  private static final Duration PRIMARY_TIMEOUT = Duration.ofSeconds(30);
+
+  private final ReachedState<RunningMongodProcess> process;
+  private final String uri;
+
+  private EmbeddedMongo(ReachedState<RunningMongodProcess> process) {
+    this.process = process;
+    var address = process.current().getServerAddress();
+    this.uri =
+        "mongodb://%s:%d/crm?replicaSet=%s&directConnection=true"
+            .formatted(address.getHost(), address.getPort(), REPLICA_SET);
+  }
+
+  static EmbeddedMongo start() {
+    ReachedState<RunningMongodProcess> process =
+        Mongod.builder()
+            .mongodArguments(
+                Start.to(MongodArguments.class)
+                    .initializedWith(
+                        MongodArguments.defaults().withReplication(Storage.of(REPLICA_SET, 0))))
+            .build()
+            .start(Version.Main.V7_0);
+    EmbeddedMongo mongo = new EmbeddedMongo(process);
+    try {
+      mongo.initiateReplicaSet();
+    } catch (RuntimeException e) {
+      mongo.close();
+      throw e;
+    }
+    log.info("Embedded MongoDB ready at {}", mongo.uri);
+    return mongo;
+  }
+
+  String uri() {
+    return uri;
+  }
+
+  private void initiateReplicaSet() {
+    try (MongoClient client = MongoClients.create(uri)) {
+      var admin = client.getDatabase("admin");
+      Mono.from(admin.runCommand(new Document("replSetInitiate", new Document()))).block();
+      Instant deadline = Instant.now().plus(PRIMARY_TIMEOUT);
+      while (!Mono.from(admin.runCommand(new Document("hello", 1)))
+          .map(hello -> hello.getBoolean("isWritablePrimary", false))
+          .blockOptional()
+          .orElse(false)) {
+        if (Instant.now().isAfter(deadline)) {
+          throw new IllegalStateException(
+              "Replica set did not elect a primary in " + PRIMARY_TIMEOUT);
+        }
+        Thread.sleep(100);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the replica set", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    process.close();
+  }
+}
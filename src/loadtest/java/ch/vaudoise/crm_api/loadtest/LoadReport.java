@@ -0,0 +1,148 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import ch.vaudoise.crm_api.loadtest.OpenModelGenerator.Endpoint;
+import ch.vaudoise.crm_api.loadtest.OpenModelGenerator.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Machine-readable outcome of a run: the settings, the achieved throughput and, per scenario, the
+ * status codes and latency percentiles in milliseconds. The same numbers are printed as a table.
+ */
+record LoadReport(
+    Map<String, Object> config, Summary summary, Map<String, EndpointReport> endpoints) {
+
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  record Summary(
+      int targetRate,
+      double achievedRate,
+      double durationSeconds,
+      long sent,
+      long completed,
+      long errors,
+      long dropped) {}
+
+  record EndpointReport(
+      long count,
+      double throughput,
+      long errors,
+      Map<Integer, Long> statuses,
+      double p50,
+      double p90,
+      double p99,
+      double p999,
+      double max,
+      double mean) {}
+
+  static LoadReport of(LoadTestConfig config, DataSet data, Result result) {
+    double seconds = result.elapsedNanos() / 1e9;
+    Map<String, EndpointReport> endpoints = new LinkedHashMap<>();
+    long completed = 0;
+    long errors = 0;
+    for (Map.Entry<Scenario, Endpoint> entry : result.endpoints().entrySet()) {
+      Histogram h = entry.getValue().latencies();
+      long count = h.getTotalCount();
+      completed += count;
+      errors += entry.getValue().errors();
+      endpoints.put(
+          entry.getKey().key(),
+          new EndpointReport(
+              count,
+              count / seconds,
+              entry.getValue().errors(),
+              new TreeMap<>(entry.getValue().statuses()),
+              millis(h.getValueAtPercentile(50)),
+              millis(h.getValueAtPercentile(90)),
+              millis(h.getValueAtPercentile(99)),
+              millis(h.getValueAtPercentile(99.9)),
+              millis(h.getMaxValue()),
+              count == 0 ? 0 : h.getMean() / NANOS_PER_MILLI));
+    }
+
+    Map<String, Object> settings = new LinkedHashMap<>();
+    settings.put("stack", config.stack());
+    settings.put("rate", config.rate());
+    settings.put("warmup", config.warmup().toString());
+    settings.put("duration", config.duration().toString());
+    settings.put("clients", data.clientIds().size());
+    settings.put("contracts", data.contractIds().size());
+    settings.put("maxInFlight", config.maxInFlight());
+    Map<String, Integer> mix = new LinkedHashMap<>();
+    config.mix().forEach((scenario, weight) -> mix.put(scenario.key(), weight));
+    settings.put("mix", mix);
+
+    return new LoadReport(
+        settings,
+        new Summary(
+            config.rate(),
+            completed / seconds,
+            seconds,
+            result.sent(),
+            completed,
+            errors,
+            result.dropped()),
+        endpoints);
+  }
+
+  void write(ObjectMapper mapper, Path output) {
+    try {
+      if (output.getParent() != null) Files.createDirectories(output.getParent());
+      mapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), this);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write " + output, e);
+    }
+  }
+
+  String table() {
+    StringBuilder table = new StringBuilder();
+    table.append(
+        "%-22s %8s %9s %7s %9s %9s %9s %9s %9s%n"
+            .formatted(
+                "scenario",
+                "count",
+                "req/s",
+                "errors",
+                "p50 ms",
+                "p90 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms"));
+    endpoints.forEach(
+        (name, e) ->
+            table.append(
+                "%-22s %8d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n"
+                    .formatted(
+                        name,
+                        e.count(),
+                        e.throughput(),
+                        e.errors(),
+                        e.p50(),
+                        e.p90(),
+                        e.p99(),
+                        e.p999(),
+                        e.max())));
+    table.append(
+        "total: %d completed, %d errors, %d dropped, %.1f req/s achieved of %d targeted%n"
+            .formatted(
+                summary.completed(),
+                summary.errors(),
+                summary.dropped(),
+                summary.achievedRate(),
+                summary.targetRate()));
+    return table.toString();
+  }
+
+  private static double millis(long nanos) {
+    return nanos / NANOS_PER_MILLI;
+  }
+}
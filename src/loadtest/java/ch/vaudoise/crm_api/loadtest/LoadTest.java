@@ -0,0 +1,101 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import ch.vaudoise.crm_api.CrmApiApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Entry point of the load test, run with {@code mvn -Ploadtest test-compile exec:exec}.
+ *
+ * <p>Unless {@code loadtest.base-url} points at an already running instance, starts the application
+ * in-process on a random port, against {@code loadtest.mongo-uri} or, when that is not set either,
+ * an embedded MongoDB. Then seeds the data set, warms up, measures and writes the report. Arguments
+ * are passed on to Spring, e.g. {@code --spring.profiles.active=prod}.
+ *
+ * <p>{@code loadtest.stack=servlet} starts the Spring MVC application instead, which is only on the
+ * classpath with the {@code servlet} Maven profile.
+ */
+@Slf4j
+public final class LoadTest {
+
+  static final String SERVLET_APPLICATION = "ch.vaudoise.crm_api.servlet.CrmServletApplication";
+
+  private LoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+    List<AutoCloseable> resources = new ArrayList<>();
+    try {
+      URI base =
+          config.baseUrl().isEmpty()
+              ? startApplication(config, args, resources)
+              : URI.create(config.baseUrl());
+      HttpClient http =
+          HttpClient.newBuilder()
+              .executor(Executors.newVirtualThreadPerTaskExecutor())
+              .connectTimeout(Duration.ofSeconds(5))
+              .build();
+      resources.add(http);
+
+      DataSet data = new DataSeeder(http, base).seed(config.clients(), config.contractsPerClient());
+      OpenModelGenerator generator =
+          new OpenModelGenerator(
+              http, base, data, config.rate(), config.maxInFlight(), config.mix());
+      if (!config.warmup().isZero()) {
+        log.info("Warming up for {} at {} req/s", config.warmup(), config.rate());
+        generator.run(config.warmup());
+      }
+      log.info("Measuring for {} at {} req/s", config.duration(), config.rate());
+      LoadReport report = LoadReport.of(config, data, generator.run(config.duration()));
+
+      report.write(new ObjectMapper(), config.output());
+      System.out.print(report.table());
+      log.info("Report written to {}", config.output().toAbsolutePath());
+    } finally {
+      for (int i = resources.size() - 1; i >= 0; i--) resources.get(i).close();
+    }
+  }
+
+  private static URI startApplication(
+      LoadTestConfig config, String[] args, List<AutoCloseable> resources)
+      throws ClassNotFoundException {
+    SpringApplicationBuilder application =
+        switch (config.stack()) {
+          case "webflux" -> new SpringApplicationBuilder(CrmApiApplication.class);
+          case "servlet" ->
+              // nothing consumes the events of a load test, a relay is not needed
+              new SpringApplicationBuilder(Class.forName(SERVLET_APPLICATION))
+                  .profiles("servlet")
+                  .properties("crm.outbox.external-relay=true");
+          default ->
+              throw new IllegalArgumentException(
+                  "Expected stack webflux or servlet but got [" + config.stack() + "]");
+        };
+    String mongoUri = config.mongoUri();
+    if (mongoUri.isEmpty()) {
+      EmbeddedMongo mongo = EmbeddedMongo.start();
+      resources.add(mongo);
+      mongoUri = mongo.uri();
+    }
+    ConfigurableApplicationContext context =
+        application
+            .properties(
+                "server.port=0",
+                "management.server.port=0",
+                "spring.data.mongodb.uri=" + mongoUri,
+                "spring.docker.compose.enabled=false")
+            .run(args);
+    resources.add(context);
+    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+    return URI.create("http://localhost:" + port);
+  }
+}
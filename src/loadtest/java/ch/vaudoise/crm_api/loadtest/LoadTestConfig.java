@@ -0,0 +1,57 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+
+/** Load test settings, read from {@code loadtest.*} system properties. */
+record LoadTestConfig(
+    String stack,
+    String baseUrl,
+    String mongoUri,
+    int rate,
+    Duration warmup,
+    Duration duration,
+    int clients,
+    int contractsPerClient,
+    int maxInFlight,
+    Map<Scenario, Integer> mix,
+    Path output) {
+
+  static LoadTestConfig fromSystemProperties() {
+    return new LoadTestConfig(
+        property("stack", "webflux"),
+        property("base-url", ""),
+        property("mongo-uri", ""),
+        Integer.parseInt(property("rate", "200")),
+        DurationStyle.detectAndParse(property("warmup", "15s")),
+        DurationStyle.detectAndParse(property("duration", "60s")),
+        Integer.parseInt(property("clients", "1000")),
+        Integer.parseInt(property("contracts-per-client", "5")),
+        Integer.parseInt(property("max-in-flight", "2000")),
+        mix(property("mix", "")),
+        Path.of(property("output", "target/loadtest-result.json")));
+  }
+
+  private static String property(String name, String defaultValue) {
+    String value = System.getProperty("loadtest." + name);
+    return value == null || value.isBlank() ? defaultValue : value.trim();
+  }
+
+  /** Parses {@code get-client=40,create-client=5,...}; scenarios left out keep their weight. */
+  private static Map<Scenario, Integer> mix(String spec) {
+    Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+    for (Scenario scenario : Scenario.values()) mix.put(scenario, scenario.defaultWeight());
+    if (spec.isEmpty()) return mix;
+    for (String entry : spec.split(",")) {
+      String[] parts = entry.split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Expected scenario=weight but got [" + entry + "]");
+      }
+      mix.put(Scenario.of(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+    return mix;
+  }
+}
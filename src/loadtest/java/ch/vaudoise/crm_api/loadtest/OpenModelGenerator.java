@@ -0,0 +1,137 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Constant-arrival-rate load generator. Request {@code n} is scheduled at {@code start + n / rate}
+ * no matter how many earlier requests are still outstanding, which is how independent users behave.
+ * Latency is measured from that intended start rather than from the moment the request was actually
+ * sent, so a stall in the server (or in the generator) shows up in the percentiles instead of
+ * silently lowering the offered load, the usual coordinated-omission trap of closed-loop tools.
+ *
+ * <p>Requests beyond {@code maxInFlight} outstanding ones are counted as dropped rather than
+ * queued, to keep the generator from running out of memory when the server falls over.
+ */
+@Slf4j
+@RequiredArgsConstructor
+final class OpenModelGenerator {
+
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+  private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient http;
+  private final URI base;
+  private final DataSet data;
+  private final int rate;
+  private final int maxInFlight;
+  private final Map<Scenario, Integer> mix;
+
+  /**
+   * Drives load for {@code duration}, waits for outstanding requests and returns the measurements.
+   */
+  Result run(Duration duration) {
+    Scenario[] schedule = schedule();
+    Map<Scenario, Recorder> recorders = new EnumMap<>(Scenario.class);
+    Map<Scenario, Map<Integer, LongAdder>> statuses = new EnumMap<>(Scenario.class);
+    Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+    for (Scenario scenario : mix.keySet()) {
+      recorders.put(scenario, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+      statuses.put(scenario, new ConcurrentHashMap<>());
+      errors.put(scenario, new LongAdder());
+    }
+    AtomicInteger inFlight = new AtomicInteger();
+    LongAdder dropped = new LongAdder();
+
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+    long sent = 0;
+    for (long intended = start; intended < end; intended = start + ++sent * intervalNanos) {
+      long wait = intended - System.nanoTime();
+      if (wait > 0) LockSupport.parkNanos(wait);
+
+      Scenario scenario = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+      if (inFlight.incrementAndGet() > maxInFlight) {
+        inFlight.decrementAndGet();
+        dropped.increment();
+        continue;
+      }
+      long intendedStart = intended;
+      http.sendAsync(scenario.request(base, data), BodyHandlers.discarding())
+          .whenComplete(
+              (response, error) -> {
+                recorders
+                    .get(scenario)
+                    .recordValue(
+                        Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS));
+                if (error != null) {
+                  errors.get(scenario).increment();
+                } else {
+                  statuses
+                      .get(scenario)
+                      .computeIfAbsent(response.statusCode(), status -> new LongAdder())
+                      .increment();
+                  if (response.statusCode() >= 400) errors.get(scenario).increment();
+                }
+                inFlight.decrementAndGet();
+              });
+    }
+    drain(inFlight);
+    long elapsedNanos = System.nanoTime() - start;
+
+    Map<Scenario, Endpoint> endpoints = new EnumMap<>(Scenario.class);
+    recorders.forEach(
+        (scenario, recorder) ->
+            endpoints.put(
+                scenario,
+                new Endpoint(
+                    recorder.getIntervalHistogram(),
+                    errors.get(scenario).sum(),
+                    statuses.get(scenario).entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum())))));
+    return new Result(sent, dropped.sum(), elapsedNanos, endpoints);
+  }
+
+  /** Expands the weights into a lookup table so picking a scenario is a single random index. */
+  private Scenario[] schedule() {
+    int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+    if (total <= 0)
+      throw new IllegalArgumentException("Scenario weights must add up to more than 0");
+    Scenario[] schedule = new Scenario[total];
+    int i = 0;
+    for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+      for (int w = 0; w < entry.getValue(); w++) schedule[i++] = entry.getKey();
+    }
+    return schedule;
+  }
+
+  private static void drain(AtomicInteger inFlight) {
+    long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    if (inFlight.get() > 0) {
+      log.warn("{} requests still in flight after {}, not measured", inFlight.get(), DRAIN_TIMEOUT);
+    }
+  }
+
+  record Result(long sent, long dropped, long elapsedNanos, Map<Scenario, Endpoint> endpoints) {}
+
+  record Endpoint(Histogram latencies, long errors, Map<Integer, Long> statuses) {}
+}
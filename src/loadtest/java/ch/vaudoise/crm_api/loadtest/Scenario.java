@@ -0,0 +1,124 @@
+package ch.vaudoise.crm_api.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Requests making up the traffic mix, with their default share in percent. */
+enum Scenario {
+  GET_CLIENT("get-client", 40) {
+    @Override
+    HttpRequest request(URI base, DataSet data) {
+      return get(base, "/api/clients/" + data.randomClient());
+    }
+  },
+  GET_CONTRACTS("get-contracts", 25) {
+    @Override
+    HttpRequest request(URI base, DataSet data) {
+      return get(base, "/api/clients/" + data.randomClient() + "/contracts");
+    }
+  },
+  GET_CONTRACTS_TOTAL("get-contracts-total", 15) {
+    @Override
+    HttpRequest request(URI base, DataSet data) {
+      return get(base, "/api/clients/" + data.randomClient() + "/contracts/total");
+    }
+  },
+  CREATE_CLIENT("create-client", 5) {
+    @Override
+    HttpRequest request(URI base, DataSet data) {
+      return send(base, "POST", "/api/clients", clientJson());
+    }
+  },
+  CREATE_CONTRACT("create-contract", 5) {
+    @Override
+    HttpRequest request(URI base, DataSet data) {
+      return send(base, "POST", "/api/contracts?clientId=" + data.randomClient(), contractJson());
+    }
+  },
+  UPDATE_CONTRACT("update-contract", 10) {
+    @Override
+    HttpRequest request(URI base, DataSet data) {
+      return send(
+          base, "PUT", "/api/contracts/" + data.randomContract(), "{\"cost\":" + cost() + "}");
+    }
+  };
+
+  private final String key;
+  private final int defaultWeight;
+
+  Scenario(String key, int defaultWeight) {
+    this.key = key;
+    this.defaultWeight = defaultWeight;
+  }
+
+  abstract HttpRequest request(URI base, DataSet data);
+
+  String key() {
+    return key;
+  }
+
+  int defaultWeight() {
+    return defaultWeight;
+  }
+
+  static Scenario of(String key) {
+    return Arrays.stream(values())
+        .filter(scenario -> scenario.key.equals(key))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown scenario [" + key + "]"));
+  }
+
+  /** A person or, one time in five, a company with a unique name. */
+  static String clientJson() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String name = "Load " + UUID.randomUUID();
+    String phone = "+4179" + (1_000_000 + random.nextInt(9_000_000));
+    String email = name.replace(' ', '.').toLowerCase() + "@example.org";
+    if (random.nextInt(5) == 0) {
+      return """
+{"type":"COMPANY","name":"%s","phone":"%s","email":"%s","companyIdentifier":"CHE-%d"}"""
+          .formatted(name, phone, email, 100_000_000 + random.nextInt(900_000_000));
+    }
+    LocalDate birthday = LocalDate.of(1940, 1, 1).plusDays(random.nextInt(365 * 60));
+    return """
+           {"type":"PERSON","name":"%s","phone":"%s","email":"%s","birthday":"%s"}"""
+        .formatted(name, phone, email, birthday);
+  }
+
+  /** A contract that, one time in five, has already ended. */
+  static String contractJson() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    LocalDate start = LocalDate.of(2015, 1, 1).plusDays(random.nextInt(365 * 10));
+    LocalDate end =
+        random.nextInt(5) == 0
+            ? LocalDate.now().minusDays(1 + random.nextInt(365))
+            : LocalDate.now().plusYears(1 + random.nextInt(10));
+    return """
+           {"startDate":"%s","endDate":"%s","cost":%s}"""
+        .formatted(start.isBefore(end) ? start : end.minusYears(1), end, cost());
+  }
+
+  private static String cost() {
+    return ThreadLocalRandom.current().nextInt(50, 50_000) + ".95";
+  }
+
+  private static HttpRequest get(URI base, String path) {
+    return HttpRequest.newBuilder(base.resolve(path))
+        .header("Accept", "application/json")
+        .GET()
+        .build();
+  }
+
+  private static HttpRequest send(URI base, String method, String path, String json) {
+    return HttpRequest.newBuilder(base.resolve(path))
+        .header("Content-Type", "application/json")
+        .header("Accept", "application/json")
+        .method(method, BodyPublishers.ofString(json))
+        .build();
+  }
+}
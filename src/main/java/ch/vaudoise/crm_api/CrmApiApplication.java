@@ -1,11 +1,23 @@
 package ch.vaudoise.crm_api;
 
+import ch.vaudoise.crm_api.config.CrmApiRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(CrmApiRuntimeHints.class)
 public class CrmApiApplication {
+
+  /** Startup steps kept for the {@code startup} endpoint, a full start records about 500. */
+  private static final int STARTUP_STEPS = 2048;
+
   public static void main(final String[] args) {
-    SpringApplication.run(CrmApiApplication.class, args);
+    SpringApplication application = new SpringApplication(CrmApiApplication.class);
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+    application.run(args);
   }
 }
@@ -0,0 +1,13 @@
+package ch.vaudoise.crm_api.api;
+
+import org.springframework.http.MediaType;
+
+/** Representations negotiated by the REST controllers, JSON first. */
+public final class ApiMediaTypes {
+
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+  private ApiMediaTypes() {}
+}
@@ -0,0 +1,65 @@
+package ch.vaudoise.crm_api.api;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+
+/**
+ * Logs client errors at most once per interval and category. Occurrences swallowed in between are
+ * counted and reported on the next line of the same category, so a scanner hammering unknown ids
+ * costs one log line per interval instead of one per request.
+ */
+public final class ClientErrorLog {
+
+  private final Logger log;
+  private final Duration interval;
+  private final LongSupplier nanoTime;
+  private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+  public ClientErrorLog(Logger log, Duration interval) {
+    this(log, interval, System::nanoTime);
+  }
+
+  ClientErrorLog(Logger log, Duration interval, LongSupplier nanoTime) {
+    this.log = log;
+    this.interval = interval;
+    this.nanoTime = nanoTime;
+  }
+
+  public void warn(String category, String message) {
+    if (!log.isWarnEnabled()) return;
+    long suppressed =
+        windows
+            .computeIfAbsent(category, k -> new Window())
+            .tryOpen(nanoTime.getAsLong(), interval.toNanos());
+    if (suppressed < 0) return;
+    if (suppressed == 0) {
+      log.warn("{} : {}", category, message);
+    } else {
+      log.warn(
+          "{} : {} ({} more in the last {}s)", category, message, suppressed, interval.toSeconds());
+    }
+  }
+
+  private static final class Window {
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final AtomicLong start = new AtomicLong(NEVER);
+    private final LongAdder suppressed = new LongAdder();
+
+    /** Returns the events suppressed since the last line if a new window opens, else -1. */
+    long tryOpen(long now, long length) {
+      long current = start.get();
+      if ((current == NEVER || now - current >= length) && start.compareAndSet(current, now)) {
+        return suppressed.sumThenReset();
+      }
+      suppressed.increment();
+      return -1;
+    }
+  }
+}
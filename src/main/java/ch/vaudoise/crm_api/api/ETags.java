@@ -0,0 +1,55 @@
+package ch.vaudoise.crm_api.api;
+
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Strong entity tags derived from the {@code @Version} of the returned documents, so conditional
+ * requests can be answered from the cached DTOs without serializing them.
+ */
+public final class ETags {
+
+  private ETags() {}
+
+  public static String of(Integer version) {
+    return version == null ? null : "\"" + version + "\"";
+  }
+
+  public static String ofContracts(List<ResponseContractDTO> contracts) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (ResponseContractDTO contract : contracts) {
+      String clientVersion = contract.client() == null ? "" : contract.client().version() + "";
+      digest.update(
+          (contract.id() + ':' + contract.version() + ':' + clientVersion + ';')
+              .getBytes(StandardCharsets.UTF_8));
+    }
+    return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+  }
+
+  /**
+   * Returns the version expected by an {@code If-Match} header, or {@code null} when the header is
+   * absent or {@code *}. Weak or malformed tags never match.
+   */
+  public static Integer expectedVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) return null;
+    String tag = ifMatch.trim();
+    if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+      throw new PreconditionFailedException("If-Match must be a strong entity tag: " + ifMatch);
+    }
+    try {
+      return Integer.valueOf(tag.substring(1, tag.length() - 1));
+    } catch (NumberFormatException e) {
+      throw new PreconditionFailedException("If-Match does not match any version: " + ifMatch);
+    }
+  }
+}
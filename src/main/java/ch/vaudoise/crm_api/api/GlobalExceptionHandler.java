@@ -1,13 +1,19 @@
 package ch.vaudoise.crm_api.api;
 
 import ch.vaudoise.crm_api.model.exception.ApiErrorResponse;
+import ch.vaudoise.crm_api.model.exception.ConflictException;
+import ch.vaudoise.crm_api.model.exception.DeadlineExceededException;
 import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import jakarta.validation.ConstraintViolationException;
+import java.time.Duration;
 import java.time.format.DateTimeParseException;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,6 +21,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.reactive.resource.NoResourceFoundException;
 import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.PayloadTooLargeException;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
@@ -23,24 +30,69 @@ import reactor.core.publisher.Mono;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+  private final ClientErrorLog clientErrors = new ClientErrorLog(log, Duration.ofSeconds(10));
+
   @ExceptionHandler({NoResourceFoundException.class, NotFoundException.class})
   public Mono<ResponseEntity<ApiErrorResponse>> handle404NotFound(
       RuntimeException ex, ServerWebExchange exchange) {
     String path = exchange.getRequest().getPath().value();
     ApiErrorResponse body = ApiErrorResponse.of(HttpStatus.NOT_FOUND, ex.getMessage(), path);
-    log.error("Resource not found : {}", ex.getMessage());
+    clientErrors.warn("Resource not found", ex.getMessage());
     return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(body));
   }
 
+  @ExceptionHandler(ConflictException.class)
+  public Mono<ResponseEntity<ApiErrorResponse>> handle409Conflict(
+      ConflictException ex, ServerWebExchange exchange) {
+    String path = exchange.getRequest().getPath().value();
+    ApiErrorResponse body = ApiErrorResponse.of(HttpStatus.CONFLICT, ex.getMessage(), path);
+    clientErrors.warn("Conflict", ex.getMessage());
+    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(body));
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public Mono<ResponseEntity<ApiErrorResponse>> handle412PreconditionFailed(
+      PreconditionFailedException ex, ServerWebExchange exchange) {
+    String path = exchange.getRequest().getPath().value();
+    ApiErrorResponse body =
+        ApiErrorResponse.of(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), path);
+    clientErrors.warn("Precondition failed", ex.getMessage());
+    return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(body));
+  }
+
+  @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class})
+  public Mono<ResponseEntity<ApiErrorResponse>> handle504GatewayTimeout(
+      RuntimeException ex, ServerWebExchange exchange) {
+    String path = exchange.getRequest().getPath().value();
+    ApiErrorResponse body = ApiErrorResponse.of(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage(), path);
+    clientErrors.warn("Deadline exceeded", ex.getMessage());
+    return Mono.just(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(body));
+  }
+
   @ExceptionHandler({IllegalArgumentException.class, IllegalStateException.class})
   public Mono<ResponseEntity<ApiErrorResponse>> handle400BadRequest(
       RuntimeException ex, ServerWebExchange exchange) {
     String path = exchange.getRequest().getPath().value();
     ApiErrorResponse body = ApiErrorResponse.of(HttpStatus.BAD_REQUEST, ex.getMessage(), path);
-    log.warn(ex.getMessage());
+    clientErrors.warn("Bad request", ex.getMessage());
     return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body));
   }
 
+  /**
+   * Raised by the codecs once a request body passes {@code crm.server.max-body-size}; argument
+   * resolution wraps it in a {@link PayloadTooLargeException}.
+   */
+  @ExceptionHandler({PayloadTooLargeException.class, DataBufferLimitException.class})
+  public Mono<ResponseEntity<ApiErrorResponse>> handle413PayloadTooLarge(
+      Exception ex, ServerWebExchange exchange) {
+    String path = exchange.getRequest().getPath().value();
+    DataBufferLimitException limit = findCause(ex, DataBufferLimitException.class);
+    String message = limit != null ? limit.getMessage() : ex.getMessage();
+    ApiErrorResponse body = ApiErrorResponse.of(HttpStatus.PAYLOAD_TOO_LARGE, message, path);
+    clientErrors.warn("Payload too large", message);
+    return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(body));
+  }
+
   @ExceptionHandler(DuplicateKeyException.class)
   public Mono<ResponseEntity<ApiErrorResponse>> handleDuplicateKey(
       DuplicateKeyException ex, ServerWebExchange exchange) {
@@ -50,7 +102,7 @@ public class GlobalExceptionHandler {
             HttpStatus.BAD_REQUEST,
             "Duplicate key when creating resource : " + ex.getMessage(),
             path);
-    log.warn("Duplicate key exception : {}", ex.getMessage());
+    clientErrors.warn("Duplicate key exception", ex.getMessage());
     return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body));
   }
 
@@ -64,7 +116,7 @@ public class GlobalExceptionHandler {
     String path = exchange.getRequest().getPath().value();
     ApiErrorResponse body =
         ApiErrorResponse.of(HttpStatus.BAD_REQUEST, "Validation failed: " + details, path);
-    log.warn("Validation failed : {}", ex.getMessage());
+    clientErrors.warn("Validation failed", ex.getMessage());
     return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body));
   }
 
@@ -78,7 +130,7 @@ public class GlobalExceptionHandler {
     String path = exchange.getRequest().getPath().value();
     ApiErrorResponse body =
         ApiErrorResponse.of(HttpStatus.BAD_REQUEST, "Constraint violation: " + details, path);
-    log.warn("Constraint violation: {}", ex.getMessage());
+    clientErrors.warn("Constraint violation", ex.getMessage());
     return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body));
   }
 
@@ -90,10 +142,10 @@ public class GlobalExceptionHandler {
 
     InvalidFormatException invalidFmt = findCause(cause, InvalidFormatException.class);
     if (invalidFmt != null) {
-      String message = getMessage(invalidFmt);
+      String message = malformedFieldMessage(invalidFmt);
 
       var body = ApiErrorResponse.of(HttpStatus.BAD_REQUEST, "Malformed request: " + message, path);
-      log.warn(message);
+      clientErrors.warn("Malformed request", message);
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
@@ -102,14 +154,14 @@ public class GlobalExceptionHandler {
       var body =
           ApiErrorResponse.of(
               HttpStatus.BAD_REQUEST, "Malformed date — expected format 'yyyy-MM-dd'.", path);
-      log.warn("Malformed date — expected format 'yyyy-MM-dd' : {}", ex.getMessage());
+      clientErrors.warn("Malformed date — expected format 'yyyy-MM-dd'", ex.getMessage());
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
     var body =
         ApiErrorResponse.of(
             HttpStatus.BAD_REQUEST, "Malformed field — check request body formatting.", path);
-    log.warn("Malformed field — check request body formatting : {}", ex.getMessage());
+    clientErrors.warn("Malformed field — check request body formatting", ex.getMessage());
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
   }
 
@@ -119,7 +171,7 @@ public class GlobalExceptionHandler {
     String path = exchange.getRequest().getPath().value();
     ApiErrorResponse body =
         ApiErrorResponse.of(HttpStatus.METHOD_NOT_ALLOWED, ex.getMessage(), path);
-    log.warn("Method Not Allowed : {}", ex.getMessage());
+    clientErrors.warn("Method Not Allowed", ex.getMessage());
     return Mono.just(ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED).body(body));
   }
 
@@ -134,7 +186,8 @@ public class GlobalExceptionHandler {
     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body));
   }
 
-  private <T extends Throwable> T findCause(Throwable t, Class<T> clazz) {
+  /** Shared with the servlet mode, which sees the same Jackson causes wrapped differently. */
+  public static <T extends Throwable> T findCause(Throwable t, Class<T> clazz) {
     while (t != null) {
       if (clazz.isInstance(t)) return clazz.cast(t);
       t = t.getCause();
@@ -142,7 +195,7 @@ public class GlobalExceptionHandler {
     return null;
   }
 
-  private static String getMessage(InvalidFormatException invalidFmt) {
+  public static String malformedFieldMessage(InvalidFormatException invalidFmt) {
     String field =
         invalidFmt.getPath().isEmpty() ? "unknown" : invalidFmt.getPath().getFirst().getFieldName();
     String value = String.valueOf(invalidFmt.getValue());
@@ -1,10 +1,15 @@
 package ch.vaudoise.crm_api.api.controller;
 
+import ch.vaudoise.crm_api.api.ApiMediaTypes;
+import ch.vaudoise.crm_api.api.ETags;
+import ch.vaudoise.crm_api.api.filter.ReadPreferenceWebFilter;
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
 import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
 import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
 import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
 import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
 import ch.vaudoise.crm_api.service.ClientService;
+import ch.vaudoise.crm_api.service.IdempotencyService;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,14 +17,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
+import java.util.List;
 import org.bson.types.Decimal128;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @SuppressFBWarnings(
@@ -27,14 +35,65 @@ import reactor.core.publisher.Mono;
     justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
 @RestController
 @Validated
-@RequestMapping(value = "/api/clients", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(
+    value = "/api/clients",
+    produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      ApiMediaTypes.APPLICATION_SMILE_VALUE
+    })
 @Tag(name = "Clients", description = "Endpoints to manage clients")
 public class ClientController {
 
+  private static final int MAX_LOOKUP_IDS = 1000;
+
   private final ClientService clientService;
+  private final IdempotencyService idempotencyService;
 
-  public ClientController(ClientService clientService) {
+  public ClientController(ClientService clientService, IdempotencyService idempotencyService) {
     this.clientService = clientService;
+    this.idempotencyService = idempotencyService;
+  }
+
+  @Operation(
+      summary = "Get several clients by ID",
+      description =
+          "Retrieves the clients matching a comma-separated list of IDs, in request order. Unknown IDs are returned with found=false.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Clients successfully retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid client ID"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(params = "ids")
+  public Mono<List<ClientLookupDTO>> getClients(
+      @Parameter(
+              description = "IDs of the clients to retrieve",
+              required = true,
+              example = "4ecbe7f9e8c1c9092c000027,4ecbe7f9e8c1c9092c000028")
+          @RequestParam
+          @Size(min = 1, max = MAX_LOOKUP_IDS)
+          final List<String> ids) {
+    return clientService.findAllById(ids);
+  }
+
+  @Operation(
+      summary = "Get several clients by ID (long lists)",
+      description =
+          "Same as GET /api/clients?ids=..., with the IDs sent as a JSON array for lists too long for a query string.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Clients successfully retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid client ID"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @PostMapping("/lookup")
+  public Mono<List<ClientLookupDTO>> lookupClients(
+      @Parameter(description = "IDs of the clients to retrieve", required = true)
+          @RequestBody
+          @Size(min = 1, max = MAX_LOOKUP_IDS)
+          final List<String> ids) {
+    return clientService.findAllById(ids);
   }
 
   @Operation(
@@ -43,18 +102,25 @@ public class ClientController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Client successfully retrieved"),
+        @ApiResponse(responseCode = "304", description = "Client not modified"),
         @ApiResponse(responseCode = "404", description = "Client not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @GetMapping("/{id}")
-  public Mono<ResponseClientDTO> getClient(
+  public Mono<ResponseEntity<ResponseClientDTO>> getClient(
       @Parameter(
               description = "ID of the client to retrieve",
               required = true,
               example = "4ecbe7f9e8c1c9092c000027")
           @PathVariable
-          final String id) {
-    return clientService.findById(id);
+          final String id,
+      @Parameter(description = "primary to read the latest write, bypassing the cache")
+          @RequestHeader(value = ReadPreferenceWebFilter.READ_PREFERENCE_HEADER, required = false)
+          final String readPreference) {
+    return (ReadPreferenceWebFilter.isPrimary(readPreference)
+            ? clientService.findByIdOnPrimary(id)
+            : clientService.findById(id))
+        .map(client -> ResponseEntity.ok().eTag(ETags.of(client.version())).body(client));
   }
 
   @Operation(
@@ -64,12 +130,13 @@ public class ClientController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Contracts successfully retrieved"),
+        @ApiResponse(responseCode = "304", description = "Contracts not modified"),
         @ApiResponse(responseCode = "400", description = "Invalid request"),
         @ApiResponse(responseCode = "404", description = "Client not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @GetMapping("/{id}/contracts")
-  public Flux<ResponseContractDTO> getAllContracts(
+  public Mono<ResponseEntity<List<ResponseContractDTO>>> getAllContracts(
       @Parameter(
               description = "ID of the client to contract from",
               required = true,
@@ -87,8 +154,15 @@ public class ClientController {
               example = "2025-12-31")
           @RequestParam(required = false)
           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
-          LocalDate to) {
-    return clientService.getAllActiveContracts(id, from, to);
+          LocalDate to,
+      @Parameter(description = "primary to read the latest write, bypassing the cache")
+          @RequestHeader(value = ReadPreferenceWebFilter.READ_PREFERENCE_HEADER, required = false)
+          final String readPreference) {
+    return (ReadPreferenceWebFilter.isPrimary(readPreference)
+            ? clientService.getAllActiveContractsOnPrimary(id, from, to)
+            : clientService.getAllActiveContracts(id, from, to))
+        .collectList()
+        .map(contracts -> ResponseEntity.ok().eTag(ETags.ofContracts(contracts)).body(contracts));
   }
 
   @Operation(
@@ -107,8 +181,13 @@ public class ClientController {
               required = true,
               example = "4ecbe7f9e8c1c9092c000027")
           @PathVariable
-          final String id) {
-    return clientService.getAllActiveContractsTotalSum(id);
+          final String id,
+      @Parameter(description = "primary to read the latest write, bypassing the cache")
+          @RequestHeader(value = ReadPreferenceWebFilter.READ_PREFERENCE_HEADER, required = false)
+          final String readPreference) {
+    return ReadPreferenceWebFilter.isPrimary(readPreference)
+        ? clientService.getAllActiveContractsTotalSumOnPrimary(id)
+        : clientService.getAllActiveContractsTotalSum(id);
   }
 
   @Operation(
@@ -119,14 +198,22 @@ public class ClientController {
       value = {
         @ApiResponse(responseCode = "201", description = "Client successfully created"),
         @ApiResponse(responseCode = "400", description = "Invalid client data"),
+        @ApiResponse(
+            responseCode = "409",
+            description = "A request with the same Idempotency-Key is in progress"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   public Mono<String> createClient(
+      @Parameter(description = "Key making retries of this request safe")
+          @RequestHeader(value = IdempotencyService.HEADER, required = false)
+          final String idempotencyKey,
       @Parameter(description = "Client data to create", required = true) @RequestBody @Valid
           final CreateClientDTO client) {
-    return clientService.create(client);
+    if (idempotencyKey == null) return clientService.create(client);
+    return idempotencyService.execute(
+        "clients", idempotencyKey, client, () -> clientService.create(client));
   }
 
   @Operation(
@@ -138,6 +225,7 @@ public class ClientController {
         @ApiResponse(responseCode = "200", description = "Client successfully updated"),
         @ApiResponse(responseCode = "400", description = "Invalid client data"),
         @ApiResponse(responseCode = "404", description = "Client not found"),
+        @ApiResponse(responseCode = "412", description = "Client version does not match If-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @PutMapping("/{id}")
@@ -149,9 +237,12 @@ public class ClientController {
               example = "4ecbe7f9e8c1c9092c000027")
           @PathVariable
           final String id,
+      @Parameter(description = "Entity tag of the client version being updated", example = "\"3\"")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          final String ifMatch,
       @Parameter(description = "Updated client data", required = true) @RequestBody @Valid
           final UpdateClientDTO client) {
-    return clientService.update(id, client);
+    return clientService.update(id, client, ETags.expectedVersion(ifMatch));
   }
 
   @Operation(
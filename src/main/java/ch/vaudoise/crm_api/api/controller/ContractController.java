@@ -1,8 +1,11 @@
 package ch.vaudoise.crm_api.api.controller;
 
+import ch.vaudoise.crm_api.api.ApiMediaTypes;
+import ch.vaudoise.crm_api.api.ETags;
 import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
 import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
 import ch.vaudoise.crm_api.service.ContractService;
+import ch.vaudoise.crm_api.service.IdempotencyService;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,6 +14,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
@@ -19,16 +23,25 @@ import reactor.core.publisher.Mono;
 
 @RestController
 @Validated
-@RequestMapping(value = "/api/contracts", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(
+    value = "/api/contracts",
+    produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      ApiMediaTypes.APPLICATION_SMILE_VALUE
+    })
 @Tag(name = "Contracts", description = "Endpoints to manage contracts")
 public class ContractController {
 
   private final ContractService contractService;
+  private final IdempotencyService idempotencyService;
 
   @SuppressFBWarnings(
       justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
-  public ContractController(final ContractService contractService) {
+  public ContractController(
+      final ContractService contractService, final IdempotencyService idempotencyService) {
     this.contractService = contractService;
+    this.idempotencyService = idempotencyService;
   }
 
   @Operation(
@@ -40,11 +53,17 @@ public class ContractController {
         @ApiResponse(responseCode = "201", description = "Client successfully created"),
         @ApiResponse(responseCode = "400", description = "Invalid client data"),
         @ApiResponse(responseCode = "404", description = "Client not found"),
+        @ApiResponse(
+            responseCode = "409",
+            description = "A request with the same Idempotency-Key is in progress"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   public Mono<String> createContract(
+      @Parameter(description = "Key making retries of this request safe")
+          @RequestHeader(value = IdempotencyService.HEADER, required = false)
+          final String idempotencyKey,
       @Parameter(
               description = "ID of the client.",
               required = true,
@@ -54,7 +73,12 @@ public class ContractController {
           final String clientId,
       @Parameter(description = "New contract data", required = true) @RequestBody @Valid
           final CreateContractDTO contract) {
-    return contractService.create(clientId, contract);
+    if (idempotencyKey == null) return contractService.create(clientId, contract);
+    return idempotencyService.execute(
+        "contracts",
+        idempotencyKey,
+        clientId + ':' + contract,
+        () -> contractService.create(clientId, contract));
   }
 
   @Operation(
@@ -66,6 +90,9 @@ public class ContractController {
         @ApiResponse(responseCode = "204", description = "Contract successfully updated"),
         @ApiResponse(responseCode = "400", description = "Invalid contract data"),
         @ApiResponse(responseCode = "404", description = "Client not found"),
+        @ApiResponse(
+            responseCode = "412",
+            description = "Contract version does not match If-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @PutMapping("/{id}")
@@ -77,9 +104,14 @@ public class ContractController {
               example = "4ecbe7f9e8c1c9092c000027")
           @PathVariable
           final String id,
+      @Parameter(
+              description = "Entity tag of the contract version being updated",
+              example = "\"3\"")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          final String ifMatch,
       @Parameter(description = "Update contract data", required = true) @RequestBody @Valid
           final UpdateContractDTO contract) {
-    return contractService.update(id, contract);
+    return contractService.update(id, contract, ETags.expectedVersion(ifMatch));
   }
 
   @DeleteMapping("/{id}")
@@ -0,0 +1,121 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import ch.vaudoise.crm_api.config.ConcurrencyLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds API requests beyond an adaptive concurrency limit with a 503, before they queue up for a
+ * Mongo connection. Reads and writes are limited separately, so slow writes do not starve reads.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(
+    prefix = "crm.concurrency-limit",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ConcurrencyLimitWebFilter implements WebFilter {
+
+  private static final String API_PATH = "/api/";
+
+  private final Map<String, GradientLimiter> limiters;
+  private final Map<String, Counter> rejections;
+  private final ObjectMapper objectMapper;
+  private final String retryAfter;
+
+  public ConcurrencyLimitWebFilter(
+      final ConcurrencyLimitProperties properties,
+      final ObjectMapper objectMapper,
+      final MeterRegistry meterRegistry) {
+    this.objectMapper = objectMapper;
+    this.retryAfter = String.valueOf(Math.max(1, properties.retryAfter().toSeconds()));
+    this.limiters =
+        Map.of(
+            "read", limiter(properties.read(), properties),
+            "write", limiter(properties.write(), properties));
+    this.rejections =
+        Map.of(
+            "read", meterRegistry.counter("crm.concurrency.rejected", "route", "read"),
+            "write", meterRegistry.counter("crm.concurrency.rejected", "route", "write"));
+    limiters.forEach(
+        (route, limiter) -> {
+          Gauge.builder("crm.concurrency.limit", limiter, GradientLimiter::limit)
+              .description("Current adaptive concurrency limit")
+              .tag("route", route)
+              .register(meterRegistry);
+          Gauge.builder("crm.concurrency.in_flight", limiter, GradientLimiter::inFlight)
+              .description("Requests currently holding a permit")
+              .tag("route", route)
+              .register(meterRegistry);
+        });
+  }
+
+  private static GradientLimiter limiter(
+      ConcurrencyLimitProperties.Route route, ConcurrencyLimitProperties properties) {
+    return new GradientLimiter(
+        route.initialLimit(),
+        route.minLimit(),
+        route.maxLimit(),
+        properties.tolerance(),
+        properties.smoothing());
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (!exchange.getRequest().getPath().value().startsWith(API_PATH)) {
+      return chain.filter(exchange);
+    }
+    String route = isRead(exchange.getRequest().getMethod()) ? "read" : "write";
+    GradientLimiter limiter = limiters.get(route);
+    int inFlightAtStart = limiter.tryAcquire();
+    if (inFlightAtStart < 0) {
+      rejections.get(route).increment();
+      return reject(exchange, route);
+    }
+    long start = System.nanoTime();
+    return chain
+        .filter(exchange)
+        .doFinally(
+            signal -> {
+              long elapsed = System.nanoTime() - start;
+              if (signal == SignalType.CANCEL) {
+                limiter.drop(elapsed, inFlightAtStart);
+              } else {
+                limiter.release(elapsed, inFlightAtStart);
+              }
+            });
+  }
+
+  private static boolean isRead(HttpMethod method) {
+    return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+  }
+
+  private Mono<Void> reject(ServerWebExchange exchange, String route) {
+    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+    return ErrorResponses.write(
+        exchange,
+        objectMapper,
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "Too many concurrent " + route + " requests, retry later");
+  }
+}
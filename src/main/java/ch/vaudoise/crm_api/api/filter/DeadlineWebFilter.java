@@ -0,0 +1,110 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import ch.vaudoise.crm_api.config.DeadlineProperties;
+import ch.vaudoise.crm_api.repository.Deadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives every API request a deadline, from the timeout header or the route default, and stores it
+ * in the Reactor context so repository calls send the remaining budget to MongoDB. A request still
+ * running at its deadline is cancelled down to the cursor and answered with a 504.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(
+    prefix = "crm.deadline",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class DeadlineWebFilter implements WebFilter {
+
+  private static final String API_PATH = "/api/";
+
+  private final DeadlineProperties properties;
+  private final ObjectMapper objectMapper;
+  private final List<RouteTimeout> routes;
+
+  public DeadlineWebFilter(final DeadlineProperties properties, final ObjectMapper objectMapper) {
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+    this.routes =
+        properties.routes().stream()
+            .map(
+                route ->
+                    new RouteTimeout(
+                        PathPatternParser.defaultInstance.parse(route.pattern()), route.timeout()))
+            .toList();
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (!exchange.getRequest().getPath().value().startsWith(API_PATH)) {
+      return chain.filter(exchange);
+    }
+    Duration timeout = timeout(exchange);
+    return chain
+        .filter(exchange)
+        .timeout(timeout)
+        .onErrorResume(
+            TimeoutException.class,
+            e -> {
+              log.warn(
+                  "Deadline of {}ms exceeded for {} {}",
+                  timeout.toMillis(),
+                  exchange.getRequest().getMethod(),
+                  exchange.getRequest().getPath());
+              if (exchange.getResponse().isCommitted()) return Mono.error(e);
+              return ErrorResponses.write(
+                  exchange,
+                  objectMapper,
+                  HttpStatus.GATEWAY_TIMEOUT,
+                  "Request did not complete within " + timeout.toMillis() + "ms");
+            })
+        .contextWrite(Deadline.in(timeout));
+  }
+
+  private Duration timeout(ServerWebExchange exchange) {
+    String requested = exchange.getRequest().getHeaders().getFirst(properties.header());
+    if (requested != null) {
+      try {
+        Duration timeout = DurationStyle.detectAndParse(requested.trim(), ChronoUnit.MILLIS);
+        if (timeout.isPositive()) {
+          return timeout.compareTo(properties.maxTimeout()) > 0 ? properties.maxTimeout() : timeout;
+        }
+      } catch (IllegalArgumentException e) {
+        log.debug("Ignoring malformed {} header: {}", properties.header(), requested);
+      }
+    }
+    PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+    return routes.stream()
+        .filter(route -> route.pattern().matches(path))
+        .map(RouteTimeout::timeout)
+        .findFirst()
+        .orElse(properties.defaultTimeout());
+  }
+
+  private record RouteTimeout(PathPattern pattern, Duration timeout) {}
+}
@@ -0,0 +1,34 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import ch.vaudoise.crm_api.model.exception.ApiErrorResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/** Writes an {@link ApiErrorResponse} from a filter, outside the reach of the controller advice. */
+@Slf4j
+final class ErrorResponses {
+
+  private ErrorResponses() {}
+
+  static Mono<Void> write(
+      ServerWebExchange exchange, ObjectMapper objectMapper, HttpStatus status, String message) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(status);
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    ApiErrorResponse body =
+        ApiErrorResponse.of(status, message, exchange.getRequest().getPath().value());
+    try {
+      return response.writeWith(
+          Mono.just(response.bufferFactory().wrap(objectMapper.writeValueAsBytes(body))));
+    } catch (JsonProcessingException e) {
+      log.warn("Failed to write {} response body", status.value(), e);
+      return response.setComplete();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted from observed latency, after the gradient algorithm of Netflix
+ * concurrency-limits. The limit shrinks when recent latency rises above the long-term baseline and
+ * grows by {@code sqrt(limit)} while latency stays within {@code tolerance} of it.
+ */
+class GradientLimiter {
+
+  private static final double LONG_WINDOW = 600;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double smoothing;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private volatile double limit;
+  private double longRtt;
+
+  GradientLimiter(
+      int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.smoothing = smoothing;
+  }
+
+  /** Returns the number of requests in flight when acquired, or {@code -1} if over the limit. */
+  int tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= (int) limit) return -1;
+      if (inFlight.compareAndSet(current, current + 1)) return current;
+    }
+  }
+
+  /**
+   * Releases the permit of a cancelled request. Its elapsed time is only a lower bound of its
+   * latency, so it feeds the limit only when already beyond the tolerated latency: requests
+   * abandoned at their deadline shrink the limit, early client disconnects leave it alone.
+   */
+  void drop(long elapsedNanos, int inFlightAtStart) {
+    inFlight.decrementAndGet();
+    dropped(elapsedNanos, inFlightAtStart);
+  }
+
+  void release(long rttNanos, int inFlightAtStart) {
+    inFlight.decrementAndGet();
+    update(rttNanos, inFlightAtStart);
+  }
+
+  private synchronized void dropped(long elapsedNanos, int inFlightAtStart) {
+    if (longRtt == 0 || elapsedNanos <= tolerance * longRtt) return;
+    update(elapsedNanos, inFlightAtStart);
+  }
+
+  private synchronized void update(long rttNanos, int inFlightAtStart) {
+    double shortRtt = Math.max(rttNanos, 1);
+    if (longRtt == 0) {
+      longRtt = shortRtt;
+    } else {
+      longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+      // Let the baseline recover quickly after a period of high latency.
+      if (longRtt / shortRtt > 2) longRtt *= 0.95;
+    }
+    // An underused limit says nothing about what the backend can sustain.
+    if (inFlightAtStart < limit / 2) return;
+
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+    double target = limit * gradient + Math.sqrt(limit);
+    double smoothed = limit * (1 - smoothing) + target * smoothing;
+    limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+  }
+
+  int limit() {
+    return (int) limit;
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+}
@@ -0,0 +1,27 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ReadPreferenceWebFilter implements WebFilter {
+
+  public static final String READ_PREFERENCE_HEADER = "X-Read-Preference";
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (isPrimary(exchange.getRequest().getHeaders().getFirst(READ_PREFERENCE_HEADER))) {
+      return chain.filter(exchange).contextWrite(ReadConsistency.primary());
+    }
+    return chain.filter(exchange);
+  }
+
+  /** Whether a {@value #READ_PREFERENCE_HEADER} header value asks for a primary read. */
+  public static boolean isPrimary(String preference) {
+    return "primary".equalsIgnoreCase(preference);
+  }
+}
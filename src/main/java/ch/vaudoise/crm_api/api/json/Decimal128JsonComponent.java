@@ -0,0 +1,81 @@
+package ch.vaudoise.crm_api.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import java.io.IOException;
+import java.math.BigDecimal;
+import org.bson.types.Decimal128;
+import org.springframework.boot.jackson.JsonComponent;
+
+/**
+ * Writes {@link Decimal128} as a plain JSON number and reads it back from numbers or numeric
+ * strings without going through {@code double}, so costs round-trip exactly.
+ *
+ * <p>Values whose significand fits in a {@code long} (every realistic amount) are decoded straight
+ * from the IEEE 754-2008 bit layout; {@link Decimal128#toString()} and {@link
+ * Decimal128#bigDecimalValue()} both go through a {@code BigInteger} for every value.
+ */
+@JsonComponent
+public class Decimal128JsonComponent {
+
+  public static class Serializer extends StdScalarSerializer<Decimal128> {
+
+    private static final long SIGN_BIT = 0x8000000000000000L;
+    private static final long LARGE_FORM = 0x6000000000000000L;
+    private static final long HIGH_SIGNIFICAND = 0x0001FFFFFFFFFFFFL;
+    private static final int EXPONENT_OFFSET = 6176;
+
+    public Serializer() {
+      super(Decimal128.class);
+    }
+
+    @Override
+    public void serialize(Decimal128 value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      long high = value.getHigh();
+      long low = value.getLow();
+      if ((high & LARGE_FORM) != LARGE_FORM && (high & HIGH_SIGNIFICAND) == 0 && low >= 0) {
+        int exponent = (int) ((high & ~SIGN_BIT) >>> 49) - EXPONENT_OFFSET;
+        gen.writeNumber(BigDecimal.valueOf((high & SIGN_BIT) == 0 ? low : -low, -exponent));
+      } else if (value.isNaN() || value.isInfinite()) {
+        gen.writeString(value.toString());
+      } else {
+        gen.writeNumber(value.toString());
+      }
+    }
+  }
+
+  public static class Deserializer extends StdScalarDeserializer<Decimal128> {
+
+    public Deserializer() {
+      super(Decimal128.class);
+    }
+
+    @Override
+    public Decimal128 deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      JsonToken token = p.currentToken();
+      try {
+        if (token == JsonToken.VALUE_NUMBER_INT
+            && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+          return new Decimal128(p.getLongValue());
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+          return new Decimal128(p.getDecimalValue());
+        }
+        if (token == JsonToken.VALUE_STRING) {
+          return Decimal128.parse(p.getText().trim());
+        }
+      } catch (NumberFormatException e) {
+        return (Decimal128)
+            ctxt.handleWeirdStringValue(
+                Decimal128.class, p.getText(), "not a valid Decimal128: %s", e.getMessage());
+      }
+      return (Decimal128) ctxt.handleUnexpectedToken(Decimal128.class, p);
+    }
+  }
+}
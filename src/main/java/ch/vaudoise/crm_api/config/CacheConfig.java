@@ -1,26 +1,44 @@
 package ch.vaudoise.crm_api.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.ObservationRegistry;
 import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableCaching
 public class CacheConfig {
   @Bean
-  public Caffeine caffeineConfig() {
-    return Caffeine.newBuilder()
-        .maximumSize(1000)
-        .expireAfterWrite(15, TimeUnit.MINUTES)
-        .refreshAfterWrite(5, TimeUnit.MINUTES);
+  public Caffeine<Object, Object> caffeineConfig() {
+    return Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(15, TimeUnit.MINUTES);
   }
 
   @Bean
-  public CacheManager cacheManager(Caffeine caffeineConfig) {
-    CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+  public CacheManager cacheManager(
+      Caffeine<Object, Object> caffeineConfig,
+      ObjectProvider<ObservationRegistry> registry,
+      ReadPreferenceProperties readPreference) {
+    CaffeineCacheManager caffeineCacheManager =
+        new CaffeineCacheManager() {
+          @Override
+          protected Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+            return new WriteFencedCaffeineCache(
+                name,
+                cache,
+                isAllowNullValues(),
+                () -> registry.getIfAvailable(() -> ObservationRegistry.NOOP),
+                readPreference.staleness());
+          }
+        };
     caffeineCacheManager.setCaffeine(caffeineConfig);
+    caffeineCacheManager.setAsyncCacheMode(true);
     return caffeineCacheManager;
   }
 }
@@ -0,0 +1,12 @@
+package ch.vaudoise.crm_api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.client-summary")
+public record ClientSummaryProperties(
+    @DefaultValue("true") boolean driftCheckEnabled,
+    @DefaultValue("1h") Duration driftCheckInterval,
+    @DefaultValue("500") int batchSize,
+    @DefaultValue("true") boolean repair) {}
@@ -0,0 +1,101 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.api.ApiMediaTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registers CBOR and Smile codecs next to JSON. Their mappers come from the application {@link
+ * Jackson2ObjectMapperBuilder}, so the binary formats share the JSON modules and serializers. The
+ * media types are passed explicitly: without them the Jackson codecs advertise the JSON types.
+ */
+@Configuration
+public class CodecConfig implements WebFluxConfigurer {
+
+  private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+  private final ObjectProvider<ObjectMapper> objectMapper;
+
+  public CodecConfig(
+      final ObjectProvider<Jackson2ObjectMapperBuilder> builders,
+      final ObjectProvider<ObjectMapper> objectMapper) {
+    this.builders = builders;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+    ObjectMapper smile = builder().factory(new SmileFactory()).build();
+    configurer
+        .defaultCodecs()
+        .jackson2SmileEncoder(new Jackson2SmileEncoder(smile, ApiMediaTypes.APPLICATION_SMILE));
+    configurer
+        .defaultCodecs()
+        .jackson2SmileDecoder(new Jackson2SmileDecoder(smile, ApiMediaTypes.APPLICATION_SMILE));
+
+    // Custom writers are consulted before the default ones, so JSON is registered ahead of CBOR
+    // to remain the representation chosen for "Accept: */*".
+    configurer
+        .customCodecs()
+        .register(new Jackson2JsonEncoder(objectMapper.getIfAvailable(ObjectMapper::new)));
+    ObjectMapper cbor = builder().factory(new CBORFactory()).build();
+    configurer.customCodecs().register(new CborEncoder(cbor));
+    // With the default config so the request body limit applies to CBOR as well.
+    configurer
+        .customCodecs()
+        .registerWithDefaultConfig(new Jackson2CborDecoder(cbor, MediaType.APPLICATION_CBOR));
+  }
+
+  private Jackson2ObjectMapperBuilder builder() {
+    return builders.getIfAvailable(Jackson2ObjectMapperBuilder::new);
+  }
+
+  /**
+   * {@link Jackson2CborEncoder} rejects every publisher, including the single values returned by
+   * the controllers. Values are encoded one at a time and a multi-value publisher as one array.
+   */
+  static final class CborEncoder extends Jackson2CborEncoder {
+
+    CborEncoder(ObjectMapper mapper) {
+      super(mapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(
+        Publisher<?> inputStream,
+        DataBufferFactory bufferFactory,
+        ResolvableType elementType,
+        MimeType mimeType,
+        Map<String, Object> hints) {
+      if (inputStream instanceof Mono<?> mono) {
+        return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+            .flux();
+      }
+      ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+      return Flux.from(inputStream)
+          .collectList()
+          .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+          .flux();
+    }
+  }
+}
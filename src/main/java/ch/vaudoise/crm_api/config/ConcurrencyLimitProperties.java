@@ -0,0 +1,20 @@
+package ch.vaudoise.crm_api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.concurrency-limit")
+public record ConcurrencyLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue Route read,
+    @DefaultValue Route write,
+    @DefaultValue("2.0") double tolerance,
+    @DefaultValue("0.2") double smoothing,
+    @DefaultValue("1s") Duration retryAfter) {
+
+  public record Route(
+      @DefaultValue("100") int initialLimit,
+      @DefaultValue("10") int minLimit,
+      @DefaultValue("1000") int maxLimit) {}
+}
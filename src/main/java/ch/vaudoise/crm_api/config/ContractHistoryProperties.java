@@ -0,0 +1,21 @@
+package ch.vaudoise.crm_api.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.contract-history")
+public record ContractHistoryProperties(
+    @DefaultValue("10000") int queueCapacity,
+    @DefaultValue("500") int batchSize,
+    @DefaultValue("500ms") Duration flushInterval,
+    @DefaultValue("SPILL") Overflow overflow,
+    @DefaultValue("contract-history-overflow.jsonl") Path spillFile,
+    @DefaultValue("10s") Duration shutdownTimeout) {
+
+  public enum Overflow {
+    DROP,
+    SPILL
+  }
+}
@@ -0,0 +1,128 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
+import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
+import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.model.entity.ContractHistory;
+import ch.vaudoise.crm_api.model.entity.IdempotencyRecord;
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import ch.vaudoise.crm_api.model.entity.SlowQuery;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.metadata.BeanDescriptor;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.bson.types.Decimal128;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Native image metadata Spring AOT does not infer.
+ *
+ * <ul>
+ *   <li>Entities are bound whole, with their Lombok constructors, accessors and nested types
+ *       ({@link Decimal128} included), instead of the parts reached through repository signatures.
+ *   <li>Request bodies are validated by Hibernate Validator, which instantiates the constraint
+ *       validators, {@code ClientValidator} included, reflectively. Spring only registers them for
+ *       beans, so they are resolved here from the validator metadata at build time.
+ *   <li>The Swagger UI webjar is served from the classpath.
+ * </ul>
+ */
+public class CrmApiRuntimeHints implements RuntimeHintsRegistrar {
+
+  static final List<Class<?>> ENTITIES =
+      List.of(
+          Client.class,
+          Contract.class,
+          ContractHistory.class,
+          IdempotencyRecord.class,
+          OutboxEvent.class,
+          SlowQuery.class);
+
+  static final List<Class<?>> REQUEST_BODIES =
+      List.of(
+          CreateClientDTO.class,
+          UpdateClientDTO.class,
+          CreateContractDTO.class,
+          UpdateContractDTO.class);
+
+  static final List<Class<?>> RESPONSE_BODIES =
+      List.of(ResponseClientDTO.class, ResponseContractDTO.class, ClientLookupDTO.class);
+
+  private final BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    ReflectionHints reflection = hints.reflection();
+    ENTITIES.forEach(
+        entity ->
+            reflection.registerType(
+                entity,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS));
+    bindings.registerReflectionHints(reflection, ENTITIES.toArray(Class[]::new));
+    bindings.registerReflectionHints(reflection, REQUEST_BODIES.toArray(Class[]::new));
+    bindings.registerReflectionHints(reflection, RESPONSE_BODIES.toArray(Class[]::new));
+
+    try (ValidatorFactory factory =
+        Validation.byDefaultProvider()
+            .configure()
+            .messageInterpolator(new ParameterMessageInterpolator())
+            .buildValidatorFactory()) {
+      Set<Class<?>> visited = new HashSet<>();
+      REQUEST_BODIES.forEach(
+          body -> registerConstraints(reflection, factory.getValidator(), body, visited));
+    }
+
+    hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/*/*");
+    hints.resources().registerPattern("META-INF/maven/org.webjars/swagger-ui/pom.properties");
+  }
+
+  private static void registerConstraints(
+      ReflectionHints reflection, Validator validator, Class<?> type, Set<Class<?>> visited) {
+    if (!visited.add(type)) {
+      return;
+    }
+    BeanDescriptor descriptor = validator.getConstraintsForClass(type);
+    descriptor
+        .getConstraintDescriptors()
+        .forEach(constraint -> registerConstraint(reflection, constraint));
+    for (PropertyDescriptor property : descriptor.getConstrainedProperties()) {
+      property
+          .getConstraintDescriptors()
+          .forEach(constraint -> registerConstraint(reflection, constraint));
+      if (property.isCascaded()) {
+        registerConstraints(reflection, validator, property.getElementClass(), visited);
+      }
+    }
+  }
+
+  private static void registerConstraint(
+      ReflectionHints reflection, ConstraintDescriptor<?> constraint) {
+    reflection.registerType(
+        constraint.getAnnotation().annotationType(), MemberCategory.INVOKE_PUBLIC_METHODS);
+    constraint
+        .getConstraintValidatorClasses()
+        .forEach(
+            validator ->
+                reflection.registerType(validator, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS));
+    constraint
+        .getComposingConstraints()
+        .forEach(composing -> registerConstraint(reflection, composing));
+  }
+}
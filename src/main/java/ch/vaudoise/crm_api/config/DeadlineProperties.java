@@ -0,0 +1,18 @@
+package ch.vaudoise.crm_api.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.deadline")
+public record DeadlineProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("X-Request-Timeout") String header,
+    @DefaultValue("5s") Duration defaultTimeout,
+    @DefaultValue("30s") Duration maxTimeout,
+    @DefaultValue List<Route> routes) {
+
+  /** Default deadline for the API paths matching {@code pattern}, e.g. {@code /api/clients/*}. */
+  public record Route(String pattern, Duration timeout) {}
+}
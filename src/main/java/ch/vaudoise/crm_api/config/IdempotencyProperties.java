@@ -0,0 +1,11 @@
+package ch.vaudoise.crm_api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.idempotency")
+public record IdempotencyProperties(
+    @DefaultValue("24h") Duration ttl,
+    @DefaultValue("10000") int cacheSize,
+    @DefaultValue("255") int maxKeyLength) {}
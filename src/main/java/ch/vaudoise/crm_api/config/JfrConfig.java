@@ -0,0 +1,22 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.observability.JfrCommandListener;
+import ch.vaudoise.crm_api.observability.JfrObservationHandler;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Custom JFR events, only recorded while a recording enables them (see {@code JfrEndpoint}). */
+@Configuration
+public class JfrConfig {
+
+  @Bean
+  public JfrObservationHandler jfrObservationHandler() {
+    return new JfrObservationHandler();
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer jfrCommandCustomizer() {
+    return settings -> settings.addCommandListener(new JfrCommandListener());
+  }
+}
@@ -0,0 +1,16 @@
+package ch.vaudoise.crm_api.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("crm.jfr")
+public record JfrProperties(
+    @DefaultValue("crm-jfr") Path directory,
+    @DefaultValue("profile") String defaultSettings,
+    @DefaultValue("60s") Duration defaultDuration,
+    @DefaultValue("10m") Duration maxDuration,
+    @DefaultValue("256MB") DataSize maxSize,
+    @DefaultValue("5") int keepRecordings) {}
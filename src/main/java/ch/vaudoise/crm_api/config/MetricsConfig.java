@@ -0,0 +1,88 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.observability.ObservedMethodInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.reactive.result.method.RequestMappingInfoHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+
+@Configuration
+public class MetricsConfig {
+
+  /** {@code uri} tag of the Netty metrics for requests matching no route. */
+  public static final String UNMATCHED = "UNMATCHED";
+
+  /**
+   * Applies {@link ObservedMethodInterceptor} to {@link Observed} beans. Infrastructure role so the
+   * auto-proxy creator already used for {@code @Transactional} picks it up; highest precedence so
+   * the timing includes the transaction and cache interceptors.
+   */
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  public static Advisor observedAdvisor(final ObjectProvider<ObservationRegistry> registry) {
+    ComposablePointcut pointcut =
+        new ComposablePointcut(new AnnotationMatchingPointcut(Observed.class, true))
+            .union(AnnotationMatchingPointcut.forMethodAnnotation(Observed.class));
+    DefaultPointcutAdvisor advisor =
+        new DefaultPointcutAdvisor(
+            pointcut,
+            new ObservedMethodInterceptor(
+                () -> registry.getIfAvailable(() -> ObservationRegistry.NOOP)));
+    advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return advisor;
+  }
+
+  /** Reactor Netty connection, data and request metrics, published to the global registry. */
+  @Bean
+  @ConditionalOnProperty(prefix = "crm.metrics.netty", name = "enabled", matchIfMissing = true)
+  public NettyServerCustomizer nettyMetricsCustomizer(
+      final ObjectProvider<RequestMappingInfoHandlerMapping> handlerMappings) {
+    return server -> server.metrics(true, uriTag(() -> routes(handlerMappings)));
+  }
+
+  /** Path patterns of the annotated handlers, actuator endpoints included, most specific first. */
+  static List<PathPattern> routes(
+      final ObjectProvider<RequestMappingInfoHandlerMapping> handlerMappings) {
+    return handlerMappings
+        .orderedStream()
+        .flatMap(mapping -> mapping.getHandlerMethods().keySet().stream())
+        .flatMap(info -> info.getPatternsCondition().getPatterns().stream())
+        .distinct()
+        .sorted(PathPattern.SPECIFICITY_COMPARATOR)
+        .toList();
+  }
+
+  /**
+   * Reports each request under the route it matches, or {@value #UNMATCHED}, so the {@code uri} tag
+   * stays bounded by the routes whatever paths clients send. Routes are read on the first request,
+   * once the handler mappings are ready.
+   */
+  static Function<String, String> uriTag(final Supplier<List<PathPattern>> routes) {
+    Supplier<List<PathPattern>> known = SingletonSupplier.of(routes);
+    return uri -> {
+      int query = uri.indexOf('?');
+      PathContainer path = PathContainer.parsePath(query < 0 ? uri : uri.substring(0, query));
+      for (PathPattern route : known.get()) {
+        if (route.matches(path)) return route.getPatternString();
+      }
+      return UNMATCHED;
+    };
+  }
+}
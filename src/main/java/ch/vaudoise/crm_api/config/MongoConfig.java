@@ -1,11 +1,24 @@
 package ch.vaudoise.crm_api.config;
 
+import com.mongodb.ReadPreference;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
+import com.mongodb.reactivestreams.client.MongoClient;
 import java.time.OffsetDateTime;
 import java.util.Optional;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
 import org.springframework.data.mongodb.core.mapping.event.ValidatingEntityCallback;
 import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
@@ -24,4 +37,48 @@ public class MongoConfig {
       final LocalValidatorFactoryBean factory) {
     return new ValidatingEntityCallback(factory);
   }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer readPreferenceCustomizer(
+      final ReadPreferenceProperties properties) {
+    return settings -> settings.readPreference(properties.toReadPreference());
+  }
+
+  @Bean
+  public ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory(
+      final MongoClient mongoClient,
+      final MongoProperties properties,
+      final MongoConnectionDetails connectionDetails) {
+    return new ReadPreferenceRoutingDatabaseFactory(
+        new SimpleReactiveMongoDatabaseFactory(
+            mongoClient, databaseName(properties, connectionDetails)));
+  }
+
+  /**
+   * Same resolution as Spring Boot's own factory, so service connections (Testcontainers, Docker
+   * Compose) select the database of their connection string.
+   */
+  static String databaseName(
+      final MongoProperties properties, final MongoConnectionDetails connectionDetails) {
+    String database = properties.getDatabase();
+    return database != null ? database : connectionDetails.getConnectionString().getDatabase();
+  }
+
+  /** Retries transactions MongoDB aborted on a transient error, see the interceptor. */
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  public static Advisor transientTransactionRetryAdvisor() {
+    return TransientTransactionRetryInterceptor.advisor();
+  }
+
+  @Bean
+  public ReactiveMongoTransactionManager transactionManager(
+      final ReactiveMongoDatabaseFactory factory) {
+    return new ReactiveMongoTransactionManager(
+        factory,
+        TransactionOptions.builder()
+            .readPreference(ReadPreference.primary())
+            .writeConcern(WriteConcern.MAJORITY)
+            .build());
+  }
 }
@@ -0,0 +1,60 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.observability.MongoCommandMetricsListener;
+import ch.vaudoise.crm_api.observability.MongoPoolMetricsListener;
+import ch.vaudoise.crm_api.observability.ReactorRequestContext;
+import ch.vaudoise.crm_api.observability.RepositoryMethodInterceptor;
+import ch.vaudoise.crm_api.observability.SlowQueryCommandListener;
+import ch.vaudoise.crm_api.observability.SlowQueryRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+@Configuration
+public class MongoMetricsConfig {
+
+  @Bean
+  public static BeanPostProcessor repositoryMethodTaggingPostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(
+              factory ->
+                  factory.addRepositoryProxyPostProcessor(
+                      (proxy, information) ->
+                          proxy.addAdvice(
+                              new RepositoryMethodInterceptor(
+                                  information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoMetricsCustomizer(
+      final MeterRegistry meterRegistry) {
+    return settings ->
+        settings
+            .contextProvider(ReactorRequestContext.PROVIDER)
+            .addCommandListener(new MongoCommandMetricsListener(meterRegistry))
+            .applyToConnectionPoolSettings(
+                pool ->
+                    pool.addConnectionPoolListener(new MongoPoolMetricsListener(meterRegistry)));
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "crm.slow-query", name = "enabled", matchIfMissing = true)
+  public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(
+      final SlowQueryProperties properties, final ObjectProvider<SlowQueryRecorder> recorder) {
+    return settings ->
+        settings.addCommandListener(
+            new SlowQueryCommandListener(properties.threshold(), properties.methods(), recorder));
+  }
+}
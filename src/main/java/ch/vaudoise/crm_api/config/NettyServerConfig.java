@@ -0,0 +1,135 @@
+package ch.vaudoise.crm_api.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.netty4.NettyAllocatorMetrics;
+import io.micrometer.core.instrument.binder.netty4.NettyEventExecutorMetrics;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import java.util.List;
+import java.util.function.BiPredicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Applies {@link NettyServerProperties} to the Reactor Netty server, which runs on its own {@code
+ * crm-http} event loops so their queues can be measured apart from the MongoDB driver's.
+ */
+@Configuration
+public class NettyServerConfig {
+
+  @Bean(destroyMethod = "dispose")
+  public LoopResources serverLoopResources(final NettyServerProperties properties) {
+    int threads =
+        properties.eventLoopThreads() == null
+            ? LoopResources.DEFAULT_IO_WORKER_COUNT
+            : properties.eventLoopThreads();
+    return LoopResources.create("crm-http", threads, true);
+  }
+
+  @Bean
+  public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyServerTuning(
+      final NettyServerProperties properties, final LoopResources serverLoopResources) {
+    return new ServerTuning(properties, serverLoopResources);
+  }
+
+  /** Request bodies are aggregated by the codecs, so that is where their size is bounded. */
+  @Bean
+  public CodecCustomizer maxBodySizeCustomizer(final NettyServerProperties properties) {
+    return configurer ->
+        configurer.defaultCodecs().maxInMemorySize(toInt(properties.maxBodySize()));
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "crm.metrics.netty", name = "enabled", matchIfMissing = true)
+  public MeterBinder nettyEventLoopMetrics(final LoopResources serverLoopResources) {
+    return new NettyEventExecutorMetrics(serverLoopResources.onServer(true));
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "crm.metrics.netty", name = "enabled", matchIfMissing = true)
+  public MeterBinder nettyAllocatorMetrics() {
+    return registry -> {
+      if (ByteBufAllocator.DEFAULT instanceof ByteBufAllocatorMetricProvider allocator) {
+        new NettyAllocatorMetrics(allocator).bindTo(registry);
+      }
+    };
+  }
+
+  /**
+   * Ordered last so its request decoder settings, which Reactor Netty does not merge, replace the
+   * ones Spring Boot derives from {@code server.*}.
+   */
+  static final class ServerTuning
+      implements WebServerFactoryCustomizer<NettyReactiveWebServerFactory>, Ordered {
+
+    private final NettyServerProperties properties;
+    private final LoopResources loops;
+
+    ServerTuning(NettyServerProperties properties, LoopResources loops) {
+      this.properties = properties;
+      this.loops = loops;
+    }
+
+    @Override
+    public void customize(NettyReactiveWebServerFactory factory) {
+      factory.addServerCustomizers(this::apply);
+    }
+
+    HttpServer apply(HttpServer server) {
+      HttpServer tuned =
+          server
+              .runOn(loops)
+              .idleTimeout(properties.idleTimeout())
+              .maxKeepAliveRequests(properties.maxKeepAliveRequests())
+              .protocol(properties.protocols().toArray(HttpProtocol[]::new))
+              .httpRequestDecoder(
+                  decoder ->
+                      decoder
+                          .maxHeaderSize(toInt(properties.maxHeaderSize()))
+                          .h2cMaxContentLength(toInt(properties.maxBodySize())));
+      NettyServerProperties.Compression compression = properties.compression();
+      if (!compression.enabled()) return tuned;
+      return tuned
+          .compress(toInt(compression.minResponseSize()))
+          .compress(compressible(compression.mimeTypes()));
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.LOWEST_PRECEDENCE;
+    }
+  }
+
+  static BiPredicate<HttpServerRequest, HttpServerResponse> compressible(List<String> mimeTypes) {
+    List<MimeType> types = mimeTypes.stream().map(MimeTypeUtils::parseMimeType).toList();
+    return (request, response) -> {
+      String contentType = response.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+      if (contentType == null) return false;
+      try {
+        MimeType type = MimeTypeUtils.parseMimeType(contentType);
+        return types.stream().anyMatch(candidate -> candidate.isCompatibleWith(type));
+      } catch (InvalidMimeTypeException e) {
+        return false;
+      }
+    };
+  }
+
+  private static int toInt(DataSize size) {
+    return (int) Math.min(size.toBytes(), Integer.MAX_VALUE);
+  }
+}
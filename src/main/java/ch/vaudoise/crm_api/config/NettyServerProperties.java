@@ -0,0 +1,30 @@
+package ch.vaudoise.crm_api.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Reactor Netty server tuning. {@code eventLoopThreads} defaults to Reactor Netty's own count (the
+ * number of cores, at least 4), {@code maxKeepAliveRequests} of -1 means unlimited. {@code H2}
+ * requires {@code server.ssl.*}.
+ */
+@ConfigurationProperties("crm.server")
+public record NettyServerProperties(
+    Integer eventLoopThreads,
+    @DefaultValue("75s") Duration idleTimeout,
+    @DefaultValue("-1") int maxKeepAliveRequests,
+    @DefaultValue("8KB") DataSize maxHeaderSize,
+    @DefaultValue("256KB") DataSize maxBodySize,
+    @DefaultValue({"HTTP11", "H2C"}) List<HttpProtocol> protocols,
+    @DefaultValue Compression compression) {
+
+  public record Compression(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("2KB") DataSize minResponseSize,
+      @DefaultValue({"application/json", "application/problem+json", "text/plain"})
+          List<String> mimeTypes) {}
+}
@@ -0,0 +1,17 @@
+package ch.vaudoise.crm_api.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.outbox")
+public record OutboxProperties(
+    @DefaultValue("true") boolean relayEnabled,
+    @DefaultValue("1s") Duration pollInterval,
+    @DefaultValue("30s") Duration leaseTtl,
+    @DefaultValue("100") int batchSize,
+    @DefaultValue("memory") String sink,
+    @DefaultValue("1000") int memoryCapacity,
+    @DefaultValue("outbox-events.jsonl") Path file,
+    @DefaultValue("false") boolean externalRelay) {}
@@ -0,0 +1,25 @@
+package ch.vaudoise.crm_api.config;
+
+import com.mongodb.ReadPreference;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.mongo.read")
+public record ReadPreferenceProperties(
+    @DefaultValue("secondaryPreferred") String preference,
+    @DefaultValue("90s") Duration maxStaleness) {
+
+  /** How far behind the last write a read may be: zero when every read goes to the primary. */
+  public Duration staleness() {
+    return "primary".equalsIgnoreCase(preference) ? Duration.ZERO : maxStaleness;
+  }
+
+  public ReadPreference toReadPreference() {
+    if ("primary".equalsIgnoreCase(preference)) return ReadPreference.primary();
+    return ReadPreference.valueOf(
+        preference, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
+  }
+}
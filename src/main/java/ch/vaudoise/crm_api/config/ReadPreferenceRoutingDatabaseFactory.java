@@ -0,0 +1,90 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.model.exception.DeadlineExceededException;
+import ch.vaudoise.crm_api.repository.Deadline;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoOperationTimeoutException;
+import com.mongodb.ReadPreference;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out databases bound to the primary when the subscriber context asks for it, and the client
+ * default read preference otherwise. When the context carries a {@link Deadline}, operations get
+ * the remaining budget as their timeout, which the driver sends to the server as {@code maxTimeMS}.
+ */
+public class ReadPreferenceRoutingDatabaseFactory implements ReactiveMongoDatabaseFactory {
+
+  private final ReactiveMongoDatabaseFactory delegate;
+
+  public ReadPreferenceRoutingDatabaseFactory(final ReactiveMongoDatabaseFactory delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Mono<MongoDatabase> getMongoDatabase() {
+    return route(delegate.getMongoDatabase());
+  }
+
+  @Override
+  public Mono<MongoDatabase> getMongoDatabase(String dbName) {
+    return route(delegate.getMongoDatabase(dbName));
+  }
+
+  @Override
+  public PersistenceExceptionTranslator getExceptionTranslator() {
+    PersistenceExceptionTranslator translator = delegate.getExceptionTranslator();
+    return ex ->
+        ex instanceof MongoOperationTimeoutException
+            ? new QueryTimeoutException(ex.getMessage(), ex)
+            : translator.translateExceptionIfPossible(ex);
+  }
+
+  @Override
+  public CodecRegistry getCodecRegistry() {
+    return delegate.getCodecRegistry();
+  }
+
+  @Override
+  public Mono<ClientSession> getSession(ClientSessionOptions options) {
+    return delegate.getSession(options);
+  }
+
+  @Override
+  public ReactiveMongoDatabaseFactory withSession(ClientSession session) {
+    return new ReadPreferenceRoutingDatabaseFactory(delegate.withSession(session));
+  }
+
+  @Override
+  public boolean isTransactionActive() {
+    return delegate.isTransactionActive();
+  }
+
+  private Mono<MongoDatabase> route(Mono<MongoDatabase> database) {
+    return Mono.deferContextual(
+        context -> {
+          Mono<MongoDatabase> routed =
+              ReadConsistency.isPrimary(context)
+                  ? database.map(db -> db.withReadPreference(ReadPreference.primary()))
+                  : database;
+          Optional<Duration> remaining = Deadline.remaining(context);
+          // Transactions are short and bounded by their own lifetime on the server.
+          if (remaining.isEmpty() || delegate.isTransactionActive()) return routed;
+          long millis = remaining.get().toMillis();
+          if (millis <= 0) {
+            return Mono.error(
+                new DeadlineExceededException("Request deadline exceeded before querying MongoDB"));
+          }
+          return routed.map(db -> db.withTimeout(millis, TimeUnit.MILLISECONDS));
+        });
+  }
+}
@@ -0,0 +1,27 @@
+package ch.vaudoise.crm_api.config;
+
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * {@code methods} lists the repository methods, as {@code Repository.method}, whose reads are
+ * captured: those behind the client contracts list and total by default.
+ */
+@ConfigurationProperties("crm.slow-query")
+public record SlowQueryProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("200ms") Duration threshold,
+    @DefaultValue("30") int maxCapturesPerMinute,
+    @DefaultValue("16MB") DataSize collectionSize,
+    @DefaultValue("1000") long maxDocuments,
+    @DefaultValue({
+          "ContractRepository.findByClientIdAndEndDateGreaterThanEqual",
+          "ContractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtBetween",
+          "ContractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtGreaterThanEqual",
+          "ContractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtLessThanEqual",
+          "ContractRepository.sumActiveContractTotalCostByClientId"
+        })
+        Set<String> methods) {}
@@ -8,12 +8,41 @@ import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.media.*;
 import io.swagger.v3.oas.models.responses.ApiResponse;
 import org.springdoc.core.customizers.OperationCustomizer;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class SwaggerConfig {
 
+  /**
+   * Makes the springdoc beans and the ones below lazy, so they are created by the first call to
+   * {@code /v3/api-docs} or {@code /swagger-ui} rather than at startup: serving the API needs none
+   * of them. Beans another one injects eagerly are still created with it.
+   */
+  @Bean
+  public static BeanFactoryPostProcessor lazyApiDocs() {
+    return beanFactory -> {
+      for (String name : beanFactory.getBeanDefinitionNames()) {
+        BeanDefinition definition = beanFactory.getBeanDefinition(name);
+        if (isApiDocs(definition)) definition.setLazyInit(true);
+      }
+    };
+  }
+
+  static boolean isApiDocs(BeanDefinition definition) {
+    String source = definition.getBeanClassName();
+    if (definition instanceof AnnotatedBeanDefinition annotated
+        && annotated.getFactoryMethodMetadata() != null) {
+      source = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+    }
+    return source != null
+        && (source.startsWith("org.springdoc.")
+            || source.startsWith(SwaggerConfig.class.getName()));
+  }
+
   @Bean
   public OpenAPI openApiSpec() {
     return new OpenAPI()
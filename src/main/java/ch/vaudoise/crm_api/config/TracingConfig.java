@@ -0,0 +1,62 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.observability.SlowTraceObservationHandler;
+import com.mongodb.RequestContext;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.MongoHandlerContext;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Observations beyond the HTTP requests and {@code @Observed} services. With the OpenTelemetry
+ * bridge on the classpath every observation is also a span; see {@code management.tracing.*} and
+ * {@code management.otlp.tracing.*} for sampling and export.
+ */
+@Configuration
+public class TracingConfig {
+
+  /**
+   * One observation per Mongo command, parented to the observation found in the Reactor context
+   * that {@code ReactorRequestContext} hands to the driver.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "crm.tracing", name = "mongo-commands", matchIfMissing = true)
+  public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(
+      final ObservationRegistry registry) {
+    return settings -> settings.addCommandListener(new MongoObservationCommandListener(registry));
+  }
+
+  /**
+   * Drops Mongo command observations with no parent, i.e. those of background jobs (outbox relay,
+   * contract history flush, drift check) and startup work rather than of a request. Each would
+   * otherwise start its own trace on every tick, mostly an idle poll.
+   */
+  @Bean
+  @ConditionalOnProperty(
+      prefix = "crm.tracing",
+      name = "root-mongo-commands",
+      havingValue = "false",
+      matchIfMissing = true)
+  public ObservationPredicate parentedMongoCommandsOnly() {
+    return TracingConfig::hasParent;
+  }
+
+  static boolean hasParent(String name, Observation.Context context) {
+    if (!(context instanceof MongoHandlerContext mongo)) return true;
+    RequestContext requestContext = mongo.getRequestContext();
+    return requestContext != null && requestContext.hasKey(ObservationThreadLocalAccessor.KEY);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "crm.tracing.slow-trace", name = "enabled", matchIfMissing = true)
+  public SlowTraceObservationHandler slowTraceObservationHandler(
+      final TracingProperties properties) {
+    return new SlowTraceObservationHandler(properties.slowTrace());
+  }
+}
@@ -0,0 +1,18 @@
+package ch.vaudoise.crm_api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("crm.tracing")
+public record TracingProperties(
+    @DefaultValue("true") boolean mongoCommands,
+    @DefaultValue("false") boolean rootMongoCommands,
+    @DefaultValue SlowTrace slowTrace) {
+
+  public record SlowTrace(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("1s") Duration threshold,
+      @DefaultValue("30") int maxLogsPerMinute,
+      @DefaultValue("64") int maxSteps) {}
+}
@@ -0,0 +1,112 @@
+package ch.vaudoise.crm_api.config;
+
+import com.mongodb.MongoException;
+import java.time.Duration;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Runs a {@link Transactional} method again when its transaction failed with the {@code
+ * TransientTransactionError} label: a write conflict with a concurrent transaction, a primary
+ * election or a network error before the commit. MongoDB has rolled the whole transaction back, so
+ * the method is retried from the start, in a new transaction. Only the outermost transactional call
+ * retries, a nested one joins the failed transaction and lets the error through.
+ */
+public class TransientTransactionRetryInterceptor implements MethodInterceptor {
+
+  static final int MAX_RETRIES = 3;
+  static final Duration FIRST_BACKOFF = Duration.ofMillis(20);
+
+  private static final String RETRYING = TransientTransactionRetryInterceptor.class.getName();
+
+  private static final Retry RETRY =
+      Retry.backoff(MAX_RETRIES, FIRST_BACKOFF)
+          .filter(TransientTransactionRetryInterceptor::isTransient)
+          .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+  /**
+   * Ordered right after {@code observedAdvisor}, so one observation covers all attempts, and before
+   * the transaction interceptor, so each attempt gets its own transaction.
+   */
+  public static Advisor advisor() {
+    ComposablePointcut pointcut =
+        new ComposablePointcut(new AnnotationMatchingPointcut(Transactional.class, true))
+            .union(AnnotationMatchingPointcut.forMethodAnnotation(Transactional.class));
+    DefaultPointcutAdvisor advisor =
+        new DefaultPointcutAdvisor(pointcut, new TransientTransactionRetryInterceptor());
+    advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return advisor;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (!(invocation instanceof ProxyMethodInvocation proxyInvocation)) {
+      return invocation.proceed();
+    }
+    Class<?> returnType = invocation.getMethod().getReturnType();
+    if (Mono.class.isAssignableFrom(returnType)) {
+      return Mono.deferContextual(
+          context ->
+              context.hasKey(RETRYING)
+                  ? Mono.<Object>from(proceed(proxyInvocation))
+                  : Mono.defer(() -> Mono.<Object>from(proceed(proxyInvocation)))
+                      .retryWhen(RETRY)
+                      .contextWrite(c -> c.put(RETRYING, true)));
+    }
+    if (Flux.class.isAssignableFrom(returnType)) {
+      return Flux.deferContextual(
+          context ->
+              context.hasKey(RETRYING)
+                  ? Flux.<Object>from(proceed(proxyInvocation))
+                  : Flux.defer(() -> Flux.<Object>from(proceed(proxyInvocation)))
+                      .retryWhen(RETRY)
+                      .contextWrite(c -> c.put(RETRYING, true)));
+    }
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return invocation.proceed();
+    }
+    for (int retry = 0; ; retry++) {
+      try {
+        return proxyInvocation.invocableClone().proceed();
+      } catch (Throwable e) {
+        if (retry == MAX_RETRIES || !isTransient(e)) throw e;
+        Thread.sleep(FIRST_BACKOFF.multipliedBy(1L << retry));
+      }
+    }
+  }
+
+  /** Each subscription proceeds on its own clone of the invocation. */
+  private static Publisher<?> proceed(ProxyMethodInvocation invocation) {
+    try {
+      Object result = invocation.invocableClone().proceed();
+      return result == null ? Mono.empty() : (Publisher<?>) result;
+    } catch (Throwable e) {
+      Exceptions.throwIfJvmFatal(e);
+      return Mono.error(e);
+    }
+  }
+
+  /** Spring translates driver exceptions, the label is on the cause. */
+  static boolean isTransient(Throwable error) {
+    for (Throwable e = error; e != null; e = e.getCause()) {
+      if (e instanceof MongoException mongo
+          && mongo.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
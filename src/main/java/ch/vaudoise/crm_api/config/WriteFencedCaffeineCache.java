@@ -0,0 +1,96 @@
+package ch.vaudoise.crm_api.config;
+
+import ch.vaudoise.crm_api.observability.ObservedCaffeineCache;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * {@link ObservedCaffeineCache} refusing writes to a key for {@code window} after it was evicted,
+ * or to any key after the cache was cleared. Evictions follow a write to the primary; a read served
+ * by a secondary during the window may not see that write yet, and caching it would keep the stale
+ * value until it expires. Those reads are still answered, just not cached. The window is the
+ * staleness bound of secondary reads, zero when every read goes to the primary.
+ */
+public class WriteFencedCaffeineCache extends ObservedCaffeineCache {
+
+  private final long windowNanos;
+  private final Ticker ticker;
+  private final Cache<Object, Boolean> evicted;
+  private volatile long clearedAt;
+
+  public WriteFencedCaffeineCache(
+      final String name,
+      final AsyncCache<Object, Object> cache,
+      final boolean allowNullValues,
+      final Supplier<ObservationRegistry> registry,
+      final Duration window) {
+    this(name, cache, allowNullValues, registry, window, Ticker.systemTicker());
+  }
+
+  WriteFencedCaffeineCache(
+      final String name,
+      final AsyncCache<Object, Object> cache,
+      final boolean allowNullValues,
+      final Supplier<ObservationRegistry> registry,
+      final Duration window,
+      final Ticker ticker) {
+    super(name, cache, allowNullValues, registry);
+    this.windowNanos = window.toNanos();
+    this.ticker = ticker;
+    this.evicted = Caffeine.newBuilder().ticker(ticker).expireAfterWrite(window).build();
+    this.clearedAt = ticker.read() - windowNanos;
+  }
+
+  /** Whether a value read for {@code key} now may predate the last write and must not be cached. */
+  public boolean isFenced(Object key) {
+    return windowNanos > 0
+        && (ticker.read() - clearedAt < windowNanos || evicted.getIfPresent(key) != null);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    if (!isFenced(key)) super.put(key, value);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return isFenced(key) ? get(key) : super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public void evict(Object key) {
+    fence(key);
+    super.evict(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    fence(key);
+    return super.evictIfPresent(key);
+  }
+
+  @Override
+  public void clear() {
+    fenceAll();
+    super.clear();
+  }
+
+  @Override
+  public boolean invalidate() {
+    fenceAll();
+    return super.invalidate();
+  }
+
+  private void fence(Object key) {
+    if (windowNanos > 0) evicted.put(key, Boolean.TRUE);
+  }
+
+  private void fenceAll() {
+    if (windowNanos > 0) clearedAt = ticker.read();
+  }
+}
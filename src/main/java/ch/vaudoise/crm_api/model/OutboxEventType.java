@@ -0,0 +1,10 @@
+package ch.vaudoise.crm_api.model;
+
+public enum OutboxEventType {
+  CLIENT_CREATED,
+  CLIENT_UPDATED,
+  CLIENT_DELETED,
+  CONTRACT_CREATED,
+  CONTRACT_UPDATED,
+  CONTRACT_DELETED
+}
@@ -0,0 +1,12 @@
+package ch.vaudoise.crm_api.model.dto.client;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** One entry of a multi-get response, in request order; {@code client} is absent when not found. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClientLookupDTO(String id, boolean found, ResponseClientDTO client) {
+
+  public static ClientLookupDTO of(String id, ResponseClientDTO client) {
+    return new ClientLookupDTO(id, client != null, client);
+  }
+}
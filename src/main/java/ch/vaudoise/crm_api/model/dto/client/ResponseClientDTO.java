@@ -3,6 +3,7 @@ package ch.vaudoise.crm_api.model.dto.client;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include;
 
 import ch.vaudoise.crm_api.model.ClientType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
@@ -22,4 +23,5 @@ public record ResponseClientDTO(
         String phone,
     @NotBlank @Email String email,
     @Past LocalDate birthday,
-    String companyIdentifier) {}
+    String companyIdentifier,
+    @JsonIgnore Integer version) {}
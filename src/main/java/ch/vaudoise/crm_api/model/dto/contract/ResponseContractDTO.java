@@ -1,6 +1,7 @@
 package ch.vaudoise.crm_api.model.dto.contract;
 
 import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -16,4 +17,5 @@ public record ResponseContractDTO(
     @NotNull LocalDate startDate,
     LocalDate endDate,
     @NotNull @PositiveOrZero Decimal128 cost,
-    @NotNull @Valid ResponseClientDTO client) {}
+    @NotNull @Valid ResponseClientDTO client,
+    @JsonIgnore Integer version) {}
@@ -55,6 +55,7 @@ public class Client {
     if (email != null) dtoBuilder.email(email);
     if (birthday != null) dtoBuilder.birthday(birthday);
     if (companyIdentifier != null) dtoBuilder.companyIdentifier(companyIdentifier);
+    if (version != null) dtoBuilder.version(version);
 
     return dtoBuilder.build();
   }
@@ -0,0 +1,28 @@
+package ch.vaudoise.crm_api.model.entity;
+
+import ch.vaudoise.crm_api.model.ClientType;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import org.bson.types.ObjectId;
+
+/**
+ * Copy of the client fields contract reads return, embedded in each {@link Contract} so they can be
+ * served without loading the client. {@code version} is the client's own, so an older copy never
+ * replaces a newer one.
+ */
+public record ClientSummary(String name, ClientType type, String email, Integer version) {
+
+  public static ClientSummary of(Client client) {
+    return new ClientSummary(
+        client.getName(), client.getType(), client.getEmail(), client.getVersion());
+  }
+
+  public ResponseClientDTO toDTO(ObjectId clientId) {
+    return ResponseClientDTO.builder()
+        .id(clientId.toString())
+        .type(type)
+        .name(name)
+        .email(email)
+        .version(version)
+        .build();
+  }
+}
@@ -37,8 +37,16 @@ public class Contract {
 
   @NotNull @Indexed private ObjectId clientId;
 
+  /** Kept in sync by {@code ClientSummaryFanOut}; absent on contracts written before it existed. */
+  private ClientSummary clientSummary;
+
   @Version private Integer version;
 
+  /** Uses the embedded {@link #clientSummary}, which must be present. */
+  public ResponseContractDTO toDTO() {
+    return toDTO(clientSummary.toDTO(clientId));
+  }
+
   public ResponseContractDTO toDTO(ResponseClientDTO dto) {
     ResponseContractDTO.ResponseContractDTOBuilder dtoBuilder = ResponseContractDTO.builder();
     if (id != null) dtoBuilder.id(id.toString());
@@ -46,6 +54,7 @@ public class Contract {
     if (endDate != null) dtoBuilder.endDate(endDate);
     if (cost != null) dtoBuilder.cost(cost);
     if (clientId != null) dtoBuilder.client(dto);
+    if (version != null) dtoBuilder.version(version);
 
     return dtoBuilder.build();
   }
@@ -0,0 +1,63 @@
+package ch.vaudoise.crm_api.model.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Optional;
+import lombok.*;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Document("contract_history")
+@TimeSeries(timeField = "changedAt", metaField = "contractId", granularity = Granularity.SECONDS)
+public class ContractHistory {
+
+  @Id private ObjectId id;
+
+  private Instant changedAt;
+
+  private ObjectId contractId;
+
+  private ObjectId clientId;
+
+  private Decimal128 previousCost;
+
+  private Decimal128 cost;
+
+  private LocalDate previousStartDate;
+
+  private LocalDate startDate;
+
+  private LocalDate previousEndDate;
+
+  private LocalDate endDate;
+
+  public static Optional<ContractHistory> between(Contract before, Contract after) {
+    if (Objects.equals(before.getCost(), after.getCost())
+        && Objects.equals(before.getStartDate(), after.getStartDate())
+        && Objects.equals(before.getEndDate(), after.getEndDate())) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        ContractHistory.builder()
+            .changedAt(after.getUpdatedAt() == null ? Instant.now() : after.getUpdatedAt())
+            .contractId(after.getId())
+            .clientId(after.getClientId())
+            .previousCost(before.getCost())
+            .cost(after.getCost())
+            .previousStartDate(before.getStartDate())
+            .startDate(after.getStartDate())
+            .previousEndDate(before.getEndDate())
+            .endDate(after.getEndDate())
+            .build());
+  }
+}
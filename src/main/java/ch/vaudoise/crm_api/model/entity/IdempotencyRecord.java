@@ -0,0 +1,29 @@
+package ch.vaudoise.crm_api.model.entity;
+
+import java.time.Instant;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Document("idempotency_keys")
+public class IdempotencyRecord {
+
+  /** Scope of the endpoint followed by the client supplied key. */
+  @Id private String id;
+
+  private String fingerprint;
+
+  /** Response of the first execution, {@code null} while it is still running. */
+  private String result;
+
+  private Instant createdAt;
+
+  @Indexed(expireAfter = "0s")
+  private Instant expiresAt;
+}
@@ -0,0 +1,50 @@
+package ch.vaudoise.crm_api.model.entity;
+
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import java.time.Instant;
+import lombok.*;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Document("outbox")
+@CompoundIndex(name = "pending", def = "{'publishedAt': 1, 'orderingKey': 1, 'sequence': 1}")
+public class OutboxEvent {
+
+  /** Per ordering key counters, incremented in the transaction writing the event. */
+  public static final String SEQUENCES = "outbox_sequences";
+
+  @Id private ObjectId id;
+
+  private OutboxEventType type;
+
+  private ObjectId clientId;
+
+  private ObjectId aggregateId;
+
+  /**
+   * The client, or the aggregate itself for a contract without client. Events sharing a key are
+   * published in {@code sequence} order.
+   */
+  private ObjectId orderingKey;
+
+  private Long sequence;
+
+  private org.bson.Document payload;
+
+  private Instant createdAt;
+
+  @Indexed(expireAfter = "7d")
+  private Instant publishedAt;
+
+  public static ObjectId orderingKey(ObjectId clientId, ObjectId aggregateId) {
+    return clientId != null ? clientId : aggregateId;
+  }
+}
@@ -0,0 +1,34 @@
+package ch.vaudoise.crm_api.model.entity;
+
+import java.time.Instant;
+import lombok.*;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Document("slow_queries")
+public class SlowQuery {
+
+  @Id private ObjectId id;
+
+  private Instant capturedAt;
+
+  private long durationMs;
+
+  private String collection;
+
+  private String command;
+
+  private String repositoryMethod;
+
+  private String shape;
+
+  private String executionStats;
+
+  private String winningPlan;
+}
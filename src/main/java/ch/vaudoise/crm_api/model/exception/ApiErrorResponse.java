@@ -1,12 +1,27 @@
 package ch.vaudoise.crm_api.model.exception;
 
 import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
 import org.springframework.http.HttpStatus;
 
 public record ApiErrorResponse(
     OffsetDateTime timestamp, int status, String error, String message, String path) {
+
+  /** Status code and reason phrase resolved once per status instead of on every error. */
+  private static final Map<HttpStatus, ApiErrorResponse> TEMPLATES =
+      new EnumMap<>(HttpStatus.class);
+
+  static {
+    for (HttpStatus status : HttpStatus.values()) {
+      TEMPLATES.put(
+          status, new ApiErrorResponse(null, status.value(), status.getReasonPhrase(), null, null));
+    }
+  }
+
   public static ApiErrorResponse of(HttpStatus status, String message, String path) {
+    ApiErrorResponse template = TEMPLATES.get(status);
     return new ApiErrorResponse(
-        OffsetDateTime.now(), status.value(), status.getReasonPhrase(), message, path);
+        OffsetDateTime.now(), template.status, template.error, message, path);
   }
 }
@@ -0,0 +1,11 @@
+package ch.vaudoise.crm_api.model.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+  public DeadlineExceededException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,12 @@
+package ch.vaudoise.crm_api.model.exception;
+
+/**
+ * Expected client-error outcome (unknown id, conflict, failed precondition). These are answered
+ * with a 4xx and never investigated, so they skip capturing a stack trace, the dominant cost of
+ * creating an exception.
+ */
+public abstract class DomainException extends RuntimeException {
+  protected DomainException(final String message) {
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,11 @@
+package ch.vaudoise.crm_api.model.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends DomainException {
+  public PreconditionFailedException(final String message) {
+    super(message);
+  }
+}
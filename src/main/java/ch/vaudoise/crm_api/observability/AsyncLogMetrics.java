@@ -0,0 +1,52 @@
+package ch.vaudoise.crm_api.observability;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Iterator;
+import net.logstash.logback.appender.AsyncDisruptorAppender;
+import net.logstash.logback.appender.listener.AppenderListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts log events dropped by the asynchronous appenders attached to the root logger, typically
+ * because their ring buffer was full.
+ */
+@Component
+public class AsyncLogMetrics implements MeterBinder {
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) return;
+    Iterator<Appender<ILoggingEvent>> appenders =
+        context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+    while (appenders.hasNext()) {
+      if (appenders.next() instanceof AsyncDisruptorAppender<?, ?> appender) {
+        Counter dropped =
+            Counter.builder("crm.logging.dropped")
+                .description("Log events dropped by the asynchronous appender")
+                .tag("appender", appender.getName())
+                .register(registry);
+        listen(appender, dropped);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void listen(AsyncDisruptorAppender<?, ?> appender, Counter dropped) {
+    ((AsyncDisruptorAppender<ILoggingEvent, AppenderListener<ILoggingEvent>>) appender)
+        .addListener(
+            new AppenderListener<>() {
+              @Override
+              public void eventAppendFailed(
+                  Appender<ILoggingEvent> source, ILoggingEvent event, Throwable reason) {
+                dropped.increment();
+              }
+            });
+  }
+}
@@ -0,0 +1,17 @@
+package ch.vaudoise.crm_api.observability;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the parameter of an {@code @Observed} method holding the client id. Its value is added to
+ * the observation as the {@code client.id} high-cardinality key value, so it shows on spans and JFR
+ * events but never becomes a metric tag.
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ClientId {}
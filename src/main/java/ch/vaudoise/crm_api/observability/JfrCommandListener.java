@@ -0,0 +1,64 @@
+package ch.vaudoise.crm_api.observability;
+
+import com.mongodb.RequestContext;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.EventType;
+
+/**
+ * Emits a {@link MongoCommandEvent} per command. While no recording has the event enabled, each
+ * callback is a single flag check: nothing is allocated or remembered.
+ */
+public class JfrCommandListener implements CommandListener {
+
+  private static final EventType TYPE = EventType.getEventType(MongoCommandEvent.class);
+
+  private final Map<Integer, MongoCommandEvent> pending = new ConcurrentHashMap<>();
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    if (!TYPE.isEnabled()) return;
+    MongoCommandEvent jfr = new MongoCommandEvent();
+    jfr.begin();
+    jfr.database = event.getDatabaseName();
+    jfr.command = event.getCommandName();
+    jfr.collection =
+        MongoCommandMetricsListener.collectionOf(event.getCommandName(), event.getCommand());
+    jfr.server = event.getConnectionDescription().getServerAddress().toString();
+    jfr.repositoryMethod = repositoryMethod(event.getRequestContext());
+    pending.put(event.getRequestId(), jfr);
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    MongoCommandEvent jfr = pending.remove(event.getRequestId());
+    if (jfr == null) return;
+    jfr.end();
+    if (jfr.shouldCommit()) {
+      jfr.documents = MongoCommandMetricsListener.documentCount(event.getResponse());
+      jfr.succeeded = true;
+      jfr.commit();
+    }
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    MongoCommandEvent jfr = pending.remove(event.getRequestId());
+    if (jfr == null) return;
+    jfr.end();
+    if (jfr.shouldCommit()) {
+      jfr.documents = -1;
+      jfr.commit();
+    }
+  }
+
+  private static String repositoryMethod(RequestContext context) {
+    return context == null
+        ? null
+        : context.getOrDefault(RepositoryMethodInterceptor.REPOSITORY_METHOD_KEY, null);
+  }
+}
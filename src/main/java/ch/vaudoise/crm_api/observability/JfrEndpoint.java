@@ -0,0 +1,207 @@
+package ch.vaudoise.crm_api.observability;
+
+import ch.vaudoise.crm_api.config.JfrProperties;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts, stops and downloads JFR recordings on demand, one at a time.
+ *
+ * <ul>
+ *   <li>{@code POST /actuator/jfr} with optional {@code settings} ({@code default} or {@code
+ *       profile}) and {@code duration} starts a recording that stops by itself after the duration.
+ *   <li>{@code DELETE /actuator/jfr/{id}} stops it early.
+ *   <li>{@code GET /actuator/jfr/{id}} downloads the file, or a snapshot while still recording.
+ * </ul>
+ *
+ * Only the last {@code crm.jfr.keep-recordings} files are kept. The endpoint is not exposed by
+ * default: the management port has no authentication.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+
+  /**
+   * Events carrying the environment, system properties and command lines, where credentials such as
+   * the MongoDB connection string live. Disabled in every recording, so downloads never leak them.
+   */
+  static final List<String> SENSITIVE_EVENTS =
+      List.of(
+          "jdk.InitialEnvironmentVariable",
+          "jdk.InitialSystemProperty",
+          "jdk.JVMInformation",
+          "jdk.SystemProcess");
+
+  private final JfrProperties properties;
+  private final Map<Long, Tracked> recordings = new LinkedHashMap<>();
+
+  public JfrEndpoint(final JfrProperties properties) {
+    this.properties = properties;
+  }
+
+  @ReadOperation
+  public synchronized List<RecordingDescriptor> recordings() {
+    return recordings.values().stream().map(Tracked::describe).toList();
+  }
+
+  @WriteOperation
+  public synchronized RecordingDescriptor start(
+      @Nullable String settings, @Nullable Duration duration) {
+    if (recordings.values().stream().anyMatch(Tracked::running)) {
+      throw new InvalidEndpointRequestException(
+          "A recording is already running", "Recording already running");
+    }
+    String settingsName = settings == null ? properties.defaultSettings() : settings;
+    Duration length = duration == null ? properties.defaultDuration() : duration;
+    if (length.isNegative() || length.isZero() || length.compareTo(properties.maxDuration()) > 0) {
+      throw new InvalidEndpointRequestException(
+          "Duration must be positive and at most " + properties.maxDuration(), "Invalid duration");
+    }
+
+    Recording recording = new Recording(configuration(settingsName));
+    SENSITIVE_EVENTS.forEach(recording::disable);
+    String name = "crm-" + Instant.now().toString().replace(':', '-');
+    Path file = properties.directory().resolve(name + ".jfr");
+    try {
+      Files.createDirectories(properties.directory());
+      recording.setName(name);
+      recording.setDuration(length);
+      recording.setMaxSize(properties.maxSize().toBytes());
+      recording.setToDisk(true);
+      recording.setDestination(file);
+      recording.start();
+    } catch (IOException | RuntimeException e) {
+      recording.close();
+      throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+    }
+    Tracked tracked = new Tracked(recording, settingsName, file);
+    recordings.put(recording.getId(), tracked);
+    prune();
+    log.info("Started JFR recording {} ({}, {}) to {}", name, settingsName, length, file);
+    return tracked.describe();
+  }
+
+  @DeleteOperation
+  public synchronized WebEndpointResponse<RecordingDescriptor> stop(@Selector long id) {
+    Tracked tracked = recordings.get(id);
+    if (tracked == null) return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    if (tracked.running()) {
+      tracked.recording().stop();
+      log.info("Stopped JFR recording {}", tracked.recording().getName());
+    }
+    return new WebEndpointResponse<>(tracked.describe());
+  }
+
+  @ReadOperation
+  public synchronized WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+    Tracked tracked = recordings.get(id);
+    if (tracked == null) return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    Path file = tracked.file();
+    if (tracked.running()) {
+      file = properties.directory().resolve(tracked.recording().getName() + "-snapshot.jfr");
+      tracked.recording().dump(file);
+    }
+    if (!Files.exists(file)) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    return new WebEndpointResponse<>(new FileSystemResource(file));
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    recordings.values().stream().filter(Tracked::running).forEach(t -> t.recording().stop());
+    recordings.values().forEach(t -> t.recording().close());
+    recordings.clear();
+  }
+
+  private static Configuration configuration(String name) {
+    try {
+      return Configuration.getConfiguration(name);
+    } catch (IOException | ParseException e) {
+      throw new InvalidEndpointRequestException(
+          "Unknown JFR settings '" + name + "', expected default or profile",
+          "Unknown JFR settings");
+    }
+  }
+
+  /** Closes and deletes the oldest finished recordings beyond the configured number. */
+  private void prune() {
+    List<Tracked> finished =
+        new ArrayList<>(recordings.values().stream().filter(t -> !t.running()).toList());
+    int excess = recordings.size() - properties.keepRecordings();
+    for (int i = 0; i < excess && i < finished.size(); i++) {
+      Tracked oldest = finished.get(i);
+      recordings.remove(oldest.recording().getId());
+      oldest.recording().close();
+      try {
+        Files.deleteIfExists(oldest.file());
+        Files.deleteIfExists(
+            oldest.file().resolveSibling(oldest.recording().getName() + "-snapshot.jfr"));
+      } catch (IOException e) {
+        log.warn("Could not delete JFR recording {} : {}", oldest.file(), e.getMessage());
+      }
+    }
+  }
+
+  private record Tracked(Recording recording, String settings, Path file) {
+
+    boolean running() {
+      RecordingState state = recording.getState();
+      return state == RecordingState.NEW
+          || state == RecordingState.DELAYED
+          || state == RecordingState.RUNNING;
+    }
+
+    RecordingDescriptor describe() {
+      return new RecordingDescriptor(
+          recording.getId(),
+          recording.getName(),
+          recording.getState().name(),
+          settings,
+          recording.getStartTime(),
+          recording.getDuration(),
+          Files.exists(file) ? file.toFile().length() : recording.getSize(),
+          file.toString());
+    }
+  }
+
+  public record RecordingDescriptor(
+      long id,
+      String name,
+      String state,
+      String settings,
+      Instant startTime,
+      Duration duration,
+      long size,
+      String file) {}
+}
@@ -0,0 +1,52 @@
+package ch.vaudoise.crm_api.observability;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import jdk.jfr.EventType;
+
+/**
+ * Turns {@code crm.service} observations into {@link ServiceOperationEvent}s, reading the client
+ * id, cache result and row count that {@link ObservedMethodInterceptor} and {@link
+ * ObservedCaffeineCache} attach as high-cardinality key values. Costs a flag check per observation
+ * while no recording has the event enabled.
+ */
+public class JfrObservationHandler implements ObservationHandler<Observation.Context> {
+
+  private static final EventType TYPE = EventType.getEventType(ServiceOperationEvent.class);
+
+  @Override
+  public boolean supportsContext(Observation.Context context) {
+    return ObservedMethodInterceptor.DEFAULT_NAME.equals(context.getName());
+  }
+
+  @Override
+  public void onStart(Observation.Context context) {
+    if (!TYPE.isEnabled()) return;
+    ServiceOperationEvent event = new ServiceOperationEvent();
+    event.begin();
+    context.put(ServiceOperationEvent.class, event);
+  }
+
+  @Override
+  public void onStop(Observation.Context context) {
+    ServiceOperationEvent event = context.get(ServiceOperationEvent.class);
+    if (event == null) return;
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = context.getContextualName();
+      event.clientId =
+          value(context.getHighCardinalityKeyValue(ObservedMethodInterceptor.CLIENT_ID));
+      String cache = value(context.getHighCardinalityKeyValue(ObservedCaffeineCache.RESULT));
+      event.cache = cache == null ? "none" : cache;
+      String rows = value(context.getHighCardinalityKeyValue(ObservedMethodInterceptor.ROWS));
+      event.rows = rows == null ? 0 : Long.parseLong(rows);
+      event.outcome = value(context.getLowCardinalityKeyValue(ObservedMethodInterceptor.OUTCOME));
+      event.commit();
+    }
+  }
+
+  private static String value(KeyValue keyValue) {
+    return keyValue == null ? null : keyValue.getValue();
+  }
+}
@@ -0,0 +1,38 @@
+package ch.vaudoise.crm_api.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ch.vaudoise.crm.MongoCommand")
+@Label("Mongo Command")
+@Description("A command sent to MongoDB, from the driver's started to succeeded or failed event")
+@Category({"CRM", "MongoDB"})
+@StackTrace(false)
+class MongoCommandEvent extends Event {
+
+  @Label("Database")
+  String database;
+
+  @Label("Collection")
+  String collection;
+
+  @Label("Command")
+  String command;
+
+  @Label("Repository Method")
+  String repositoryMethod;
+
+  @Label("Server")
+  String server;
+
+  @Label("Documents")
+  @Description("Documents returned or affected, -1 when not reported")
+  long documents;
+
+  @Label("Succeeded")
+  boolean succeeded;
+}
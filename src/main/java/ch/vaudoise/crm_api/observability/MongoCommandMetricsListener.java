@@ -0,0 +1,103 @@
+package ch.vaudoise.crm_api.observability;
+
+import com.mongodb.RequestContext;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+public class MongoCommandMetricsListener implements CommandListener {
+
+  private static final String UNKNOWN = "none";
+
+  private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+  private final Meter.MeterProvider<Timer> latency;
+  private final Meter.MeterProvider<DistributionSummary> documents;
+  private final Meter.MeterProvider<Counter> failures;
+
+  public MongoCommandMetricsListener(final MeterRegistry registry) {
+    this.latency =
+        Timer.builder("crm.mongo.command")
+            .description("Latency of MongoDB commands")
+            .publishPercentileHistogram()
+            .withRegistry(registry);
+    this.documents =
+        DistributionSummary.builder("crm.mongo.command.documents")
+            .description("Documents returned or affected by MongoDB commands")
+            .baseUnit("documents")
+            .withRegistry(registry);
+    this.failures =
+        Counter.builder("crm.mongo.command.failures")
+            .description("Failed MongoDB commands")
+            .withRegistry(registry);
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    String collection = collectionOf(event.getCommandName(), event.getCommand());
+    if (collection != null) collections.put(event.getRequestId(), collection);
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    Tags tags = tags(event.getRequestId(), event.getCommandName(), event.getRequestContext());
+    latency
+        .withTags(tags.and("outcome", "SUCCESS"))
+        .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    long count = documentCount(event.getResponse());
+    if (count >= 0) documents.withTags(tags).record(count);
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    Tags tags = tags(event.getRequestId(), event.getCommandName(), event.getRequestContext());
+    latency
+        .withTags(tags.and("outcome", "FAILURE"))
+        .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    failures
+        .withTags(tags.and("exception", event.getThrowable().getClass().getSimpleName()))
+        .increment();
+  }
+
+  private Tags tags(int requestId, String commandName, RequestContext context) {
+    String collection = collections.remove(requestId);
+    String method =
+        context == null
+            ? UNKNOWN
+            : context.getOrDefault(RepositoryMethodInterceptor.REPOSITORY_METHOD_KEY, UNKNOWN);
+    return Tags.of(
+        "collection",
+        collection == null ? UNKNOWN : collection,
+        "command",
+        commandName,
+        "repository_method",
+        method);
+  }
+
+  static String collectionOf(String commandName, BsonDocument command) {
+    BsonValue value =
+        "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+    return value != null && value.isString() ? value.asString().getValue() : null;
+  }
+
+  static long documentCount(BsonDocument response) {
+    BsonDocument cursor = response.getDocument("cursor", null);
+    if (cursor != null) {
+      if (cursor.isArray("firstBatch")) return cursor.getArray("firstBatch").size();
+      if (cursor.isArray("nextBatch")) return cursor.getArray("nextBatch").size();
+    }
+    BsonValue n = response.get("n");
+    return n != null && n.isNumber() ? n.asNumber().longValue() : -1;
+  }
+}
@@ -0,0 +1,105 @@
+package ch.vaudoise.crm_api.observability;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MongoPoolMetricsListener implements ConnectionPoolListener {
+
+  private final MeterRegistry registry;
+  private final Map<ServerId, AtomicInteger> checkedOut = new ConcurrentHashMap<>();
+  private final Map<ServerId, AtomicInteger> waitQueue = new ConcurrentHashMap<>();
+  private final Map<ServerId, List<Meter>> meters = new ConcurrentHashMap<>();
+  private final Meter.MeterProvider<Timer> waitTime;
+
+  public MongoPoolMetricsListener(final MeterRegistry registry) {
+    this.registry = registry;
+    this.waitTime =
+        Timer.builder("crm.mongo.pool.wait")
+            .description("Time spent waiting to check a connection out of the pool")
+            .publishPercentileHistogram()
+            .withRegistry(registry);
+  }
+
+  @Override
+  public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+    ServerId serverId = event.getServerId();
+    Tags tags = tags(serverId);
+    AtomicInteger checkedOutCount = checkedOut.computeIfAbsent(serverId, id -> new AtomicInteger());
+    AtomicInteger waitQueueSize = waitQueue.computeIfAbsent(serverId, id -> new AtomicInteger());
+    meters.put(
+        serverId,
+        List.of(
+            Gauge.builder("crm.mongo.pool.checkedout", checkedOutCount, AtomicInteger::get)
+                .description("Connections currently checked out of the pool")
+                .tags(tags)
+                .register(registry),
+            Gauge.builder("crm.mongo.pool.waitqueue", waitQueueSize, AtomicInteger::get)
+                .description("Operations currently waiting for a pooled connection")
+                .tags(tags)
+                .register(registry)));
+  }
+
+  @Override
+  public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+    ServerId serverId = event.getServerId();
+    checkedOut.remove(serverId);
+    waitQueue.remove(serverId);
+    List<Meter> removed = meters.remove(serverId);
+    if (removed != null) removed.forEach(registry::remove);
+  }
+
+  @Override
+  public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+    adjust(waitQueue, event.getServerId(), 1);
+  }
+
+  @Override
+  public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+    ServerId serverId = event.getConnectionId().getServerId();
+    adjust(waitQueue, serverId, -1);
+    adjust(checkedOut, serverId, 1);
+    waitTime
+        .withTags(tags(serverId).and("outcome", "SUCCESS"))
+        .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+    adjust(waitQueue, event.getServerId(), -1);
+    waitTime
+        .withTags(tags(event.getServerId()).and("outcome", event.getReason().name()))
+        .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+    adjust(checkedOut, event.getConnectionId().getServerId(), -1);
+  }
+
+  private static void adjust(Map<ServerId, AtomicInteger> gauges, ServerId serverId, int delta) {
+    AtomicInteger value = gauges.get(serverId);
+    if (value != null) value.addAndGet(delta);
+  }
+
+  private static Tags tags(ServerId serverId) {
+    return Tags.of(
+        "cluster", serverId.getClusterId().getValue(),
+        "server", serverId.getAddress().toString());
+  }
+}
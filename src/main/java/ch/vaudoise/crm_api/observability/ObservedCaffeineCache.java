@@ -0,0 +1,96 @@
+package ch.vaudoise.crm_api.observability;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.ObservationView;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * {@link CaffeineCache} observing the asynchronous lookups used by reactive {@code @Cacheable}
+ * methods. Each lookup is a {@code crm.cache} observation tagged with the cache name and a {@code
+ * result} of {@code hit}, {@code miss} or {@code load}; it nests under the observation current when
+ * the lookup starts, normally the service method being called, which also gets the result as its
+ * {@code cache.result} high-cardinality key value. Still a {@code CaffeineCache}, so code reaching
+ * for the native cache keeps working.
+ */
+public class ObservedCaffeineCache extends CaffeineCache {
+
+  public static final String NAME = "crm.cache";
+  public static final String RESULT = "cache.result";
+
+  private final Supplier<ObservationRegistry> registry;
+
+  public ObservedCaffeineCache(
+      final String name,
+      final AsyncCache<Object, Object> cache,
+      final boolean allowNullValues,
+      final Supplier<ObservationRegistry> registry) {
+    super(name, cache, allowNullValues);
+    this.registry = registry;
+  }
+
+  @Override
+  public CompletableFuture<?> retrieve(Object key) {
+    Observation observation = start();
+    CompletableFuture<?> result;
+    try {
+      result = super.retrieve(key);
+    } catch (RuntimeException e) {
+      stop(observation.error(e), "miss");
+      throw e;
+    }
+    if (result == null) {
+      stop(observation, "miss");
+      return null;
+    }
+    return result.whenComplete(
+        (value, error) -> {
+          if (error != null) observation.error(error);
+          stop(observation, value == null ? "miss" : "hit");
+        });
+  }
+
+  @Override
+  public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+    Observation observation = start();
+    AtomicBoolean loaded = new AtomicBoolean();
+    CompletableFuture<T> result;
+    try {
+      result =
+          super.retrieve(
+              key,
+              () -> {
+                loaded.set(true);
+                return valueLoader.get();
+              });
+    } catch (RuntimeException e) {
+      stop(observation.error(e), "load");
+      throw e;
+    }
+    return result.whenComplete(
+        (value, error) -> {
+          if (error != null) observation.error(error);
+          stop(observation, loaded.get() ? "load" : "hit");
+        });
+  }
+
+  private Observation start() {
+    return Observation.createNotStarted(NAME, registry.get())
+        .contextualName("cache " + getName())
+        .lowCardinalityKeyValue("cache", getName())
+        .start();
+  }
+
+  private static void stop(Observation observation, String result) {
+    observation.lowCardinalityKeyValue("result", result);
+    observation.stop();
+    ObservationView parent = observation.getContext().getParentObservation();
+    if (parent instanceof Observation caller) {
+      caller.highCardinalityKeyValue(RESULT, result);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package ch.vaudoise.crm_api.observability;
+
+import ch.vaudoise.crm_api.model.exception.DomainException;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.util.context.ContextView;
+
+/**
+ * Observes methods annotated with {@link Observed}, on the method or its class, without needing
+ * AspectJ. Unlike Micrometer's {@code ObservedAspect}, a returned {@link Mono} or {@link Flux} is
+ * observed from subscription to termination rather than just while it is assembled, and the
+ * observation is put in the Reactor context so calls made downstream, Mongo commands included, nest
+ * under it. Methods returning anything else are not observed.
+ *
+ * <p>Each observation carries {@code class}, {@code method} and {@code outcome} low-cardinality key
+ * values, the outcome being {@code SUCCESS}, {@code REJECTED} for a {@link DomainException}, {@code
+ * ERROR} or {@code CANCELLED}.
+ */
+public class ObservedMethodInterceptor implements MethodInterceptor {
+
+  public static final String DEFAULT_NAME = "crm.service";
+  public static final String OUTCOME = "outcome";
+  public static final String CLIENT_ID = "client.id";
+  public static final String ROWS = "rows";
+
+  private static final int NONE = -1;
+
+  private final Supplier<ObservationRegistry> registry;
+  private final Map<MethodKey, ObservedMethod> methods = new ConcurrentHashMap<>();
+
+  public ObservedMethodInterceptor(final Supplier<ObservationRegistry> registry) {
+    this.registry = registry;
+  }
+
+  private record MethodKey(Method method, Class<?> targetClass) {}
+
+  /**
+   * What is known of a method before any call, resolved once since annotation lookups are costly on
+   * a hot path: the observation name and low-cardinality key values, and the {@link ClientId}
+   * parameter.
+   */
+  private record ObservedMethod(
+      Method method,
+      String name,
+      String contextualName,
+      KeyValues lowCardinalityKeyValues,
+      int clientIdParameter) {
+
+    static final ObservedMethod NOT_OBSERVED = new ObservedMethod(null, null, null, null, NONE);
+
+    static ObservedMethod resolve(MethodKey key) {
+      Class<?> targetClass = key.targetClass();
+      Method method = AopUtils.getMostSpecificMethod(key.method(), targetClass);
+      Observed observed = AnnotatedElementUtils.findMergedAnnotation(method, Observed.class);
+      if (observed == null) {
+        observed = AnnotatedElementUtils.findMergedAnnotation(targetClass, Observed.class);
+      }
+      if (observed == null) return NOT_OBSERVED;
+      return new ObservedMethod(
+          method,
+          observed.name().isEmpty() ? DEFAULT_NAME : observed.name(),
+          observed.contextualName().isEmpty()
+              ? targetClass.getSimpleName() + "#" + method.getName()
+              : observed.contextualName(),
+          KeyValues.of("class", targetClass.getSimpleName(), "method", method.getName())
+              .and(observed.lowCardinalityKeyValues()),
+          clientIdParameter(method));
+    }
+
+    private static int clientIdParameter(Method method) {
+      Parameter[] parameters = method.getParameters();
+      for (int i = 0; i < parameters.length; i++) {
+        if (parameters[i].isAnnotationPresent(ClientId.class)) return i;
+      }
+      return NONE;
+    }
+
+    String clientId(Object[] arguments) {
+      return clientIdParameter == NONE || arguments[clientIdParameter] == null
+          ? null
+          : arguments[clientIdParameter].toString();
+    }
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    Class<?> targetClass =
+        invocation.getThis() != null
+            ? AopUtils.getTargetClass(invocation.getThis())
+            : invocation.getMethod().getDeclaringClass();
+    ObservedMethod observedMethod =
+        methods.computeIfAbsent(
+            new MethodKey(invocation.getMethod(), targetClass), ObservedMethod::resolve);
+    if (observedMethod == ObservedMethod.NOT_OBSERVED) {
+      return invocation.proceed();
+    }
+
+    if (!(invocation instanceof ProxyMethodInvocation proxyInvocation)) {
+      return invocation.proceed();
+    }
+    Method method = observedMethod.method();
+    String clientId = observedMethod.clientId(invocation.getArguments());
+    if (Mono.class.isAssignableFrom(method.getReturnType())) {
+      return Mono.deferContextual(
+          context -> {
+            Observation observation = start(observedMethod, clientId, context);
+            Completion completion = new Completion(observation);
+            return Mono.from(proceed(proxyInvocation, observation))
+                .doOnEach(signal -> completion.on(signal, true))
+                .doOnCancel(completion::cancelled)
+                .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, observation));
+          });
+    }
+    if (Flux.class.isAssignableFrom(method.getReturnType())) {
+      return Flux.deferContextual(
+          context -> {
+            Observation observation = start(observedMethod, clientId, context);
+            Completion completion = new Completion(observation);
+            return Flux.from(proceed(proxyInvocation, observation))
+                .doOnEach(signal -> completion.on(signal, false))
+                .doOnCancel(completion::cancelled)
+                .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, observation));
+          });
+    }
+    return invocation.proceed();
+  }
+
+  /**
+   * Calls the method on subscription, within the observation scope, so that work done while the
+   * publisher is assembled (a {@code @Cacheable} lookup for instance) is observed as a child. Each
+   * subscription proceeds on its own clone of the invocation, which keeps retries and resubscribes
+   * working.
+   */
+  private static Publisher<?> proceed(ProxyMethodInvocation invocation, Observation observation) {
+    try (Observation.Scope scope = observation.openScope()) {
+      Object result = invocation.invocableClone().proceed();
+      return result == null ? Mono.empty() : (Publisher<?>) result;
+    } catch (Throwable e) {
+      Exceptions.throwIfJvmFatal(e);
+      return Mono.error(e);
+    }
+  }
+
+  private Observation start(ObservedMethod method, String clientId, ContextView context) {
+    Observation parent = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+    return Observation.createNotStarted(method.name(), registry.get())
+        .contextualName(method.contextualName())
+        .parentObservation(parent)
+        .lowCardinalityKeyValues(method.lowCardinalityKeyValues())
+        .highCardinalityKeyValues(
+            clientId == null ? KeyValues.empty() : KeyValues.of(CLIENT_ID, clientId))
+        .start();
+  }
+
+  /**
+   * Stops the observation once, on the first terminal signal and before it travels downstream, so
+   * the time spent by the caller handling the result is not counted and the observation is closed
+   * before its parent. A {@link Mono} is done with its value. Counts the rows returned: elements of
+   * a {@link Flux}, or the size of a collection emitted by a {@link Mono}.
+   */
+  private static final class Completion {
+
+    private final Observation observation;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private long rows;
+
+    Completion(Observation observation) {
+      this.observation = observation;
+    }
+
+    void on(Signal<?> signal, boolean valueTerminates) {
+      if (signal.isOnError()) {
+        Throwable error = signal.getThrowable();
+        if (stopped.compareAndSet(false, true)) {
+          observation.error(error);
+          stop(error instanceof DomainException ? "REJECTED" : "ERROR");
+        }
+        return;
+      }
+      if (signal.isOnNext()) {
+        rows += signal.get() instanceof Collection<?> collection ? collection.size() : 1;
+      }
+      if (signal.isOnComplete() || (valueTerminates && signal.isOnNext())) {
+        if (stopped.compareAndSet(false, true)) stop("SUCCESS");
+      }
+    }
+
+    void cancelled() {
+      if (stopped.compareAndSet(false, true)) stop("CANCELLED");
+    }
+
+    private void stop(String outcome) {
+      observation.lowCardinalityKeyValue(OUTCOME, outcome);
+      observation.highCardinalityKeyValue(ROWS, Long.toString(rows));
+      observation.stop();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package ch.vaudoise.crm_api.observability;
+
+import java.util.Set;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+public final class QueryShapes {
+
+  private static final Set<String> REDACTED_FIELDS = Set.of("filter", "pipeline", "query");
+
+  private static final Set<String> KEPT_FIELDS = Set.of("sort", "projection", "hint", "key");
+
+  private QueryShapes() {}
+
+  public static BsonDocument shapeOf(String commandName, BsonDocument command) {
+    BsonDocument shape = new BsonDocument(commandName, command.get(commandName));
+    command.forEach(
+        (field, value) -> {
+          if (REDACTED_FIELDS.contains(field)) shape.put(field, redact(value));
+          else if (KEPT_FIELDS.contains(field)) shape.put(field, value);
+        });
+    return shape;
+  }
+
+  public static BsonDocument explainable(BsonDocument command) {
+    BsonDocument explainable = new BsonDocument();
+    command.forEach(
+        (field, value) -> {
+          if (!field.startsWith("$") && !"lsid".equals(field) && !"txnNumber".equals(field)) {
+            explainable.put(field, value);
+          }
+        });
+    return explainable;
+  }
+
+  static BsonValue redact(BsonValue value) {
+    if (value.isDocument()) {
+      BsonDocument redacted = new BsonDocument();
+      value.asDocument().forEach((field, nested) -> redacted.put(field, redact(nested)));
+      return redacted;
+    }
+    if (value.isArray()) {
+      BsonArray redacted = new BsonArray();
+      value.asArray().forEach(nested -> redacted.add(redact(nested)));
+      return redacted;
+    }
+    if (value.isString() && value.asString().getValue().startsWith("$")) return value;
+    return new BsonString("?" + value.getBsonType().name().toLowerCase());
+  }
+}
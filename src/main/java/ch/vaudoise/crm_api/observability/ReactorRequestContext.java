@@ -0,0 +1,62 @@
+package ch.vaudoise.crm_api.observability;
+
+import com.mongodb.RequestContext;
+import com.mongodb.reactivestreams.client.ReactiveContextProvider;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import reactor.core.CoreSubscriber;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/** Exposes the Reactor context of the subscribing chain to driver command listeners. */
+public final class ReactorRequestContext implements RequestContext {
+
+  public static final ReactiveContextProvider PROVIDER =
+      subscriber ->
+          subscriber instanceof CoreSubscriber<?> coreSubscriber
+              ? new ReactorRequestContext(coreSubscriber.currentContext())
+              : new ReactorRequestContext(Context.empty());
+
+  private final Map<Object, Object> entries = new ConcurrentHashMap<>();
+
+  public ReactorRequestContext(ContextView context) {
+    context.forEach(entries::put);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key) {
+    return (T) entries.get(key);
+  }
+
+  @Override
+  public boolean hasKey(Object key) {
+    return entries.containsKey(key);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    entries.put(key, value);
+  }
+
+  @Override
+  public void delete(Object key) {
+    entries.remove(key);
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public Stream<Map.Entry<Object, Object>> stream() {
+    return entries.entrySet().stream();
+  }
+}
@@ -0,0 +1,31 @@
+package ch.vaudoise.crm_api.observability;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Tags each reactive repository call with its originating method through the Reactor context. */
+public class RepositoryMethodInterceptor implements MethodInterceptor {
+
+  public static final String REPOSITORY_METHOD_KEY = "crm.repository.method";
+
+  private final String repositoryName;
+
+  public RepositoryMethodInterceptor(final String repositoryName) {
+    this.repositoryName = repositoryName;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    Object result = invocation.proceed();
+    String method = repositoryName + "." + invocation.getMethod().getName();
+    if (result instanceof Mono<?> mono) {
+      return mono.contextWrite(context -> context.put(REPOSITORY_METHOD_KEY, method));
+    }
+    if (result instanceof Flux<?> flux) {
+      return flux.contextWrite(context -> context.put(REPOSITORY_METHOD_KEY, method));
+    }
+    return result;
+  }
+}
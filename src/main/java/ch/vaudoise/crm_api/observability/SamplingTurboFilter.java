@@ -0,0 +1,76 @@
+package ch.vaudoise.crm_api.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Marker;
+
+/**
+ * Keeps one in {@code N} INFO and lower events of the configured loggers, before the message is
+ * formatted. Warnings and errors always pass. Configured with one {@code <sample>logger=N</sample>}
+ * element per logger; a logger name also covers its children.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+  private final Map<String, Long> rates = new LinkedHashMap<>();
+  private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+  public void addSample(String sample) {
+    int separator = sample.lastIndexOf('=');
+    if (separator < 1) {
+      addError("Expected logger=N but got [" + sample + "]");
+      return;
+    }
+    long every = Long.parseLong(sample.substring(separator + 1).trim());
+    if (every < 1) {
+      addError("Sampling rate of [" + sample + "] must be at least 1");
+      return;
+    }
+    rates.put(sample.substring(0, separator).trim(), every);
+  }
+
+  @Override
+  public FilterReply decide(
+      Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    if (!isStarted() || level.isGreaterOrEqual(Level.WARN)) return FilterReply.NEUTRAL;
+    // events the logger level discards, and isXxxEnabled() checks (no format), must not use up a
+    // sampling slot; logger.isEnabledFor() would run this filter again
+    if (format == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+      return FilterReply.NEUTRAL;
+    }
+    Sampler sampler = samplers.computeIfAbsent(logger.getName(), this::samplerFor);
+    return sampler.accept() ? FilterReply.NEUTRAL : FilterReply.DENY;
+  }
+
+  private Sampler samplerFor(String loggerName) {
+    long every =
+        rates.entrySet().stream()
+            .filter(rate -> covers(rate.getKey(), loggerName))
+            .max(Comparator.comparingInt(rate -> rate.getKey().length()))
+            .map(Map.Entry::getValue)
+            .orElse(1L);
+    return new Sampler(every);
+  }
+
+  private static boolean covers(String configured, String loggerName) {
+    return loggerName.equals(configured)
+        || (loggerName.startsWith(configured) && loggerName.charAt(configured.length()) == '.');
+  }
+
+  private record Sampler(long every, AtomicLong count) {
+
+    Sampler(long every) {
+      this(every, new AtomicLong());
+    }
+
+    boolean accept() {
+      return every == 1 || count.getAndIncrement() % every == 0;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package ch.vaudoise.crm_api.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ch.vaudoise.crm.ServiceOperation")
+@Label("Service Operation")
+@Description("A ClientService or ContractService call, from subscription to its result")
+@Category({"CRM", "Service"})
+@StackTrace(false)
+class ServiceOperationEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Client Id")
+  String clientId;
+
+  @Label("Cache")
+  @Description("hit, miss or load for cached operations, none otherwise")
+  String cache;
+
+  @Label("Rows")
+  @Description("Elements emitted, or the size of the returned collection")
+  long rows;
+
+  @Label("Outcome")
+  String outcome;
+}
@@ -0,0 +1,73 @@
+package ch.vaudoise.crm_api.observability;
+
+import com.mongodb.RequestContext;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Keeps a copy of the reads issued by the given repository methods until they complete, to hand the
+ * slow ones to {@link SlowQueryRecorder}. Other commands are not copied.
+ */
+public class SlowQueryCommandListener implements CommandListener {
+
+  private static final Set<String> CAPTURED_COMMANDS =
+      Set.of("find", "aggregate", "count", "distinct");
+
+  private final Map<Integer, Captured> inFlight = new ConcurrentHashMap<>();
+  private final long thresholdNanos;
+  private final Set<String> methods;
+  private final ObjectProvider<SlowQueryRecorder> recorder;
+
+  public SlowQueryCommandListener(
+      final Duration threshold,
+      final Set<String> methods,
+      final ObjectProvider<SlowQueryRecorder> recorder) {
+    this.thresholdNanos = threshold.toNanos();
+    this.methods = Set.copyOf(methods);
+    this.recorder = recorder;
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    if (!CAPTURED_COMMANDS.contains(event.getCommandName())) return;
+    String method = method(event.getRequestContext());
+    if (method != null && methods.contains(method)) {
+      // the driver releases the buffer behind the command once this callback returns
+      inFlight.put(event.getRequestId(), new Captured(event.getCommand().clone(), method));
+    }
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    Captured captured = inFlight.remove(event.getRequestId());
+    long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+    if (captured == null || elapsed < thresholdNanos) return;
+
+    BsonDocument command = captured.command();
+    String method = captured.method();
+    recorder.ifAvailable(
+        r -> r.capture(event.getCommandName(), command, method, Duration.ofNanos(elapsed)));
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    inFlight.remove(event.getRequestId());
+  }
+
+  private static String method(RequestContext context) {
+    return context == null
+        ? null
+        : context.getOrDefault(RepositoryMethodInterceptor.REPOSITORY_METHOD_KEY, null);
+  }
+
+  private record Captured(BsonDocument command, String method) {}
+}
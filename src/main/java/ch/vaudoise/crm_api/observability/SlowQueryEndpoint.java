@@ -0,0 +1,29 @@
+package ch.vaudoise.crm_api.observability;
+
+import ch.vaudoise.crm_api.model.entity.SlowQuery;
+import ch.vaudoise.crm_api.repository.SlowQueryRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+  private final SlowQueryRepository slowQueryRepository;
+
+  public SlowQueryEndpoint(final SlowQueryRepository slowQueryRepository) {
+    this.slowQueryRepository = slowQueryRepository;
+  }
+
+  @ReadOperation
+  public Mono<List<SlowQuery>> slowQueries() {
+    return slowQueryRepository.findTop100ByOrderByCapturedAtDesc().collectList();
+  }
+}
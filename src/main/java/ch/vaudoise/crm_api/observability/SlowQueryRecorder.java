@@ -0,0 +1,153 @@
+package ch.vaudoise.crm_api.observability;
+
+import ch.vaudoise.crm_api.config.SlowQueryProperties;
+import ch.vaudoise.crm_api.model.entity.SlowQuery;
+import ch.vaudoise.crm_api.repository.SlowQueryRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "crm.slow-query", name = "enabled", matchIfMissing = true)
+public class SlowQueryRecorder {
+
+  private static final JsonWriterSettings JSON =
+      JsonWriterSettings.builder().outputMode(JsonMode.RELAXED).build();
+  private static final long WINDOW_MILLIS = Duration.ofMinutes(1).toMillis();
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final SlowQueryRepository slowQueryRepository;
+  private final SlowQueryProperties properties;
+  private final Counter captured;
+  private final Counter skipped;
+  private final AtomicLong windowStart = new AtomicLong();
+  private final AtomicInteger windowCount = new AtomicInteger();
+  private volatile boolean ready;
+
+  public SlowQueryRecorder(
+      final ReactiveMongoTemplate mongoTemplate,
+      final SlowQueryRepository slowQueryRepository,
+      final SlowQueryProperties properties,
+      final MeterRegistry meterRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.slowQueryRepository = slowQueryRepository;
+    this.properties = properties;
+    this.captured = meterRegistry.counter("crm.mongo.slow_queries", "result", "captured");
+    this.skipped = meterRegistry.counter("crm.mongo.slow_queries", "result", "rate_limited");
+  }
+
+  /**
+   * Captures are held back until the collection is known to be capped: the first insert would
+   * otherwise create it uncapped. A collection left uncapped by an earlier version is converted.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void createCappedCollection() {
+    String name = mongoTemplate.getCollectionName(SlowQuery.class);
+    mongoTemplate
+        .executeCommand(
+            new Document("listCollections", 1).append("filter", new Document("name", name)))
+        .flatMap(
+            result -> {
+              List<Document> collections =
+                  result.get("cursor", Document.class).getList("firstBatch", Document.class);
+              if (collections.isEmpty()) {
+                return mongoTemplate
+                    .createCollection(
+                        SlowQuery.class,
+                        CollectionOptions.empty()
+                            .capped()
+                            .size(properties.collectionSize().toBytes())
+                            .maxDocuments(properties.maxDocuments()))
+                    .doOnNext(created -> log.info("Created capped collection {}", name))
+                    .then();
+              }
+              Document options = collections.getFirst().get("options", Document.class);
+              if (options != null && options.getBoolean("capped", false)) return Mono.empty();
+              return mongoTemplate
+                  .executeCommand(
+                      new Document("convertToCapped", name)
+                          .append("size", properties.collectionSize().toBytes()))
+                  .doOnNext(converted -> log.info("Converted {} to a capped collection", name))
+                  .then();
+            })
+        .retryWhen(Retry.backoff(5, Duration.ofSeconds(2)))
+        .subscribe(
+            null,
+            e -> log.warn("Could not create slow query collection : {}", e.getMessage()),
+            () -> ready = true);
+  }
+
+  public void capture(
+      String commandName, BsonDocument command, String repositoryMethod, Duration duration) {
+    if (!ready) return;
+    if (!tryAcquire()) {
+      skipped.increment();
+      return;
+    }
+    BsonDocument shape = QueryShapes.shapeOf(commandName, command);
+    Document explain =
+        new Document("explain", QueryShapes.explainable(command))
+            .append("verbosity", "executionStats");
+
+    mongoTemplate
+        .executeCommand(explain)
+        .map(
+            plan ->
+                SlowQuery.builder()
+                    .capturedAt(Instant.now())
+                    .durationMs(duration.toMillis())
+                    .collection(command.getString(commandName).getValue())
+                    .command(commandName)
+                    .repositoryMethod(repositoryMethod)
+                    .shape(shape.toJson(JSON))
+                    .executionStats(toJson(plan.get("executionStats", Document.class)))
+                    .winningPlan(toJson(winningPlan(plan)))
+                    .build())
+        .flatMap(slowQueryRepository::save)
+        .subscribeOn(Schedulers.boundedElastic())
+        .subscribe(
+            saved -> captured.increment(),
+            e -> log.warn("Could not capture slow {} query : {}", commandName, e.getMessage()));
+  }
+
+  private boolean tryAcquire() {
+    long now = System.currentTimeMillis();
+    long start = windowStart.get();
+    if (now - start >= WINDOW_MILLIS && windowStart.compareAndSet(start, now)) {
+      windowCount.set(0);
+    }
+    return windowCount.incrementAndGet() <= properties.maxCapturesPerMinute();
+  }
+
+  private static Document winningPlan(Document plan) {
+    Document planner = plan.get("queryPlanner", Document.class);
+    return planner == null ? null : planner.get("winningPlan", Document.class);
+  }
+
+  private static String toJson(Document document) {
+    return document == null ? null : document.toJson(JSON);
+  }
+}
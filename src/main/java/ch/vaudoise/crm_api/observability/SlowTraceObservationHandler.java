@@ -0,0 +1,149 @@
+package ch.vaudoise.crm_api.observability;
+
+import ch.vaudoise.crm_api.config.TracingProperties.SlowTrace;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs a latency breakdown of traces slower than the configured threshold. Every observation
+ * finishing under a root (the HTTP request, usually) is noted on the root: its depth, offset from
+ * the start of the trace and duration. When the root finishes over the threshold, the steps are
+ * logged as an indented tree, so a slow request shows whether the time went into the service, the
+ * cache or a particular Mongo command without having to open the trace backend.
+ */
+@Slf4j
+public class SlowTraceObservationHandler implements ObservationHandler<Observation.Context> {
+
+  private static final long WINDOW_NANOS = Duration.ofMinutes(1).toNanos();
+
+  private final SlowTrace properties;
+  private final LongSupplier nanoTime;
+  private final AtomicLong windowStart = new AtomicLong();
+  private final AtomicInteger windowCount = new AtomicInteger();
+
+  public SlowTraceObservationHandler(final SlowTrace properties) {
+    this(properties, System::nanoTime);
+  }
+
+  SlowTraceObservationHandler(final SlowTrace properties, final LongSupplier nanoTime) {
+    this.properties = properties;
+    this.nanoTime = nanoTime;
+    this.windowStart.set(nanoTime.getAsLong());
+  }
+
+  @Override
+  public boolean supportsContext(Observation.Context context) {
+    return true;
+  }
+
+  @Override
+  public void onStart(Observation.Context context) {
+    context.put(Started.class, new Started(nanoTime.getAsLong()));
+    if (context.getParentObservation() == null) {
+      context.put(Trace.class, new Trace());
+    }
+  }
+
+  @Override
+  public void onStop(Observation.Context context) {
+    Started started = context.get(Started.class);
+    if (started == null) return;
+    long end = nanoTime.getAsLong();
+
+    int depth = 0;
+    Observation.ContextView root = context;
+    for (ObservationView parent = context.getParentObservation();
+        parent != null;
+        parent = root.getParentObservation()) {
+      root = parent.getContextView();
+      depth++;
+    }
+    Trace trace = root.get(Trace.class);
+    Started rootStarted = root.get(Started.class);
+    if (trace == null || rootStarted == null) return;
+    trace.add(
+        new Step(
+            depth,
+            name(context),
+            started.nanos() - rootStarted.nanos(),
+            end - started.nanos(),
+            context.getError() != null),
+        properties.maxSteps());
+
+    if (depth == 0 && end - started.nanos() >= properties.threshold().toNanos() && permit(end)) {
+      log.warn(trace.format(name(context), end - started.nanos()));
+    }
+  }
+
+  private boolean permit(long now) {
+    long start = windowStart.get();
+    if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+      windowCount.set(0);
+    }
+    return windowCount.incrementAndGet() <= properties.maxLogsPerMinute();
+  }
+
+  private static String name(Observation.ContextView context) {
+    String contextual = context.getContextualName();
+    return contextual != null ? contextual : context.getName();
+  }
+
+  private record Started(long nanos) {}
+
+  private record Step(
+      int depth, String name, long offsetNanos, long durationNanos, boolean error) {}
+
+  private static final class Trace {
+
+    private final Queue<Step> steps = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    void add(Step step, int maxSteps) {
+      if (step.depth() == 0 || size.incrementAndGet() <= maxSteps) {
+        steps.add(step);
+      } else {
+        dropped.incrementAndGet();
+      }
+    }
+
+    String format(String name, long durationNanos) {
+      List<Step> ordered = new ArrayList<>(steps);
+      ordered.sort(Comparator.comparingLong(Step::offsetNanos).thenComparingInt(Step::depth));
+      StringBuilder out =
+          new StringBuilder("Slow trace ")
+              .append(name)
+              .append(" took ")
+              .append(millis(durationNanos))
+              .append(" ms");
+      for (Step step : ordered) {
+        out.append(System.lineSeparator())
+            .append(
+                "%6d ms at +%-5d "
+                    .formatted(millis(step.durationNanos()), millis(step.offsetNanos())))
+            .append("  ".repeat(step.depth()))
+            .append(step.name())
+            .append(step.error() ? " [error]" : "");
+      }
+      if (dropped.get() > 0) {
+        out.append(System.lineSeparator()).append(dropped.get()).append(" more steps not shown");
+      }
+      return out.toString();
+    }
+
+    private static long millis(long nanos) {
+      return nanos / 1_000_000;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package ch.vaudoise.crm_api.observability;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs where startup went as one line once the application is ready, from the {@link
+ * BufferingApplicationStartup} timeline that the {@code startup} actuator endpoint also serves.
+ * Durations are in milliseconds and repeated as key values for the JSON layout.
+ */
+@Slf4j
+@Component
+public class StartupSummary {
+
+  static final int SLOWEST_BEANS = 5;
+
+  static final String INSTANTIATE = "spring.beans.instantiate";
+
+  /** Summary key and the step it is read from, in the order they happen. */
+  private static final Map<String, String> PHASES = new LinkedHashMap<>();
+
+  static {
+    PHASES.put("environment", "spring.boot.application.environment-prepared");
+    PHASES.put("bean-definitions", "spring.context.beandef-registry.post-process");
+    PHASES.put("bean-factory", "spring.context.beans.post-process");
+    PHASES.put("web-server", "spring.boot.webserver.create");
+    PHASES.put("refresh", "spring.context.refresh");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void log(ApplicationReadyEvent event) {
+    if (!(event.getApplicationContext().getApplicationStartup()
+        instanceof BufferingApplicationStartup startup)) return;
+    Duration uptime = Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+    Map<String, Object> summary =
+        summarize(startup.getBufferedTimeline(), event.getTimeTaken(), uptime);
+    LoggingEventBuilder line = log.atInfo();
+    summary.forEach(line::addKeyValue);
+    line.log(
+        "Startup summary (ms) {}",
+        summary.entrySet().stream()
+            .map(entry -> entry.getKey() + "=" + entry.getValue())
+            .collect(Collectors.joining(" ")));
+  }
+
+  /**
+   * Phases are the first occurrence of their step. Beans are counted by self time, that is without
+   * the dependencies created while they were being instantiated.
+   */
+  static Map<String, Object> summarize(StartupTimeline timeline, Duration ready, Duration uptime) {
+    List<TimelineEvent> events = timeline.getEvents();
+    Map<Long, Long> childrenNanos = new HashMap<>();
+    for (TimelineEvent event : events) {
+      Long parent = event.getStartupStep().getParentId();
+      if (parent != null) childrenNanos.merge(parent, event.getDuration().toNanos(), Long::sum);
+    }
+
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("total", uptime.toMillis());
+    summary.put("jvm", uptime.minus(ready).toMillis());
+    PHASES.forEach(
+        (key, step) ->
+            events.stream()
+                .filter(event -> step.equals(event.getStartupStep().getName()))
+                .findFirst()
+                .ifPresent(event -> summary.put(key, event.getDuration().toMillis())));
+
+    Map<String, Long> beans = new HashMap<>();
+    for (TimelineEvent event : events) {
+      StartupStep step = event.getStartupStep();
+      if (!INSTANTIATE.equals(step.getName())) continue;
+      long self = event.getDuration().toNanos() - childrenNanos.getOrDefault(step.getId(), 0L);
+      beans.merge(beanName(step), self, Long::sum);
+    }
+    summary.put(
+        "beans",
+        Duration.ofNanos(beans.values().stream().mapToLong(Long::longValue).sum()).toMillis());
+    summary.put("ready", ready.toMillis());
+    summary.put(
+        "slowest-beans",
+        beans.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(SLOWEST_BEANS)
+            .map(bean -> bean.getKey() + ":" + Duration.ofNanos(bean.getValue()).toMillis())
+            .collect(Collectors.joining(",")));
+    return summary;
+  }
+
+  private static String beanName(StartupStep step) {
+    for (StartupStep.Tag tag : step.getTags()) {
+      if ("beanName".equals(tag.getKey())) return tag.getValue();
+    }
+    return "?";
+  }
+}
@@ -1,11 +1,15 @@
 package ch.vaudoise.crm_api.repository;
 
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
 import ch.vaudoise.crm_api.model.entity.Contract;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 import org.bson.types.Decimal128;
 import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.data.mongodb.repository.Update;
@@ -32,7 +36,7 @@ public interface ContractRepository extends ReactiveMongoRepository<Contract, Ob
   Mono<Void> setEndDateByClientId(ObjectId clientId, LocalDate date);
 
   @Query("{ 'clientId' : ?0 }")
-  @Update("{ '$set' : { 'clientId' : null } }")
+  @Update("{ '$set' : { 'clientId' : null, 'clientSummary' : null } }")
   Mono<Void> unsetClientIdByClientId(ObjectId clientId);
 
   @Aggregation(
@@ -42,4 +46,18 @@ public interface ContractRepository extends ReactiveMongoRepository<Contract, Ob
         "{ $set: { totalCost: { $convert: { input: '$totalCost', to: 'decimal' } } } }",
       })
   Mono<Decimal128> sumActiveContractTotalCostByClientId(ObjectId clientId, LocalDate date);
+
+  /**
+   * One entry per referenced client with the distinct {@code clientSummary} values of its
+   * contracts, {@code null} standing for contracts that have none.
+   */
+  @Meta(allowDiskUse = true)
+  @Aggregation(
+      pipeline = {
+        "{ $match: { clientId: { $ne: null } } }",
+        "{ $group: { _id: '$clientId', summaries: { $addToSet: { $ifNull: ['$clientSummary', null] } } } }",
+      })
+  Flux<ClientSummaries> findClientSummaries();
+
+  record ClientSummaries(@Id ObjectId clientId, List<ClientSummary> summaries) {}
 }
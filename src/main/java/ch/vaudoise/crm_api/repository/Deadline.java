@@ -0,0 +1,24 @@
+package ch.vaudoise.crm_api.repository;
+
+import java.time.Duration;
+import java.util.Optional;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/** Reactor context entry holding the point in time after which nobody waits for the result. */
+public final class Deadline {
+
+  public static final String CONTEXT_KEY = "crm.deadline";
+
+  private Deadline() {}
+
+  public static Context in(Duration timeout) {
+    return Context.of(CONTEXT_KEY, System.nanoTime() + timeout.toNanos());
+  }
+
+  public static Optional<Duration> remaining(ContextView context) {
+    return context
+        .<Long>getOrEmpty(CONTEXT_KEY)
+        .map(deadline -> Duration.ofNanos(deadline - System.nanoTime()));
+  }
+}
@@ -0,0 +1,9 @@
+package ch.vaudoise.crm_api.repository;
+
+import ch.vaudoise.crm_api.model.entity.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository
+    extends ReactiveMongoRepository<IdempotencyRecord, String> {}
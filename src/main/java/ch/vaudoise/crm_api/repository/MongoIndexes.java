@@ -0,0 +1,149 @@
+package ch.vaudoise.crm_api.repository;
+
+import com.mongodb.MongoNodeIsRecoveringException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Creates the indexes declared on the {@link Document} entities in the background once the
+ * application is ready, instead of during the {@link ReactiveMongoTemplate} creation ({@code
+ * auto-index-creation} is off).
+ *
+ * <p>Unique indexes back invariants such as client name uniqueness, so this indicator, part of the
+ * readiness group, stays {@code OUT_OF_SERVICE} until they exist. The other indexes only speed up
+ * queries and are created afterwards without holding traffic. Failures are retried while MongoDB is
+ * unreachable or without a primary; any other failure of the unique indexes turns this indicator
+ * {@code DOWN} with the error.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+public class MongoIndexes implements ReactiveHealthIndicator {
+
+  static final Duration FIRST_RETRY = Duration.ofSeconds(1);
+  static final Duration MAX_RETRY = Duration.ofMinutes(1);
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final MongoMappingContext mappingContext;
+  private final AtomicReference<Health> health =
+      new AtomicReference<>(Health.outOfService().withDetail("unique", "pending").build());
+
+  public MongoIndexes(
+      final ReactiveMongoTemplate mongoTemplate, final MongoMappingContext mappingContext) {
+    this.mongoTemplate = mongoTemplate;
+    this.mappingContext = mappingContext;
+  }
+
+  record EntityIndex(Class<?> type, IndexDefinition definition) {
+
+    boolean unique() {
+      return Boolean.TRUE.equals(definition.getIndexOptions().get("unique"));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void create() {
+    IndexResolver resolver = IndexResolver.create(mappingContext);
+    List<EntityIndex> unique = new ArrayList<>();
+    List<EntityIndex> others = new ArrayList<>();
+    for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+      if (!entity.isAnnotationPresent(Document.class)) continue;
+      for (IndexDefinition definition : resolver.resolveIndexFor(entity.getType())) {
+        EntityIndex index = new EntityIndex(entity.getType(), definition);
+        (index.unique() ? unique : others).add(index);
+      }
+    }
+
+    long start = System.nanoTime();
+    ensure(unique)
+        .doOnSuccess(
+            done -> {
+              health.set(Health.up().withDetail("unique", unique.size()).build());
+              log.info(
+                  "Created {} unique indexes in {} ms, accepting traffic",
+                  unique.size(),
+                  Duration.ofNanos(System.nanoTime() - start).toMillis());
+            })
+        .then(ensure(others))
+        .subscribe(
+            null,
+            e -> {
+              log.error("Index creation abandoned : {}", e.getMessage(), e);
+              health.updateAndGet(
+                  current ->
+                      Status.UP.equals(current.getStatus())
+                          ? Health.status(current.getStatus())
+                              .withDetails(current.getDetails())
+                              .withDetail("others", e.getMessage())
+                              .build()
+                          : Health.down(e).withDetail("unique", "failed").build());
+            },
+            () ->
+                log.info(
+                    "Created {} other indexes in {} ms",
+                    others.size(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis()));
+  }
+
+  private Mono<Void> ensure(List<EntityIndex> indexes) {
+    return Flux.fromIterable(indexes)
+        .concatMap(index -> mongoTemplate.indexOps(index.type()).createIndex(index.definition()))
+        .then()
+        .retryWhen(
+            Retry.backoff(Long.MAX_VALUE, FIRST_RETRY)
+                .maxBackoff(MAX_RETRY)
+                .filter(MongoIndexes::isTransient)
+                .doBeforeRetry(
+                    retry ->
+                        log.warn(
+                            "Index creation failed, retry {} : {}",
+                            retry.totalRetries() + 1,
+                            retry.failure().getMessage())));
+  }
+
+  /**
+   * MongoDB unreachable, not elected yet or recovering. Anything else, such as a conflicting index
+   * or missing privileges, fails again on retry. Spring translates driver exceptions, the driver
+   * one is a cause.
+   */
+  static boolean isTransient(Throwable error) {
+    for (Throwable e = error; e != null; e = e.getCause()) {
+      if (e instanceof MongoSocketException
+          || e instanceof MongoTimeoutException
+          || e instanceof MongoNotPrimaryException
+          || e instanceof MongoNodeIsRecoveringException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Mono<Health> health() {
+    return Mono.just(health.get());
+  }
+}
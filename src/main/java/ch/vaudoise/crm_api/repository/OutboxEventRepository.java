@@ -0,0 +1,29 @@
+package ch.vaudoise.crm_api.repository;
+
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import java.time.Instant;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface OutboxEventRepository extends ReactiveMongoRepository<OutboxEvent, ObjectId> {
+
+  /** Pending events from {@code orderingKey} on, each key's events in sequence order. */
+  @Query(
+      value = "{ 'publishedAt' : null, 'orderingKey' : { '$gte' : ?0 } }",
+      sort = "{ 'orderingKey' : 1, 'sequence' : 1 }")
+  Flux<OutboxEvent> findPending(ObjectId orderingKey, Limit limit);
+
+  Mono<Long> countByPublishedAtIsNull();
+
+  @Query("{ '_id' : { '$in' : ?0 } }")
+  @Update("{ '$set' : { 'publishedAt' : ?1 } }")
+  Mono<Void> markPublished(List<ObjectId> ids, Instant publishedAt);
+}
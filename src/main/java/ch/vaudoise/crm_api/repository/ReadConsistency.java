@@ -0,0 +1,20 @@
+package ch.vaudoise.crm_api.repository;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/** Reactor context flag forcing repository reads onto the primary (read-your-writes). */
+public final class ReadConsistency {
+
+  public static final String CONTEXT_KEY = "crm.read.primary";
+
+  private ReadConsistency() {}
+
+  public static Context primary() {
+    return Context.of(CONTEXT_KEY, Boolean.TRUE);
+  }
+
+  public static boolean isPrimary(ContextView context) {
+    return context.getOrDefault(CONTEXT_KEY, Boolean.FALSE);
+  }
+}
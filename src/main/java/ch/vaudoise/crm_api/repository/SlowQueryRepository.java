@@ -0,0 +1,13 @@
+package ch.vaudoise.crm_api.repository;
+
+import ch.vaudoise.crm_api.model.entity.SlowQuery;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface SlowQueryRepository extends ReactiveMongoRepository<SlowQuery, ObjectId> {
+
+  Flux<SlowQuery> findTop100ByOrderByCapturedAtDesc();
+}
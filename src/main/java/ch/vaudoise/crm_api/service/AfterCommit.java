@@ -0,0 +1,32 @@
+package ch.vaudoise.crm_api.service;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Defers side effects that must not outlive a rolled-back transaction until the reactive
+ * transaction commits. Outside of a transaction the action runs right away.
+ */
+final class AfterCommit {
+
+  private AfterCommit() {}
+
+  static Mono<Void> run(Runnable action) {
+    return TransactionSynchronizationManager.forCurrentTransaction()
+        .filter(TransactionSynchronizationManager::isSynchronizationActive)
+        .doOnNext(
+            synchronization ->
+                synchronization.registerSynchronization(
+                    new TransactionSynchronization() {
+                      @Override
+                      public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(action);
+                      }
+                    }))
+        .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+        .switchIfEmpty(Mono.fromRunnable(action))
+        .then();
+  }
+}
@@ -1,45 +1,88 @@
 package ch.vaudoise.crm_api.service;
 
 import static java.time.ZoneOffset.UTC;
+import static java.util.function.Predicate.not;
 
+import ch.vaudoise.crm_api.config.WriteFencedCaffeineCache;
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
 import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
 import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
 import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
 import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
 import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
 import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.model.exception.DomainException;
 import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.observability.ClientId;
 import ch.vaudoise.crm_api.repository.ClientRepository;
 import ch.vaudoise.crm_api.repository.ContractRepository;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import ch.vaudoise.crm_api.service.outbox.OutboxService;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.observation.annotation.Observed;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.Decimal128;
 import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
 
 @SuppressFBWarnings(
     value = {"EI_EXPOSE_REP2"},
     justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
 @Slf4j
 @Service
+@Observed
 public class ClientService {
 
   private final ClientRepository clientRepository;
   private final ContractRepository contractRepository;
+  private final OutboxService outboxService;
+  private final ClientSummaryFanOut clientSummaryFanOut;
+  private final CacheManager cacheManager;
 
-  public ClientService(ClientRepository clientRepository, ContractRepository contractRepository) {
+  public ClientService(
+      ClientRepository clientRepository,
+      ContractRepository contractRepository,
+      OutboxService outboxService,
+      ClientSummaryFanOut clientSummaryFanOut,
+      CacheManager cacheManager) {
     this.clientRepository = clientRepository;
     this.contractRepository = contractRepository;
+    this.outboxService = outboxService;
+    this.clientSummaryFanOut = clientSummaryFanOut;
+    this.cacheManager = cacheManager;
   }
 
   @Cacheable(value = "clients", key = "#id")
-  public Mono<ResponseClientDTO> findById(String id) {
+  public Mono<ResponseClientDTO> findById(@ClientId String id) {
+    return loadById(id);
+  }
+
+  /** {@link #findById} read from the primary, never answered from or written to the cache. */
+  public Mono<ResponseClientDTO> findByIdOnPrimary(@ClientId String id) {
+    return loadById(id).contextWrite(ReadConsistency.primary());
+  }
+
+  private Mono<ResponseClientDTO> loadById(String id) {
     log.info("Fetching single client id={}", id);
     return clientRepository
         .findById(new ObjectId(id))
@@ -47,11 +90,84 @@ public class ClientService {
         .map(Client::toDTO);
   }
 
+  /**
+   * Resolves several clients at once. Hits come from the {@code clients} cache in one bulk lookup,
+   * the misses are loaded with a single {@code $in} query and written back together; results keep
+   * the request order and mark unknown ids as not found. Primary reads, and ids written too
+   * recently for a secondary to have caught up, skip the cache.
+   */
+  public Mono<List<ClientLookupDTO>> findAllById(List<String> ids) {
+    List<String> distinct = ids.stream().distinct().toList();
+    for (String id : distinct) {
+      if (!ObjectId.isValid(id)) {
+        return Mono.error(new IllegalArgumentException("Invalid client id: " + id));
+      }
+    }
+    log.info("Fetching {} clients by id", distinct.size());
+
+    // the load runs outside this subscription, it gets the caller's context (read consistency,
+    // observation) explicitly; the future is shared with concurrent callers, so a cancelled caller
+    // must not cancel it
+    Cache cache = cacheManager.getCache("clients");
+    Mono<Map<Object, Object>> found =
+        Mono.deferContextual(
+            context ->
+                cache instanceof CaffeineCache caffeineCache
+                        && !ReadConsistency.isPrimary(context)
+                        && !isFenced(cache, distinct)
+                    ? Mono.fromFuture(
+                        () ->
+                            caffeineCache
+                                .getAsyncCache()
+                                .getAll(distinct, (missing, executor) -> loadAll(missing, context)),
+                        true)
+                    : Mono.fromFuture(() -> loadAll(distinct, context), true));
+
+    return found.map(
+        clients ->
+            ids.stream()
+                .map(id -> ClientLookupDTO.of(id, (ResponseClientDTO) clients.get(id)))
+                .toList());
+  }
+
+  private static boolean isFenced(Cache cache, List<String> ids) {
+    return cache instanceof WriteFencedCaffeineCache fenced
+        && ids.stream().anyMatch(fenced::isFenced);
+  }
+
+  private CompletableFuture<Map<Object, Object>> loadAll(Collection<?> ids, ContextView context) {
+    log.info("Loading {} clients missing from cache", ids.size());
+    return clientRepository
+        .findAllById(ids.stream().map(id -> new ObjectId((String) id)).toList())
+        .collectMap(client -> (Object) client.getId().toString(), client -> (Object) client.toDTO())
+        .contextWrite(context)
+        .toFuture();
+  }
+
+  /**
+   * Contracts are served from their embedded {@code clientSummary}. The client is only loaded when
+   * there are none, to tell an unknown client apart, or when one predates summaries; its summary is
+   * returned then, so the response has the same fields either way.
+   */
   @Cacheable(
       value = "contracts",
       key =
           "#id + '_' + (#from != null ? #from.toString() : 'null') + '_' + (#to != null ? #to.toString() : 'null')")
-  public Flux<ResponseContractDTO> getAllActiveContracts(String id, LocalDate from, LocalDate to) {
+  public Flux<ResponseContractDTO> getAllActiveContracts(
+      @ClientId String id, LocalDate from, LocalDate to) {
+    return loadActiveContracts(id, from, to);
+  }
+
+  /**
+   * {@link #getAllActiveContracts} read from the primary, never answered from or written to the
+   * cache.
+   */
+  public Flux<ResponseContractDTO> getAllActiveContractsOnPrimary(
+      @ClientId String id, LocalDate from, LocalDate to) {
+    return loadActiveContracts(id, from, to).contextWrite(ReadConsistency.primary());
+  }
+
+  private Flux<ResponseContractDTO> loadActiveContracts(String id, LocalDate from, LocalDate to) {
     ObjectId objectId = new ObjectId(id);
     Instant fromInstant = from == null ? null : from.atStartOfDay().toInstant(UTC);
     Instant toInstant =
@@ -61,48 +177,65 @@ public class ClientService {
         id,
         fromInstant,
         toInstant);
-    return clientRepository
-        .findById(objectId)
-        .switchIfEmpty(Mono.error(new NotFoundException("Client not found: " + id)))
+    if (fromInstant != null && toInstant != null && fromInstant.isAfter(toInstant)) {
+      return Flux.error(
+          new IllegalArgumentException(
+              "Parameter 'from' and 'to' must be chronologically coherent ("
+                  + from
+                  + " < "
+                  + to
+                  + ")."));
+    }
+    return findActiveContracts(objectId, fromInstant, toInstant)
+        .collectList()
         .flatMapMany(
-            client -> {
-              LocalDate today = LocalDate.now();
-              Flux<Contract> contracts;
-
-              if (fromInstant != null && toInstant != null) {
-                if (fromInstant.isAfter(toInstant)) {
-                  return Flux.error(
-                      new IllegalArgumentException(
-                          "Parameter 'from' and 'to' must be chronologically coherent ("
-                              + from
-                              + " < "
-                              + to
-                              + ")."));
-                }
-                contracts =
-                    contractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtBetween(
-                        objectId, today, fromInstant, toInstant);
-              } else if (fromInstant == null && toInstant != null) {
-                contracts =
-                    contractRepository
-                        .findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtLessThanEqual(
-                            objectId, today, toInstant);
-              } else if (fromInstant != null) {
-                contracts =
-                    contractRepository
-                        .findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtGreaterThanEqual(
-                            objectId, today, fromInstant);
-              } else {
-                contracts =
-                    contractRepository.findByClientIdAndEndDateGreaterThanEqual(objectId, today);
+            contracts -> {
+              if (!contracts.isEmpty()
+                  && contracts.stream().allMatch(contract -> contract.getClientSummary() != null)) {
+                return Flux.fromIterable(contracts).map(Contract::toDTO);
               }
-
-              return contracts.map(contract -> contract.toDTO(client.toDTO()));
+              return clientRepository
+                  .findById(objectId)
+                  .switchIfEmpty(Mono.error(new NotFoundException("Client not found: " + id)))
+                  .flatMapMany(
+                      client -> {
+                        ResponseClientDTO summary = ClientSummary.of(client).toDTO(objectId);
+                        return Flux.fromIterable(contracts)
+                            .map(contract -> contract.toDTO(summary));
+                      });
             });
   }
 
+  private Flux<Contract> findActiveContracts(ObjectId clientId, Instant from, Instant to) {
+    LocalDate today = LocalDate.now();
+    if (from != null && to != null) {
+      return contractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtBetween(
+          clientId, today, from, to);
+    } else if (to != null) {
+      return contractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtLessThanEqual(
+          clientId, today, to);
+    } else if (from != null) {
+      return contractRepository
+          .findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtGreaterThanEqual(
+              clientId, today, from);
+    }
+    return contractRepository.findByClientIdAndEndDateGreaterThanEqual(clientId, today);
+  }
+
   @Cacheable(value = "active_contract_sum", key = "#id")
-  public Mono<Decimal128> getAllActiveContractsTotalSum(String id) {
+  public Mono<Decimal128> getAllActiveContractsTotalSum(@ClientId String id) {
+    return loadActiveContractsTotalSum(id);
+  }
+
+  /**
+   * {@link #getAllActiveContractsTotalSum} read from the primary, never answered from or written to
+   * the cache.
+   */
+  public Mono<Decimal128> getAllActiveContractsTotalSumOnPrimary(@ClientId String id) {
+    return loadActiveContractsTotalSum(id).contextWrite(ReadConsistency.primary());
+  }
+
+  private Mono<Decimal128> loadActiveContractsTotalSum(String id) {
     log.info("Computing total active contracts cost sum for client : {}", id);
     return clientRepository
         .findById(new ObjectId(id))
@@ -114,6 +247,7 @@ public class ClientService {
         .switchIfEmpty(Mono.just(new Decimal128(0)));
   }
 
+  @Transactional
   public Mono<String> create(CreateClientDTO dto) {
     Client client =
         Client.builder()
@@ -136,13 +270,25 @@ public class ClientService {
 
     return clientRepository
         .save(client)
+        .flatMap(
+            c ->
+                outboxService
+                    .record(OutboxEventType.CLIENT_CREATED, c.getId(), c.getId(), c)
+                    .thenReturn(c))
         .map(c -> c.getId().toString())
         .doOnSuccess(v -> log.info("Client successfully created: id={}", v))
-        .doOnError(e -> log.error("Error while creating client : {}", e.getMessage(), e));
+        .doOnError(
+            not(DomainException.class::isInstance),
+            e -> log.error("Error while creating client : {}", e.getMessage(), e));
   }
 
-  @CacheEvict(value = "clients", key = "#id")
-  public Mono<Void> update(String id, UpdateClientDTO dto) {
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "clients", key = "#id"),
+        @CacheEvict(value = "contracts", allEntries = true)
+      })
+  public Mono<Void> update(@ClientId String id, UpdateClientDTO dto, Integer expectedVersion) {
     log.info(
         "Updating client: id={}, name={}, phone={}, email={}, type={}",
         id,
@@ -156,22 +302,52 @@ public class ClientService {
         .switchIfEmpty(Mono.error(new NotFoundException("Client not found: " + id)))
         .flatMap(
             client -> {
+              if (expectedVersion != null && !expectedVersion.equals(client.getVersion())) {
+                return Mono.error(
+                    new PreconditionFailedException(
+                        "Client " + id + " is at version " + client.getVersion()));
+              }
               Client.ClientBuilder updateClient = client.toBuilder();
               if (dto.name() != null) updateClient.name(dto.name());
               if (dto.type() != null) updateClient.type(dto.type());
               if (dto.email() != null) updateClient.email(dto.email());
               if (dto.phone() != null) updateClient.phone(dto.phone());
+              if (expectedVersion != null) updateClient.version(expectedVersion);
               return clientRepository
                   .save(updateClient.build())
+                  .onErrorMap(
+                      OptimisticLockingFailureException.class,
+                      e ->
+                          expectedVersion == null
+                              ? e
+                              : new PreconditionFailedException(
+                                  "Client " + id + " was modified concurrently"))
+                  .flatMap(
+                      saved ->
+                          outboxService
+                              .record(
+                                  OutboxEventType.CLIENT_UPDATED,
+                                  saved.getId(),
+                                  saved.getId(),
+                                  saved)
+                              .then(clientSummaryFanOut.afterCommit(saved)))
                   .doOnSuccess(v -> log.info("Client successfully updated: id={}", id))
                   .doOnError(
+                      not(DomainException.class::isInstance),
                       e -> log.error("Error while updating client {}: {}", id, e.getMessage(), e));
             })
-        .then();
+        .then()
+        .contextWrite(ReadConsistency.primary());
   }
 
-  @CacheEvict(value = "clients", key = "#id")
-  public Mono<Void> delete(String id) {
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "clients", key = "#id"),
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", key = "#id")
+      })
+  public Mono<Void> delete(@ClientId String id) {
     log.info("Deleting client: id={}", id);
     return clientRepository
         .findById(new ObjectId(id))
@@ -179,7 +355,13 @@ public class ClientService {
         .flatMap(clientRepository::delete)
         .then(contractRepository.unsetClientIdByClientId(new ObjectId(id)))
         .then(contractRepository.setEndDateByClientId(new ObjectId(id), LocalDate.now()))
+        .then(
+            outboxService.record(
+                OutboxEventType.CLIENT_DELETED, new ObjectId(id), new ObjectId(id), null))
         .doOnSuccess(v -> log.info("Client successfully deleted: id={}", id))
-        .doOnError(e -> log.error("Error while deleted client {}: {}", id, e.getMessage(), e));
+        .doOnError(
+            not(DomainException.class::isInstance),
+            e -> log.error("Error while deleted client {}: {}", id, e.getMessage(), e))
+        .contextWrite(ReadConsistency.primary());
   }
 }
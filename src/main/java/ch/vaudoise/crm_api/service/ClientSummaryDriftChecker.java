@@ -0,0 +1,149 @@
+package ch.vaudoise.crm_api.service;
+
+import ch.vaudoise.crm_api.config.ClientSummaryProperties;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.repository.ClientRepository;
+import ch.vaudoise.crm_api.repository.ContractRepository;
+import ch.vaudoise.crm_api.repository.ContractRepository.ClientSummaries;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Periodically compares the {@code clientSummary} of every contract with its client, batch by
+ * batch, and counts the clients whose contracts drifted: a lost fan-out, a contract created while
+ * its client was being updated, or a contract written before summaries existed. With {@code repair}
+ * enabled, drifted contracts get the fan-out again.
+ *
+ * <p>The check reads every contract, so only the holder of the {@value #LEASE} lease runs it.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    prefix = "crm.client-summary",
+    name = "drift-check-enabled",
+    matchIfMissing = true)
+public class ClientSummaryDriftChecker {
+
+  static final String LEASE = "client-summary-drift-check";
+
+  private final ContractRepository contractRepository;
+  private final ClientRepository clientRepository;
+  private final ClientSummaryFanOut clientSummaryFanOut;
+  private final LeaseService leaseService;
+  private final ClientSummaryProperties properties;
+  private final AtomicLong drifted = new AtomicLong();
+  private final Counter repaired;
+  private final Counter failures;
+  private Disposable ticker;
+
+  public ClientSummaryDriftChecker(
+      final ContractRepository contractRepository,
+      final ClientRepository clientRepository,
+      final ClientSummaryFanOut clientSummaryFanOut,
+      final LeaseService leaseService,
+      final ClientSummaryProperties properties,
+      final MeterRegistry meterRegistry) {
+    this.contractRepository = contractRepository;
+    this.clientRepository = clientRepository;
+    this.clientSummaryFanOut = clientSummaryFanOut;
+    this.leaseService = leaseService;
+    this.properties = properties;
+    Gauge.builder("crm.client_summary.drift", drifted, AtomicLong::get)
+        .description("Clients whose contracts held an outdated summary at the last check")
+        .register(meterRegistry);
+    this.repaired = meterRegistry.counter("crm.client_summary.repaired");
+    this.failures = meterRegistry.counter("crm.client_summary.check.failures");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    ticker =
+        Flux.interval(properties.driftCheckInterval())
+            .onBackpressureDrop()
+            .concatMap(tick -> checkIfLeader(), 1)
+            .subscribe();
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (ticker != null) ticker.dispose();
+  }
+
+  /**
+   * Runs {@link #check()} if this instance holds the lease. It lasts one interval, so the holder
+   * renews it at each of its own checks.
+   */
+  public Mono<Long> checkIfLeader() {
+    return leaseService
+        .acquire(LEASE, properties.driftCheckInterval())
+        .filter(Boolean::booleanValue)
+        .flatMap(held -> check());
+  }
+
+  /** Emits the number of drifted clients, or nothing when the check failed. */
+  public Mono<Long> check() {
+    return contractRepository
+        .findClientSummaries()
+        .buffer(properties.batchSize())
+        .concatMap(this::checkBatch)
+        .reduce(0L, Long::sum)
+        .doOnNext(
+            count -> {
+              drifted.set(count);
+              if (count > 0) log.warn("Client summary drift on {} clients", count);
+            })
+        .contextWrite(ReadConsistency.primary())
+        .onErrorResume(
+            e -> {
+              failures.increment();
+              log.warn("Client summary drift check failed : {}", e.getMessage());
+              return Mono.empty();
+            });
+  }
+
+  private Mono<Long> checkBatch(List<ClientSummaries> batch) {
+    return clientRepository
+        .findAllById(batch.stream().map(ClientSummaries::clientId).toList())
+        .collectMap(Client::getId, ClientSummary::of)
+        .flatMapMany(
+            expected ->
+                Flux.fromIterable(batch)
+                    .filter(group -> isDrifted(group, expected))
+                    .concatMap(group -> repair(group.clientId(), expected.get(group.clientId()))))
+        .count();
+  }
+
+  /** Contracts of a deleted client are detached when it is deleted, so those are not counted. */
+  private static boolean isDrifted(ClientSummaries group, Map<ObjectId, ClientSummary> expected) {
+    ClientSummary summary = expected.get(group.clientId());
+    return summary != null && !List.of(summary).equals(group.summaries());
+  }
+
+  private Mono<ObjectId> repair(ObjectId clientId, ClientSummary summary) {
+    if (!properties.repair()) return Mono.just(clientId);
+    return clientSummaryFanOut
+        .propagate(clientId, summary)
+        .doOnNext(updated -> repaired.increment(updated))
+        .thenReturn(clientId);
+  }
+}
@@ -0,0 +1,120 @@
+package ch.vaudoise.crm_api.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import com.mongodb.client.result.UpdateResult;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Copies a client's {@link ClientSummary} to all of its contracts with a single {@code updateMany}.
+ * The copy runs in the background once the client update has committed, so the request does not
+ * wait for it; a failed copy is left to {@link ClientSummaryDriftChecker}.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+public class ClientSummaryFanOut {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final CacheManager cacheManager;
+  private final Timer fanOutTimer;
+  private final Counter failures;
+
+  public ClientSummaryFanOut(
+      final ReactiveMongoTemplate mongoTemplate,
+      final CacheManager cacheManager,
+      final MeterRegistry meterRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.cacheManager = cacheManager;
+    this.fanOutTimer =
+        Timer.builder("crm.client_summary.fanout")
+            .description("Latency of copying a client summary to its contracts")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.failures = meterRegistry.counter("crm.client_summary.fanout.failures");
+  }
+
+  /**
+   * Starts the copy of {@code client}'s summary once the current transaction commits, or right away
+   * outside of one. Completes without waiting for the copy, which stays in the caller's trace.
+   */
+  public Mono<Void> afterCommit(Client client) {
+    return Mono.deferContextual(
+        context ->
+            AfterCommit.run(
+                () ->
+                    fanOut(
+                        client, context.getOrDefault(ObservationThreadLocalAccessor.KEY, null))));
+  }
+
+  /**
+   * Sets {@code summary} on the client's contracts, skipping those already holding this version or
+   * a newer one. The contract {@code @Version} is left alone, so an {@code If-Match} read before
+   * the copy still holds; contract updates only set the fields they change and cannot write the old
+   * copy back. Emits the number of contracts updated.
+   */
+  public Mono<Long> propagate(ObjectId clientId, ClientSummary summary) {
+    return mongoTemplate
+        .updateMulti(outdatedContracts(clientId, summary), copy(summary), Contract.class)
+        .map(UpdateResult::getModifiedCount)
+        .doOnNext(
+            updated -> {
+              // a read between the client update and this copy may have cached the old summary
+              Cache contracts = cacheManager.getCache("contracts");
+              if (updated > 0 && contracts != null) contracts.clear();
+            });
+  }
+
+  public static Query outdatedContracts(ObjectId clientId, ClientSummary summary) {
+    return Query.query(
+        where("clientId").is(clientId).and("clientSummary.version").not().gte(summary.version()));
+  }
+
+  public static Update copy(ClientSummary summary) {
+    return new Update().set("clientSummary", summary);
+  }
+
+  /**
+   * Only the caller's observation is carried over, the rest of its context belongs to the
+   * transaction that just committed.
+   */
+  private void fanOut(Client client, Observation parent) {
+    Timer.Sample sample = Timer.start();
+    propagate(client.getId(), ClientSummary.of(client))
+        .contextWrite(
+            context ->
+                parent == null ? context : context.put(ObservationThreadLocalAccessor.KEY, parent))
+        .subscribe(
+            updated -> {
+              sample.stop(fanOutTimer);
+              log.info(
+                  "Client summary copied to {} contracts of client {}", updated, client.getId());
+            },
+            e -> {
+              failures.increment();
+              log.warn(
+                  "Could not copy client summary to contracts of client {} : {}",
+                  client.getId(),
+                  e.getMessage());
+            });
+  }
+}
@@ -0,0 +1,187 @@
+package ch.vaudoise.crm_api.service;
+
+import ch.vaudoise.crm_api.config.ContractHistoryProperties;
+import ch.vaudoise.crm_api.model.entity.ContractHistory;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+public class ContractHistoryRecorder {
+
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ContractHistoryProperties properties;
+  private final BlockingQueue<ContractHistory> queue;
+  private final AtomicBoolean flushing = new AtomicBoolean();
+  private final Timer flushTimer;
+  private final Counter flushFailures;
+  private final Counter overflow;
+  private volatile CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+  private volatile boolean ready;
+  private volatile boolean stopping;
+  private Disposable ticker;
+
+  public ContractHistoryRecorder(
+      final ReactiveMongoTemplate mongoTemplate,
+      final ContractHistoryProperties properties,
+      final MeterRegistry meterRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.properties = properties;
+    this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    Gauge.builder("crm.contract_history.queue.depth", queue, BlockingQueue::size)
+        .description("Contract history entries waiting to be flushed")
+        .register(meterRegistry);
+    this.flushTimer =
+        Timer.builder("crm.contract_history.flush")
+            .description("Latency of contract history batch inserts")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.flushFailures = meterRegistry.counter("crm.contract_history.flush.failures");
+    this.overflow =
+        meterRegistry.counter(
+            "crm.contract_history.overflow", "policy", properties.overflow().name());
+  }
+
+  /**
+   * Entries are only flushed once the time-series collection exists, since the first insert would
+   * otherwise create a plain one; until then they wait in the queue.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    ticker =
+        mongoTemplate
+            .collectionExists(ContractHistory.class)
+            .filter(exists -> !exists)
+            .flatMap(missing -> mongoTemplate.createCollection(ContractHistory.class))
+            .doOnNext(
+                created -> log.info("Created time-series collection {}", created.getNamespace()))
+            .doOnError(
+                e -> log.warn("Could not create contract history collection : {}", e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(MAX_BACKOFF))
+            .doOnSuccess(v -> ready = true)
+            .thenMany(Flux.interval(properties.flushInterval()))
+            .subscribe(tick -> flush());
+  }
+
+  public void record(ContractHistory entry) {
+    if (!queue.offer(entry)) {
+      overflow.increment();
+      if (properties.overflow() == ContractHistoryProperties.Overflow.SPILL) {
+        Mono.fromRunnable(() -> spill(entry)).subscribeOn(Schedulers.boundedElastic()).subscribe();
+      }
+      return;
+    }
+    if (queue.size() >= properties.batchSize()) flush();
+  }
+
+  public void flush() {
+    if (!ready || stopping || queue.isEmpty() || !flushing.compareAndSet(false, true)) return;
+    List<ContractHistory> batch = new ArrayList<>(properties.batchSize());
+    queue.drainTo(batch, properties.batchSize());
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    inFlight = done;
+    Timer.Sample sample = Timer.start();
+    mongoTemplate
+        .insertAll(batch)
+        .then()
+        .onErrorResume(
+            e -> {
+              flushFailures.increment();
+              log.error(
+                  "Failed to flush {} contract history entries : {}", batch.size(), e.getMessage());
+              return Mono.<Void>fromRunnable(() -> batch.forEach(this::spill))
+                  .subscribeOn(Schedulers.boundedElastic());
+            })
+        .doFinally(
+            signal -> {
+              sample.stop(flushTimer);
+              flushing.set(false);
+              done.complete(null);
+              if (queue.size() >= properties.batchSize()) flush();
+            })
+        .subscribe();
+  }
+
+  /**
+   * Waits for a flush already under way, whose batch has left the queue, then writes what is left
+   * in the queue.
+   */
+  @PreDestroy
+  public void stop() {
+    stopping = true;
+    if (ticker != null) ticker.dispose();
+    try {
+      inFlight.get(properties.shutdownTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      log.warn("Contract history flush still running at shutdown : {}", e.getMessage());
+    }
+    List<ContractHistory> remaining = new ArrayList<>(queue.size());
+    queue.drainTo(remaining);
+    if (remaining.isEmpty()) return;
+    if (!ready) {
+      remaining.forEach(this::spill);
+      return;
+    }
+    log.info("Flushing {} contract history entries before shutdown", remaining.size());
+    try {
+      mongoTemplate.insertAll(remaining).then().block(properties.shutdownTimeout());
+    } catch (RuntimeException e) {
+      log.error("Failed to flush contract history on shutdown : {}", e.getMessage());
+      remaining.forEach(this::spill);
+    }
+  }
+
+  private synchronized void spill(ContractHistory entry) {
+    Document document = new Document();
+    mongoTemplate.getConverter().write(entry, document);
+    try {
+      Files.writeString(
+          properties.spillFile(),
+          document.toJson() + System.lineSeparator(),
+          StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      log.error(
+          "Dropped contract history entry for contract {} : {}",
+          entry.getContractId(),
+          e.getMessage());
+    }
+  }
+}
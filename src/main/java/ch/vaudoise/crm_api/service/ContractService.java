@@ -1,18 +1,37 @@
 package ch.vaudoise.crm_api.service;
 
+import static java.util.function.Predicate.not;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import ch.vaudoise.crm_api.model.OutboxEventType;
 import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
 import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
 import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.model.entity.ContractHistory;
+import ch.vaudoise.crm_api.model.exception.DomainException;
 import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.observability.ClientId;
 import ch.vaudoise.crm_api.repository.ClientRepository;
 import ch.vaudoise.crm_api.repository.ContractRepository;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import ch.vaudoise.crm_api.service.outbox.OutboxService;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.observation.annotation.Observed;
 import java.time.Instant;
 import java.time.LocalDate;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 @SuppressFBWarnings(
@@ -20,19 +39,35 @@ import reactor.core.publisher.Mono;
     justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
 @Slf4j
 @Service
+@Observed
 public class ContractService {
 
   private final ClientRepository clientRepository;
   private final ContractRepository contractRepository;
+  private final ContractHistoryRecorder contractHistoryRecorder;
+  private final OutboxService outboxService;
+  private final ReactiveMongoTemplate mongoTemplate;
 
   public ContractService(
-      final ClientRepository clientRepository, final ContractRepository contractRepository) {
+      final ClientRepository clientRepository,
+      final ContractRepository contractRepository,
+      final ContractHistoryRecorder contractHistoryRecorder,
+      final OutboxService outboxService,
+      final ReactiveMongoTemplate mongoTemplate) {
     this.clientRepository = clientRepository;
     this.contractRepository = contractRepository;
+    this.contractHistoryRecorder = contractHistoryRecorder;
+    this.outboxService = outboxService;
+    this.mongoTemplate = mongoTemplate;
   }
 
-  @CacheEvict(value = "contracts", allEntries = true)
-  public Mono<String> create(final String clientId, final CreateContractDTO dto) {
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", key = "#clientId")
+      })
+  public Mono<String> create(@ClientId final String clientId, final CreateContractDTO dto) {
     log.info(
         "Creating new contract for client {} : startDate={}, endDate={}, cost={}",
         clientId,
@@ -50,21 +85,36 @@ public class ContractService {
                       .endDate(dto.endDate())
                       .cost(dto.cost())
                       .clientId(new ObjectId(clientId))
+                      .clientSummary(ClientSummary.of(client))
                       .updatedAt(Instant.now())
                       .build();
               return contractRepository.save(contract);
             })
+        .flatMap(
+            saved ->
+                outboxService
+                    .record(
+                        OutboxEventType.CONTRACT_CREATED, saved.getClientId(), saved.getId(), saved)
+                    .thenReturn(saved))
         .map(contract -> contract.getId().toString())
         .doOnSuccess(
             id -> log.info("Contract successfully created id={} for clientId={}", id, clientId))
         .doOnError(
+            not(DomainException.class::isInstance),
             e ->
                 log.error(
-                    "Failed to create contract for clientId={}: {}", clientId, e.getMessage()));
+                    "Failed to create contract for clientId={}: {}", clientId, e.getMessage()))
+        .contextWrite(ReadConsistency.primary());
   }
 
-  @CacheEvict(value = "contracts", allEntries = true)
-  public Mono<Void> update(final String id, final UpdateContractDTO dto) {
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", allEntries = true)
+      })
+  public Mono<Void> update(
+      final String id, final UpdateContractDTO dto, final Integer expectedVersion) {
     log.info(
         "Updating contract id={} : startDate={}, endDate={}, cost={}",
         id,
@@ -77,25 +127,90 @@ public class ContractService {
         .switchIfEmpty(Mono.error(new NotFoundException("Contract not found: " + id)))
         .flatMap(
             contract -> {
-              Contract.ContractBuilder updateContract = contract.toBuilder();
-              if (dto.startDate() != null) updateContract.startDate(dto.startDate());
-              if (dto.endDate() != null) updateContract.endDate(dto.endDate());
-              if (dto.cost() != null) updateContract.cost(dto.cost());
-              updateContract.updatedAt(Instant.now());
-              return contractRepository.save(updateContract.build());
+              if (expectedVersion != null && !expectedVersion.equals(contract.getVersion())) {
+                return Mono.error(
+                    new PreconditionFailedException(
+                        "Contract " + id + " is at version " + contract.getVersion()));
+              }
+              return mongoTemplate
+                  .findAndModify(
+                      atVersion(contract.getId(), contract.getVersion()),
+                      changes(dto, Instant.now()),
+                      FindAndModifyOptions.options().returnNew(true),
+                      Contract.class)
+                  .switchIfEmpty(
+                      Mono.error(
+                          () ->
+                              expectedVersion == null
+                                  ? new OptimisticLockingFailureException(
+                                      "Contract " + id + " was modified concurrently")
+                                  : new PreconditionFailedException(
+                                      "Contract " + id + " was modified concurrently")))
+                  .flatMap(
+                      saved ->
+                          AfterCommit.run(
+                                  () ->
+                                      ContractHistory.between(contract, saved)
+                                          .ifPresent(contractHistoryRecorder::record))
+                              .thenReturn(saved))
+                  .flatMap(
+                      saved ->
+                          outboxService.record(
+                              OutboxEventType.CONTRACT_UPDATED,
+                              saved.getClientId(),
+                              saved.getId(),
+                              saved));
             })
         .doOnSuccess(v -> log.info("Contract successfully updated: id={}", id))
-        .doOnError(e -> log.error("Error while updating contract {}: {}", id, e.getMessage()))
-        .then();
+        .doOnError(
+            not(DomainException.class::isInstance),
+            e -> log.error("Error while updating contract {}: {}", id, e.getMessage()))
+        .then()
+        .contextWrite(ReadConsistency.primary());
+  }
+
+  /** Matches the contract only while it is still at {@code version}. */
+  public static Query atVersion(ObjectId id, Integer version) {
+    return Query.query(where("id").is(id).and("version").is(version));
   }
 
+  /**
+   * Sets the fields {@code dto} changes and bumps the version. {@code clientSummary} is left to
+   * {@link ClientSummaryFanOut}, so an update cannot write an older copy back over a newer one.
+   */
+  public static Update changes(UpdateContractDTO dto, Instant updatedAt) {
+    Update update = new Update().set("updatedAt", updatedAt).inc("version", 1);
+    if (dto.startDate() != null) update.set("startDate", dto.startDate());
+    if (dto.endDate() != null) update.set("endDate", dto.endDate());
+    if (dto.cost() != null) update.set("cost", dto.cost());
+    return update;
+  }
+
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", allEntries = true)
+      })
   public Mono<Void> delete(final String id) {
     log.info("Deleting contract: id={}", id);
     return contractRepository
         .findById(new ObjectId(id))
         .switchIfEmpty(Mono.error(new NotFoundException("Contract not found: " + id)))
-        .flatMap(contractRepository::delete)
+        .flatMap(
+            contract ->
+                contractRepository
+                    .delete(contract)
+                    .then(
+                        outboxService.record(
+                            OutboxEventType.CONTRACT_DELETED,
+                            contract.getClientId(),
+                            contract.getId(),
+                            null)))
         .doOnSuccess(v -> log.info("Contract successfully deleted: id={}", id))
-        .doOnError(e -> log.error("Error while deleting contract {}: {}", id, e.getMessage(), e));
+        .doOnError(
+            not(DomainException.class::isInstance),
+            e -> log.error("Error while deleting contract {}: {}", id, e.getMessage(), e))
+        .contextWrite(ReadConsistency.primary());
   }
 }
@@ -0,0 +1,159 @@
+package ch.vaudoise.crm_api.service;
+
+import ch.vaudoise.crm_api.config.IdempotencyProperties;
+import ch.vaudoise.crm_api.model.entity.IdempotencyRecord;
+import ch.vaudoise.crm_api.model.exception.ConflictException;
+import ch.vaudoise.crm_api.repository.Deadline;
+import ch.vaudoise.crm_api.repository.IdempotencyRecordRepository;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Replays the result of a create request retried with the same {@code Idempotency-Key}. Completed
+ * results are kept in a Caffeine front cache backed by the {@code idempotency_keys} collection;
+ * duplicates arriving while the first request is still running on this instance wait for it, and
+ * those reaching another instance get a 409.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Service
+public class IdempotencyService {
+
+  public static final String HEADER = "Idempotency-Key";
+
+  private static final int SAVE_RETRIES = 3;
+  private static final Duration SAVE_BACKOFF = Duration.ofMillis(100);
+
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final IdempotencyProperties properties;
+  private final AsyncCache<String, IdempotencyRecord> records;
+
+  public IdempotencyService(
+      final IdempotencyRecordRepository idempotencyRecordRepository,
+      final IdempotencyProperties properties) {
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.properties = properties;
+    this.records =
+        Caffeine.newBuilder()
+            .maximumSize(properties.cacheSize())
+            .expireAfterWrite(properties.ttl())
+            .buildAsync();
+  }
+
+  public Mono<String> execute(
+      String scope, String key, Object request, Supplier<Mono<String>> action) {
+    if (key.isBlank() || key.length() > properties.maxKeyLength()) {
+      return Mono.error(
+          new IllegalArgumentException(
+              HEADER + " must be between 1 and " + properties.maxKeyLength() + " characters"));
+    }
+    String id = scope + ':' + key;
+    String fingerprint = fingerprint(request);
+    // the first caller's resolution is shared with the duplicates waiting on it: it runs with that
+    // caller's context and is not cancelled when one of them goes away, so the result is always
+    // recorded, and a failure of the action removes both the cache entry and the reservation
+    return Mono.deferContextual(
+            context ->
+                Mono.fromFuture(
+                    () ->
+                        records.get(
+                            id,
+                            (k, executor) ->
+                                resolve(k, fingerprint, action).contextWrite(context).toFuture()),
+                    true))
+        .flatMap(
+            record ->
+                fingerprint.equals(record.getFingerprint())
+                    ? Mono.just(record.getResult())
+                    : Mono.error(
+                        new IllegalArgumentException(
+                            HEADER + " " + key + " was already used for a different request")));
+  }
+
+  private Mono<IdempotencyRecord> resolve(
+      String id, String fingerprint, Supplier<Mono<String>> action) {
+    Instant now = Instant.now();
+    IdempotencyRecord reservation =
+        IdempotencyRecord.builder()
+            .id(id)
+            .fingerprint(fingerprint)
+            .createdAt(now)
+            .expiresAt(now.plus(properties.ttl()))
+            .build();
+    return idempotencyRecordRepository
+        .insert(reservation)
+        .map(reserved -> true)
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false))
+        .flatMap(reserved -> reserved ? run(reservation, action) : replay(id, fingerprint));
+  }
+
+  private Mono<IdempotencyRecord> run(
+      IdempotencyRecord reservation, Supplier<Mono<String>> action) {
+    return action
+        .get()
+        .onErrorResume(
+            e ->
+                idempotencyRecordRepository
+                    .deleteById(reservation.getId())
+                    .then(Mono.<String>error(e)))
+        .flatMap(result -> complete(reservation.toBuilder().result(result).build()));
+  }
+
+  // once the action has run, releasing the key would let a retry run it again: the result is
+  // written past the request deadline and retried, and if it still cannot be written the
+  // reservation stays, answering retries reaching other instances with a 409 until it expires
+  private Mono<IdempotencyRecord> complete(IdempotencyRecord record) {
+    return idempotencyRecordRepository
+        .save(record)
+        .retryWhen(Retry.backoff(SAVE_RETRIES, SAVE_BACKOFF))
+        .onErrorResume(
+            e -> {
+              log.error(
+                  "Could not record the result of idempotent request {}: {}",
+                  record.getId(),
+                  e.getMessage(),
+                  e);
+              return Mono.just(record);
+            })
+        .contextWrite(context -> context.delete(Deadline.CONTEXT_KEY));
+  }
+
+  private Mono<IdempotencyRecord> replay(String id, String fingerprint) {
+    log.info("Replaying idempotent request {}", id);
+    return idempotencyRecordRepository
+        .findById(id)
+        .filter(
+            record -> record.getResult() != null || !fingerprint.equals(record.getFingerprint()))
+        .switchIfEmpty(
+            Mono.error(
+                new ConflictException("A request with the same " + HEADER + " is in progress")))
+        .contextWrite(ReadConsistency.primary());
+  }
+
+  static String fingerprint(Object request) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256")
+                  .digest(String.valueOf(request).getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package ch.vaudoise.crm_api.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Named leases in the {@value #COLLECTION} collection, so a background job runs on one instance at
+ * a time. The holder renews its lease on every run; another instance takes it over once it was not
+ * renewed for its time to live. Instance clocks are trusted to be roughly in sync.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+public class LeaseService {
+
+  static final String COLLECTION = "leases";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final String owner =
+      ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+  public LeaseService(final ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Takes or renews the lease {@code name} for {@code ttl}. Emits {@code false} when another
+   * instance holds it, or when MongoDB could not be reached.
+   */
+  public Mono<Boolean> acquire(String name, Duration ttl) {
+    return Mono.defer(
+            () -> {
+              Instant now = Instant.now();
+              Query held =
+                  Query.query(
+                      where("_id")
+                          .is(name)
+                          .orOperator(where("owner").is(owner), where("expiresAt").lt(now)));
+              Update take = new Update().set("owner", owner).set("expiresAt", now.plus(ttl));
+              // held by another instance: the upsert inserts a second document with the same _id
+              return mongoTemplate.upsert(held, take, COLLECTION).thenReturn(true);
+            })
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false))
+        .onErrorResume(
+            e -> {
+              log.warn("Could not acquire lease {} : {}", name, e.getMessage());
+              return Mono.just(false);
+            });
+  }
+}
@@ -0,0 +1,59 @@
+package ch.vaudoise.crm_api.service.outbox;
+
+import ch.vaudoise.crm_api.config.OutboxProperties;
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Component
+@ConditionalOnProperty(prefix = "crm.outbox", name = "sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+  private final Path file;
+  private final MongoConverter mongoConverter;
+
+  public FileOutboxSink(final OutboxProperties properties, final MongoConverter mongoConverter) {
+    this.file = properties.file();
+    this.mongoConverter = mongoConverter;
+  }
+
+  @Override
+  public Mono<Void> publish(List<OutboxEvent> batch) {
+    return Mono.<Void>fromRunnable(() -> append(batch)).subscribeOn(Schedulers.boundedElastic());
+  }
+
+  private synchronized void append(List<OutboxEvent> batch) {
+    String lines =
+        batch.stream()
+            .map(
+                event -> {
+                  Document document = new Document();
+                  mongoConverter.write(event, document);
+                  document.remove("_class");
+                  return document.toJson() + System.lineSeparator();
+                })
+            .collect(Collectors.joining());
+    try {
+      Files.writeString(
+          file,
+          lines,
+          StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package ch.vaudoise.crm_api.service.outbox;
+
+import ch.vaudoise.crm_api.config.OutboxProperties;
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(
+    prefix = "crm.outbox",
+    name = "sink",
+    havingValue = "memory",
+    matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+
+  private final Deque<OutboxEvent> events = new ArrayDeque<>();
+  private final int capacity;
+
+  public InMemoryOutboxSink(final OutboxProperties properties) {
+    this.capacity = properties.memoryCapacity();
+  }
+
+  @Override
+  public Mono<Void> publish(List<OutboxEvent> batch) {
+    return Mono.fromRunnable(
+        () -> {
+          synchronized (events) {
+            events.addAll(batch);
+            while (events.size() > capacity) events.removeFirst();
+          }
+        });
+  }
+
+  public List<OutboxEvent> events() {
+    synchronized (events) {
+      return List.copyOf(events);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package ch.vaudoise.crm_api.service.outbox;
+
+import ch.vaudoise.crm_api.config.OutboxProperties;
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import ch.vaudoise.crm_api.repository.OutboxEventRepository;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import ch.vaudoise.crm_api.service.LeaseService;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Polls pending outbox events and hands them to the configured {@link OutboxSink}, each client's
+ * events in the order of the sequence assigned when they were written. A batch is only marked as
+ * published once the sink has accepted it, which gives at-least-once delivery.
+ *
+ * <p>Every instance runs the relay but only the holder of the {@value #LEASE} lease polls, so the
+ * per-client order holds with several instances. Batches walk the pending events by ordering key
+ * and start over once the end is reached, so a busy client does not hold back the others.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "crm.outbox", name = "relay-enabled", matchIfMissing = true)
+public class OutboxRelay {
+
+  static final String LEASE = "outbox-relay";
+  private static final ObjectId FIRST_KEY = new ObjectId(new byte[12]);
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final OutboxSink outboxSink;
+  private final LeaseService leaseService;
+  private final OutboxProperties properties;
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicLong lagMillis = new AtomicLong();
+  private final Timer publishTimer;
+  private final Counter published;
+  private final Counter failures;
+  private ObjectId nextKey = FIRST_KEY;
+  private Disposable ticker;
+
+  public OutboxRelay(
+      final OutboxEventRepository outboxEventRepository,
+      final OutboxSink outboxSink,
+      final LeaseService leaseService,
+      final OutboxProperties properties,
+      final MeterRegistry meterRegistry) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.outboxSink = outboxSink;
+    this.leaseService = leaseService;
+    this.properties = properties;
+    Gauge.builder("crm.outbox.pending", pending, AtomicLong::get)
+        .description("Outbox events not yet published")
+        .register(meterRegistry);
+    Gauge.builder("crm.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+        .description("Age of the oldest unpublished outbox event")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    this.publishTimer =
+        Timer.builder("crm.outbox.publish")
+            .description("Latency of publishing and acknowledging an outbox batch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.published = meterRegistry.counter("crm.outbox.published");
+    this.failures = meterRegistry.counter("crm.outbox.publish.failures");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    ticker =
+        Flux.interval(properties.pollInterval())
+            .onBackpressureDrop()
+            .concatMap(tick -> relayIfLeader(), 1)
+            .subscribe();
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (ticker != null) ticker.dispose();
+  }
+
+  public Mono<Void> relayIfLeader() {
+    return leaseService
+        .acquire(LEASE, properties.leaseTtl())
+        .filter(Boolean::booleanValue)
+        .flatMap(held -> relay());
+  }
+
+  public Mono<Void> relay() {
+    return outboxEventRepository
+        .findPending(nextKey, Limit.of(properties.batchSize()))
+        .collectList()
+        .doOnNext(
+            batch ->
+                nextKey =
+                    batch.size() < properties.batchSize()
+                        ? FIRST_KEY
+                        : batch.getLast().getOrderingKey())
+        .flatMap(this::publish)
+        .then(Mono.defer(outboxEventRepository::countByPublishedAtIsNull))
+        .doOnNext(pending::set)
+        .then()
+        .contextWrite(ReadConsistency.primary())
+        .onErrorResume(
+            e -> {
+              failures.increment();
+              log.warn("Outbox relay failed, batch will be retried : {}", e.getMessage());
+              return Mono.empty();
+            });
+  }
+
+  private Mono<Void> publish(List<OutboxEvent> batch) {
+    if (batch.isEmpty()) {
+      lagMillis.set(0);
+      return Mono.empty();
+    }
+    Instant oldest =
+        batch.stream().map(OutboxEvent::getCreatedAt).min(Comparator.naturalOrder()).orElseThrow();
+    lagMillis.set(Math.max(0, Duration.between(oldest, Instant.now()).toMillis()));
+    Timer.Sample sample = Timer.start();
+    return outboxSink
+        .publish(batch)
+        .then(
+            Mono.defer(
+                () ->
+                    outboxEventRepository.markPublished(
+                        batch.stream().map(OutboxEvent::getId).toList(), Instant.now())))
+        .doOnSuccess(
+            v -> {
+              sample.stop(publishTimer);
+              published.increment(batch.size());
+            });
+  }
+}
@@ -0,0 +1,88 @@
+package ch.vaudoise.crm_api.service.outbox;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import ch.vaudoise.crm_api.repository.OutboxEventRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Instant;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes outbox events in the caller's transaction. Each event takes the next sequence of its
+ * ordering key from {@value OutboxEvent#SEQUENCES}; the counter document stays locked until the
+ * transaction ends, so two transactions writing events for the same client commit in sequence
+ * order, the later one being retried on its write conflict.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Service
+public class OutboxService {
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final MongoConverter mongoConverter;
+
+  public OutboxService(
+      final OutboxEventRepository outboxEventRepository,
+      final ReactiveMongoTemplate mongoTemplate,
+      final MongoConverter mongoConverter) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.mongoConverter = mongoConverter;
+  }
+
+  public Mono<Void> record(
+      OutboxEventType type, ObjectId clientId, ObjectId aggregateId, Object payload) {
+    ObjectId orderingKey = OutboxEvent.orderingKey(clientId, aggregateId);
+    return Mono.defer(
+        () -> {
+          Document document = new Document();
+          if (payload != null) mongoConverter.write(payload, document);
+          document.remove("_class");
+          return nextSequence(orderingKey)
+              .flatMap(
+                  sequence ->
+                      outboxEventRepository.save(
+                          OutboxEvent.builder()
+                              .type(type)
+                              .clientId(clientId)
+                              .aggregateId(aggregateId)
+                              .orderingKey(orderingKey)
+                              .sequence(sequence)
+                              .payload(document)
+                              .createdAt(Instant.now())
+                              .build()))
+              .then();
+        });
+  }
+
+  private Mono<Long> nextSequence(ObjectId orderingKey) {
+    return mongoTemplate
+        .findAndModify(
+            nextSequenceQuery(orderingKey),
+            nextSequenceUpdate(),
+            FindAndModifyOptions.options().returnNew(true).upsert(true),
+            Document.class,
+            OutboxEvent.SEQUENCES)
+        .map(counter -> counter.get("value", Number.class).longValue());
+  }
+
+  public static Query nextSequenceQuery(ObjectId orderingKey) {
+    return Query.query(where("_id").is(orderingKey));
+  }
+
+  public static Update nextSequenceUpdate() {
+    return new Update().inc("value", 1L);
+  }
+}
@@ -0,0 +1,15 @@
+package ch.vaudoise.crm_api.service.outbox;
+
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+/**
+ * Destination of relayed outbox events. Batches are handed over in creation order and only
+ * acknowledged once the returned {@link Mono} completes, so a failing sink receives the same batch
+ * again on the next poll.
+ */
+public interface OutboxSink {
+
+  Mono<Void> publish(List<OutboxEvent> batch);
+}
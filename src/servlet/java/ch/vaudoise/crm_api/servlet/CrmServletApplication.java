@@ -0,0 +1,40 @@
+package ch.vaudoise.crm_api.servlet;
+
+import ch.vaudoise.crm_api.api.json.Decimal128JsonComponent;
+import ch.vaudoise.crm_api.config.CacheConfig;
+import ch.vaudoise.crm_api.config.JacksonConfig;
+import ch.vaudoise.crm_api.config.OutboxProperties;
+import ch.vaudoise.crm_api.config.ReadPreferenceProperties;
+import ch.vaudoise.crm_api.model.entity.Client;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Spring MVC on virtual threads with the synchronous MongoDB driver, serving the same {@code
+ * /api/clients} and {@code /api/contracts} contract as the WebFlux application so both stacks can
+ * be load tested against each other. Built with the {@code servlet} Maven profile, which also makes
+ * it the jar main class.
+ *
+ * <p>Only {@code ch.vaudoise.crm_api.servlet} is scanned; entities, DTOs, validation, JSON and
+ * caches are shared with the WebFlux application. Every bean here is limited to the {@value
+ * #PROFILE} profile so the WebFlux application, which scans this package too, ignores them.
+ */
+@Profile(CrmServletApplication.PROFILE)
+@SpringBootApplication
+@EntityScan(basePackageClasses = Client.class)
+@EnableConfigurationProperties({ReadPreferenceProperties.class, OutboxProperties.class})
+@Import({Decimal128JsonComponent.class, JacksonConfig.class, CacheConfig.class})
+public class CrmServletApplication {
+
+  public static final String PROFILE = "servlet";
+
+  public static void main(final String[] args) {
+    SpringApplication application = new SpringApplication(CrmServletApplication.class);
+    application.setAdditionalProfiles(PROFILE);
+    application.run(args);
+  }
+}
@@ -0,0 +1,161 @@
+package ch.vaudoise.crm_api.servlet.api;
+
+import static ch.vaudoise.crm_api.api.GlobalExceptionHandler.findCause;
+import static ch.vaudoise.crm_api.api.GlobalExceptionHandler.malformedFieldMessage;
+
+import ch.vaudoise.crm_api.api.ClientErrorLog;
+import ch.vaudoise.crm_api.model.exception.ApiErrorResponse;
+import ch.vaudoise.crm_api.model.exception.ConflictException;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolationException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+
+/**
+ * {@code GlobalExceptionHandler} for Spring MVC: same statuses and {@link ApiErrorResponse} bodies,
+ * mapped from the servlet flavour of the framework exceptions. Ordered first so it wins over the
+ * error handling starter's advice.
+ */
+@Slf4j
+@Profile(CrmServletApplication.PROFILE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RestControllerAdvice
+public class ServletExceptionHandler {
+
+  private final ClientErrorLog clientErrors = new ClientErrorLog(log, Duration.ofSeconds(10));
+
+  @ExceptionHandler({NoResourceFoundException.class, NotFoundException.class})
+  public ResponseEntity<ApiErrorResponse> handle404NotFound(
+      Exception ex, HttpServletRequest request) {
+    clientErrors.warn("Resource not found", ex.getMessage());
+    return error(HttpStatus.NOT_FOUND, ex.getMessage(), request);
+  }
+
+  @ExceptionHandler(ConflictException.class)
+  public ResponseEntity<ApiErrorResponse> handle409Conflict(
+      ConflictException ex, HttpServletRequest request) {
+    clientErrors.warn("Conflict", ex.getMessage());
+    return error(HttpStatus.CONFLICT, ex.getMessage(), request);
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<ApiErrorResponse> handle412PreconditionFailed(
+      PreconditionFailedException ex, HttpServletRequest request) {
+    clientErrors.warn("Precondition failed", ex.getMessage());
+    return error(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), request);
+  }
+
+  @ExceptionHandler(QueryTimeoutException.class)
+  public ResponseEntity<ApiErrorResponse> handle504GatewayTimeout(
+      QueryTimeoutException ex, HttpServletRequest request) {
+    clientErrors.warn("Deadline exceeded", ex.getMessage());
+    return error(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage(), request);
+  }
+
+  @ExceptionHandler({IllegalArgumentException.class, IllegalStateException.class})
+  public ResponseEntity<ApiErrorResponse> handle400BadRequest(
+      RuntimeException ex, HttpServletRequest request) {
+    clientErrors.warn("Bad request", ex.getMessage());
+    return error(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+  }
+
+  @ExceptionHandler(DuplicateKeyException.class)
+  public ResponseEntity<ApiErrorResponse> handleDuplicateKey(
+      DuplicateKeyException ex, HttpServletRequest request) {
+    clientErrors.warn("Duplicate key exception", ex.getMessage());
+    return error(
+        HttpStatus.BAD_REQUEST,
+        "Duplicate key when creating resource : " + ex.getMessage(),
+        request);
+  }
+
+  @ExceptionHandler(MethodArgumentNotValidException.class)
+  public ResponseEntity<ApiErrorResponse> handleValidation(
+      MethodArgumentNotValidException ex, HttpServletRequest request) {
+    String details =
+        ex.getFieldErrors().stream()
+            .map(err -> err.getField() + ": " + err.getDefaultMessage())
+            .collect(Collectors.joining(", "));
+    clientErrors.warn("Validation failed", ex.getMessage());
+    return error(HttpStatus.BAD_REQUEST, "Validation failed: " + details, request);
+  }
+
+  @ExceptionHandler(ConstraintViolationException.class)
+  public ResponseEntity<ApiErrorResponse> handleConstraintViolation(
+      ConstraintViolationException ex, HttpServletRequest request) {
+    String details =
+        ex.getConstraintViolations().stream()
+            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+            .collect(Collectors.joining(", "));
+    clientErrors.warn("Constraint violation", ex.getMessage());
+    return error(HttpStatus.BAD_REQUEST, "Constraint violation: " + details, request);
+  }
+
+  /** What WebFlux reports as a single {@code ServerWebInputException}. */
+  @ExceptionHandler({
+    HttpMessageNotReadableException.class,
+    TypeMismatchException.class,
+    ServletRequestBindingException.class
+  })
+  public ResponseEntity<ApiErrorResponse> handleMalformedInput(
+      Exception ex, HttpServletRequest request) {
+    InvalidFormatException invalidFmt = findCause(ex, InvalidFormatException.class);
+    if (invalidFmt != null) {
+      String message = malformedFieldMessage(invalidFmt);
+      clientErrors.warn("Malformed request", message);
+      return error(HttpStatus.BAD_REQUEST, "Malformed request: " + message, request);
+    }
+
+    if (findCause(ex, DateTimeParseException.class) != null) {
+      clientErrors.warn("Malformed date — expected format 'yyyy-MM-dd'", ex.getMessage());
+      return error(
+          HttpStatus.BAD_REQUEST, "Malformed date — expected format 'yyyy-MM-dd'.", request);
+    }
+
+    clientErrors.warn("Malformed field — check request body formatting", ex.getMessage());
+    return error(
+        HttpStatus.BAD_REQUEST, "Malformed field — check request body formatting.", request);
+  }
+
+  @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
+  public ResponseEntity<ApiErrorResponse> handleMethodNotAllowed(
+      HttpRequestMethodNotSupportedException ex, HttpServletRequest request) {
+    clientErrors.warn("Method Not Allowed", ex.getMessage());
+    return error(HttpStatus.METHOD_NOT_ALLOWED, ex.getMessage(), request);
+  }
+
+  @ExceptionHandler(Exception.class)
+  public ResponseEntity<ApiErrorResponse> handleUnexpected(
+      Exception ex, HttpServletRequest request) {
+    log.error("Unexpected server error", ex);
+    return error(
+        HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected server error: " + ex.getMessage(), request);
+  }
+
+  private static ResponseEntity<ApiErrorResponse> error(
+      HttpStatus status, String message, HttpServletRequest request) {
+    return ResponseEntity.status(status)
+        .body(ApiErrorResponse.of(status, message, request.getRequestURI()));
+  }
+}
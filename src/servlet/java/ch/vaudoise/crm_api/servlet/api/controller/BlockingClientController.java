@@ -0,0 +1,108 @@
+package ch.vaudoise.crm_api.servlet.api.controller;
+
+import ch.vaudoise.crm_api.api.ApiMediaTypes;
+import ch.vaudoise.crm_api.api.ETags;
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
+import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import ch.vaudoise.crm_api.service.IdempotencyService;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import ch.vaudoise.crm_api.servlet.service.BlockingClientService;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/** {@code ClientController} on Spring MVC; the API documentation lives there. */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Profile(CrmServletApplication.PROFILE)
+@RestController
+@Validated
+@RequestMapping(
+    value = "/api/clients",
+    produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      ApiMediaTypes.APPLICATION_SMILE_VALUE
+    })
+public class BlockingClientController {
+
+  private static final int MAX_LOOKUP_IDS = 1000;
+
+  private final BlockingClientService clientService;
+
+  public BlockingClientController(BlockingClientService clientService) {
+    this.clientService = clientService;
+  }
+
+  @GetMapping(params = "ids")
+  public List<ClientLookupDTO> getClients(
+      @RequestParam @Size(min = 1, max = MAX_LOOKUP_IDS) final List<String> ids) {
+    return clientService.findAllById(ids);
+  }
+
+  @PostMapping("/lookup")
+  public List<ClientLookupDTO> lookupClients(
+      @RequestBody @Size(min = 1, max = MAX_LOOKUP_IDS) final List<String> ids) {
+    return clientService.findAllById(ids);
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<ResponseClientDTO> getClient(@PathVariable final String id) {
+    ResponseClientDTO client = clientService.findById(id);
+    return ResponseEntity.ok().eTag(ETags.of(client.version())).body(client);
+  }
+
+  @GetMapping("/{id}/contracts")
+  public ResponseEntity<List<ResponseContractDTO>> getAllContracts(
+      @PathVariable final String id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    List<ResponseContractDTO> contracts = clientService.getAllActiveContracts(id, from, to);
+    return ResponseEntity.ok().eTag(ETags.ofContracts(contracts)).body(contracts);
+  }
+
+  @GetMapping("/{id}/contracts/total")
+  public Decimal128 getAllContractsTotalSum(@PathVariable final String id) {
+    return clientService.getAllActiveContractsTotalSum(id);
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public String createClient(
+      @RequestHeader(value = IdempotencyService.HEADER, required = false)
+          final String idempotencyKey,
+      @RequestBody @Valid final CreateClientDTO client) {
+    IdempotencyKeys.reject(idempotencyKey);
+    return clientService.create(client);
+  }
+
+  @PutMapping("/{id}")
+  @ResponseStatus(HttpStatus.OK)
+  public void updateClient(
+      @PathVariable final String id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+      @RequestBody @Valid final UpdateClientDTO client) {
+    clientService.update(id, client, ETags.expectedVersion(ifMatch));
+  }
+
+  @DeleteMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void deleteClient(@PathVariable final String id) {
+    clientService.delete(id);
+  }
+}
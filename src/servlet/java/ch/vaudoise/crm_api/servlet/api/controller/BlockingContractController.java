@@ -0,0 +1,67 @@
+package ch.vaudoise.crm_api.servlet.api.controller;
+
+import ch.vaudoise.crm_api.api.ApiMediaTypes;
+import ch.vaudoise.crm_api.api.ETags;
+import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
+import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
+import ch.vaudoise.crm_api.service.IdempotencyService;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import ch.vaudoise.crm_api.servlet.service.BlockingContractService;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/** {@code ContractController} on Spring MVC; the API documentation lives there. */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Profile(CrmServletApplication.PROFILE)
+@RestController
+@Validated
+@RequestMapping(
+    value = "/api/contracts",
+    produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      ApiMediaTypes.APPLICATION_SMILE_VALUE
+    })
+public class BlockingContractController {
+
+  private final BlockingContractService contractService;
+
+  public BlockingContractController(final BlockingContractService contractService) {
+    this.contractService = contractService;
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public String createContract(
+      @RequestHeader(value = IdempotencyService.HEADER, required = false)
+          final String idempotencyKey,
+      @RequestParam @NotBlank final String clientId,
+      @RequestBody @Valid final CreateContractDTO contract) {
+    IdempotencyKeys.reject(idempotencyKey);
+    return contractService.create(clientId, contract);
+  }
+
+  @PutMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void updateContract(
+      @PathVariable final String id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+      @RequestBody @Valid final UpdateContractDTO contract) {
+    contractService.update(id, contract, ETags.expectedVersion(ifMatch));
+  }
+
+  @DeleteMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void deleteContract(@PathVariable final String id) {
+    contractService.delete(id);
+  }
+}
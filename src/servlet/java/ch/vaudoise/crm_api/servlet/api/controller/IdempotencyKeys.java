@@ -0,0 +1,19 @@
+package ch.vaudoise.crm_api.servlet.api.controller;
+
+import ch.vaudoise.crm_api.service.IdempotencyService;
+
+/**
+ * Servlet mode does not replay creates. A client sending an {@value IdempotencyService#HEADER}
+ * relies on its retries being safe, so the request is refused rather than run without it.
+ */
+final class IdempotencyKeys {
+
+  private IdempotencyKeys() {}
+
+  static void reject(final String key) {
+    if (key != null) {
+      throw new IllegalArgumentException(
+          IdempotencyService.HEADER + " is not supported by this instance (servlet mode)");
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package ch.vaudoise.crm_api.servlet.config;
+
+import ch.vaudoise.crm_api.config.ReadPreferenceProperties;
+import ch.vaudoise.crm_api.config.TransientTransactionRetryInterceptor;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import com.mongodb.ReadPreference;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.mapping.event.ValidatingEntityCallback;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * Blocking counterpart of {@code MongoConfig}: same auditing, entity validation, read preference,
+ * transaction options and transient transaction retries. Reads outside a transaction use the
+ * configured read preference, reads inside one go to the primary.
+ */
+@Profile(CrmServletApplication.PROFILE)
+@Configuration
+@EnableMongoRepositories("ch.vaudoise.crm_api.servlet.repository")
+@EnableMongoAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class ServletMongoConfig {
+  @Bean(name = "auditingDateTimeProvider")
+  public DateTimeProvider dateTimeProvider() {
+    return () -> Optional.of(OffsetDateTime.now());
+  }
+
+  @Bean
+  public ValidatingEntityCallback validatingEntityCallback(
+      final LocalValidatorFactoryBean factory) {
+    return new ValidatingEntityCallback(factory);
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer readPreferenceCustomizer(
+      final ReadPreferenceProperties properties) {
+    return settings -> settings.readPreference(properties.toReadPreference());
+  }
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  public static Advisor transientTransactionRetryAdvisor() {
+    return TransientTransactionRetryInterceptor.advisor();
+  }
+
+  @Bean
+  public MongoTransactionManager transactionManager(final MongoDatabaseFactory factory) {
+    return new MongoTransactionManager(
+        factory,
+        TransactionOptions.builder()
+            .readPreference(ReadPreference.primary())
+            .writeConcern(WriteConcern.MAJORITY)
+            .build());
+  }
+}
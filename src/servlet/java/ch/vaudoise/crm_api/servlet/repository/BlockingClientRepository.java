@@ -0,0 +1,12 @@
+package ch.vaudoise.crm_api.servlet.repository;
+
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Profile(CrmServletApplication.PROFILE)
+@Repository
+public interface BlockingClientRepository extends MongoRepository<Client, ObjectId> {}
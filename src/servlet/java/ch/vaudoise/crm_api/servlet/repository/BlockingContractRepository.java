@@ -0,0 +1,48 @@
+package ch.vaudoise.crm_api.servlet.repository;
+
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+/** Same queries as {@code ContractRepository}, blocking. */
+@Profile(CrmServletApplication.PROFILE)
+@Repository
+public interface BlockingContractRepository extends MongoRepository<Contract, ObjectId> {
+
+  List<Contract> findByClientIdAndEndDateGreaterThanEqual(ObjectId clientId, LocalDate date);
+
+  List<Contract> findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtGreaterThanEqual(
+      ObjectId clientId, LocalDate endDate, Instant from);
+
+  List<Contract> findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtLessThanEqual(
+      ObjectId clientId, LocalDate endDate, Instant to);
+
+  List<Contract> findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtBetween(
+      ObjectId clientId, LocalDate endDate, Instant from, Instant to);
+
+  @Query("{'clientId': ?0}")
+  @Update("{ '$set' : { 'endDate' : ?1 } }")
+  void setEndDateByClientId(ObjectId clientId, LocalDate date);
+
+  @Query("{ 'clientId' : ?0 }")
+  @Update("{ '$set' : { 'clientId' : null, 'clientSummary' : null } }")
+  void unsetClientIdByClientId(ObjectId clientId);
+
+  @Aggregation(
+      pipeline = {
+        "{ $match: { clientId: ?0, endDate: { $gte: ?1 } } }",
+        "{ $group: { _id: null, totalCost: { $sum: '$cost' } } }",
+        "{ $set: { totalCost: { $convert: { input: '$totalCost', to: 'decimal' } } } }",
+      })
+  Decimal128 sumActiveContractTotalCostByClientId(ObjectId clientId, LocalDate date);
+}
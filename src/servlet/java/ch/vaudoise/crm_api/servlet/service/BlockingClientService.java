@@ -0,0 +1,248 @@
+package ch.vaudoise.crm_api.servlet.service;
+
+import static java.time.ZoneOffset.UTC;
+
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
+import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
+import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import ch.vaudoise.crm_api.servlet.repository.BlockingClientRepository;
+import ch.vaudoise.crm_api.servlet.repository.BlockingContractRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Blocking {@code ClientService}, same rules, caches and outbox events. */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Profile(CrmServletApplication.PROFILE)
+@Service
+public class BlockingClientService {
+
+  private final BlockingClientRepository clientRepository;
+  private final BlockingContractRepository contractRepository;
+  private final BlockingOutboxService outboxService;
+  private final BlockingClientSummaryFanOut clientSummaryFanOut;
+  private final CacheManager cacheManager;
+
+  public BlockingClientService(
+      BlockingClientRepository clientRepository,
+      BlockingContractRepository contractRepository,
+      BlockingOutboxService outboxService,
+      BlockingClientSummaryFanOut clientSummaryFanOut,
+      CacheManager cacheManager) {
+    this.clientRepository = clientRepository;
+    this.contractRepository = contractRepository;
+    this.outboxService = outboxService;
+    this.clientSummaryFanOut = clientSummaryFanOut;
+    this.cacheManager = cacheManager;
+  }
+
+  @Cacheable(value = "clients", key = "#id")
+  public ResponseClientDTO findById(String id) {
+    log.info("Fetching single client id={}", id);
+    return find(id).toDTO();
+  }
+
+  /**
+   * Resolves several clients at once: hits from the {@code clients} cache, misses with a single
+   * {@code $in} query written back to it. Results keep the request order.
+   */
+  public List<ClientLookupDTO> findAllById(List<String> ids) {
+    List<String> distinct = ids.stream().distinct().toList();
+    for (String id : distinct) {
+      if (!ObjectId.isValid(id)) throw new IllegalArgumentException("Invalid client id: " + id);
+    }
+    log.info("Fetching {} clients by id", distinct.size());
+
+    Cache cache = cacheManager.getCache("clients");
+    Map<String, ResponseClientDTO> found = new HashMap<>();
+    List<ObjectId> missing = new ArrayList<>();
+    for (String id : distinct) {
+      ResponseClientDTO cached = cache == null ? null : cache.get(id, ResponseClientDTO.class);
+      if (cached != null) found.put(id, cached);
+      else missing.add(new ObjectId(id));
+    }
+    if (!missing.isEmpty()) {
+      log.info("Loading {} clients missing from cache", missing.size());
+      for (Client client : clientRepository.findAllById(missing)) {
+        ResponseClientDTO dto = client.toDTO();
+        found.put(client.getId().toString(), dto);
+        if (cache != null) cache.put(client.getId().toString(), dto);
+      }
+    }
+    return ids.stream().map(id -> ClientLookupDTO.of(id, found.get(id))).toList();
+  }
+
+  @Cacheable(
+      value = "contracts",
+      key =
+          "#id + '_' + (#from != null ? #from.toString() : 'null') + '_' + (#to != null ? #to.toString() : 'null')")
+  public List<ResponseContractDTO> getAllActiveContracts(String id, LocalDate from, LocalDate to) {
+    ObjectId objectId = new ObjectId(id);
+    Instant fromInstant = from == null ? null : from.atStartOfDay().toInstant(UTC);
+    Instant toInstant =
+        to == null ? null : to.plusDays(1).atStartOfDay(UTC).toInstant().minusSeconds(1);
+    log.info(
+        "Fetching all active contracts for client: id={}, from={}, to={}",
+        id,
+        fromInstant,
+        toInstant);
+    if (fromInstant != null && toInstant != null && fromInstant.isAfter(toInstant)) {
+      throw new IllegalArgumentException(
+          "Parameter 'from' and 'to' must be chronologically coherent ("
+              + from
+              + " < "
+              + to
+              + ").");
+    }
+    LocalDate today = LocalDate.now();
+    List<Contract> contracts;
+
+    if (fromInstant != null && toInstant != null) {
+      contracts =
+          contractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtBetween(
+              objectId, today, fromInstant, toInstant);
+    } else if (fromInstant == null && toInstant != null) {
+      contracts =
+          contractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtLessThanEqual(
+              objectId, today, toInstant);
+    } else if (fromInstant != null) {
+      contracts =
+          contractRepository.findByClientIdAndEndDateGreaterThanEqualAndUpdatedAtGreaterThanEqual(
+              objectId, today, fromInstant);
+    } else {
+      contracts = contractRepository.findByClientIdAndEndDateGreaterThanEqual(objectId, today);
+    }
+
+    if (!contracts.isEmpty()
+        && contracts.stream().allMatch(contract -> contract.getClientSummary() != null)) {
+      return contracts.stream().map(Contract::toDTO).toList();
+    }
+    ResponseClientDTO client = ClientSummary.of(find(id)).toDTO(objectId);
+    return contracts.stream().map(contract -> contract.toDTO(client)).toList();
+  }
+
+  @Cacheable(value = "active_contract_sum", key = "#id")
+  public Decimal128 getAllActiveContractsTotalSum(String id) {
+    log.info("Computing total active contracts cost sum for client : {}", id);
+    find(id);
+    Decimal128 sum =
+        contractRepository.sumActiveContractTotalCostByClientId(new ObjectId(id), LocalDate.now());
+    return sum == null ? new Decimal128(0) : sum;
+  }
+
+  @Transactional
+  public String create(CreateClientDTO dto) {
+    Client client =
+        Client.builder()
+            .type(dto.type())
+            .name(dto.name())
+            .phone(dto.phone())
+            .email(dto.email())
+            .birthday(dto.birthday())
+            .companyIdentifier(dto.companyIdentifier())
+            .build();
+
+    log.info(
+        "Creating new client: name={}, type={}, email={}, phone={}, birthday={}, cID={}",
+        dto.name(),
+        dto.type(),
+        dto.email(),
+        dto.phone(),
+        dto.birthday(),
+        dto.companyIdentifier());
+
+    Client saved = clientRepository.save(client);
+    outboxService.record(OutboxEventType.CLIENT_CREATED, saved.getId(), saved.getId(), saved);
+    log.info("Client successfully created: id={}", saved.getId());
+    return saved.getId().toString();
+  }
+
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "clients", key = "#id"),
+        @CacheEvict(value = "contracts", allEntries = true)
+      })
+  public void update(String id, UpdateClientDTO dto, Integer expectedVersion) {
+    log.info(
+        "Updating client: id={}, name={}, phone={}, email={}, type={}",
+        id,
+        dto.name(),
+        dto.phone(),
+        dto.email(),
+        dto.type());
+
+    Client client = find(id);
+    if (expectedVersion != null && !expectedVersion.equals(client.getVersion())) {
+      throw new PreconditionFailedException(
+          "Client " + id + " is at version " + client.getVersion());
+    }
+    Client.ClientBuilder updateClient = client.toBuilder();
+    if (dto.name() != null) updateClient.name(dto.name());
+    if (dto.type() != null) updateClient.type(dto.type());
+    if (dto.email() != null) updateClient.email(dto.email());
+    if (dto.phone() != null) updateClient.phone(dto.phone());
+    if (expectedVersion != null) updateClient.version(expectedVersion);
+    Client saved;
+    try {
+      saved = clientRepository.save(updateClient.build());
+    } catch (OptimisticLockingFailureException e) {
+      if (expectedVersion == null) throw e;
+      throw new PreconditionFailedException("Client " + id + " was modified concurrently");
+    }
+    outboxService.record(OutboxEventType.CLIENT_UPDATED, saved.getId(), saved.getId(), saved);
+    clientSummaryFanOut.afterCommit(saved);
+    log.info("Client successfully updated: id={}", id);
+  }
+
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "clients", key = "#id"),
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", key = "#id")
+      })
+  public void delete(String id) {
+    log.info("Deleting client: id={}", id);
+    ObjectId objectId = new ObjectId(id);
+    clientRepository.delete(find(id));
+    contractRepository.unsetClientIdByClientId(objectId);
+    contractRepository.setEndDateByClientId(objectId, LocalDate.now());
+    outboxService.record(OutboxEventType.CLIENT_DELETED, objectId, objectId, null);
+    log.info("Client successfully deleted: id={}", id);
+  }
+
+  private Client find(String id) {
+    return clientRepository
+        .findById(new ObjectId(id))
+        .orElseThrow(() -> new NotFoundException("Client not found: " + id));
+  }
+}
@@ -0,0 +1,83 @@
+package ch.vaudoise.crm_api.servlet.service;
+
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.service.ClientSummaryFanOut;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Blocking {@code ClientSummaryFanOut}: the same {@code updateMany}, run on a virtual thread once
+ * the client update has committed. Drift is checked by the WebFlux instances sharing the database.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Profile(CrmServletApplication.PROFILE)
+@Service
+public class BlockingClientSummaryFanOut {
+
+  private final MongoTemplate mongoTemplate;
+  private final CacheManager cacheManager;
+  private final ObservationRegistry observationRegistry;
+
+  public BlockingClientSummaryFanOut(
+      final MongoTemplate mongoTemplate,
+      final CacheManager cacheManager,
+      final ObservationRegistry observationRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.cacheManager = cacheManager;
+    this.observationRegistry = observationRegistry;
+  }
+
+  /** The copy runs with the caller's observation, so it stays in the request's trace. */
+  public void afterCommit(Client client) {
+    Observation parent = observationRegistry.getCurrentObservation();
+    Runnable fanOut =
+        parent == null ? () -> fanOut(client) : () -> parent.scoped(() -> fanOut(client));
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      Thread.startVirtualThread(fanOut);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            Thread.startVirtualThread(fanOut);
+          }
+        });
+  }
+
+  private void fanOut(Client client) {
+    ClientSummary summary = ClientSummary.of(client);
+    try {
+      long updated =
+          mongoTemplate
+              .updateMulti(
+                  ClientSummaryFanOut.outdatedContracts(client.getId(), summary),
+                  ClientSummaryFanOut.copy(summary),
+                  Contract.class)
+              .getModifiedCount();
+      Cache contracts = cacheManager.getCache("contracts");
+      if (updated > 0 && contracts != null) contracts.clear();
+      log.info("Client summary copied to {} contracts of client {}", updated, client.getId());
+    } catch (RuntimeException e) {
+      log.warn(
+          "Could not copy client summary to contracts of client {} : {}",
+          client.getId(),
+          e.getMessage());
+    }
+  }
+}
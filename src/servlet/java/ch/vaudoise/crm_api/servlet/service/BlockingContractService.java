@@ -0,0 +1,147 @@
+package ch.vaudoise.crm_api.servlet.service;
+
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
+import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.service.ContractService;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import ch.vaudoise.crm_api.servlet.repository.BlockingClientRepository;
+import ch.vaudoise.crm_api.servlet.repository.BlockingContractRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Instant;
+import java.time.LocalDate;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Blocking {@code ContractService}, same rules, caches and outbox events. Contract history is not
+ * recorded in this mode.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Slf4j
+@Profile(CrmServletApplication.PROFILE)
+@Service
+public class BlockingContractService {
+
+  private final BlockingClientRepository clientRepository;
+  private final BlockingContractRepository contractRepository;
+  private final BlockingOutboxService outboxService;
+  private final MongoTemplate mongoTemplate;
+
+  public BlockingContractService(
+      final BlockingClientRepository clientRepository,
+      final BlockingContractRepository contractRepository,
+      final BlockingOutboxService outboxService,
+      final MongoTemplate mongoTemplate) {
+    this.clientRepository = clientRepository;
+    this.contractRepository = contractRepository;
+    this.outboxService = outboxService;
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", key = "#clientId")
+      })
+  public String create(final String clientId, final CreateContractDTO dto) {
+    log.info(
+        "Creating new contract for client {} : startDate={}, endDate={}, cost={}",
+        clientId,
+        dto.startDate(),
+        dto.endDate(),
+        dto.cost());
+    Client client =
+        clientRepository
+            .findById(new ObjectId(clientId))
+            .orElseThrow(() -> new NotFoundException("Client not found: " + clientId));
+    Contract saved =
+        contractRepository.save(
+            Contract.builder()
+                .startDate(dto.startDate() == null ? LocalDate.now() : dto.startDate())
+                .endDate(dto.endDate())
+                .cost(dto.cost())
+                .clientId(new ObjectId(clientId))
+                .clientSummary(ClientSummary.of(client))
+                .updatedAt(Instant.now())
+                .build());
+    outboxService.record(
+        OutboxEventType.CONTRACT_CREATED, saved.getClientId(), saved.getId(), saved);
+    log.info("Contract successfully created id={} for clientId={}", saved.getId(), clientId);
+    return saved.getId().toString();
+  }
+
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", allEntries = true)
+      })
+  public void update(final String id, final UpdateContractDTO dto, final Integer expectedVersion) {
+    log.info(
+        "Updating contract id={} : startDate={}, endDate={}, cost={}",
+        id,
+        dto.startDate(),
+        dto.endDate(),
+        dto.cost());
+
+    Contract contract = find(id);
+    if (expectedVersion != null && !expectedVersion.equals(contract.getVersion())) {
+      throw new PreconditionFailedException(
+          "Contract " + id + " is at version " + contract.getVersion());
+    }
+    Contract saved =
+        mongoTemplate.findAndModify(
+            ContractService.atVersion(contract.getId(), contract.getVersion()),
+            ContractService.changes(dto, Instant.now()),
+            FindAndModifyOptions.options().returnNew(true),
+            Contract.class);
+    if (saved == null) {
+      if (expectedVersion == null) {
+        throw new OptimisticLockingFailureException(
+            "Contract " + id + " was modified concurrently");
+      }
+      throw new PreconditionFailedException("Contract " + id + " was modified concurrently");
+    }
+    outboxService.record(
+        OutboxEventType.CONTRACT_UPDATED, saved.getClientId(), saved.getId(), saved);
+    log.info("Contract successfully updated: id={}", id);
+  }
+
+  @Transactional
+  @Caching(
+      evict = {
+        @CacheEvict(value = "contracts", allEntries = true),
+        @CacheEvict(value = "active_contract_sum", allEntries = true)
+      })
+  public void delete(final String id) {
+    log.info("Deleting contract: id={}", id);
+    Contract contract = find(id);
+    contractRepository.delete(contract);
+    outboxService.record(
+        OutboxEventType.CONTRACT_DELETED, contract.getClientId(), contract.getId(), null);
+    log.info("Contract successfully deleted: id={}", id);
+  }
+
+  private Contract find(String id) {
+    return contractRepository
+        .findById(new ObjectId(id))
+        .orElseThrow(() -> new NotFoundException("Contract not found: " + id));
+  }
+}
@@ -0,0 +1,66 @@
+package ch.vaudoise.crm_api.servlet.service;
+
+import ch.vaudoise.crm_api.config.OutboxProperties;
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import ch.vaudoise.crm_api.service.outbox.OutboxService;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Instant;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes outbox events in the caller's transaction like {@code OutboxService}, with the same
+ * per-client sequence. There is no relay in this mode, the events are published by the WebFlux
+ * instances sharing the database; startup fails unless {@code crm.outbox.external-relay} confirms
+ * they exist, otherwise events would pile up unpublished.
+ */
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP2"},
+    justification = "Ignore warning on Spring Boot Dependency Injection EI_EXPOSE_REP2")
+@Profile(CrmServletApplication.PROFILE)
+@Service
+public class BlockingOutboxService {
+
+  private final MongoTemplate mongoTemplate;
+
+  public BlockingOutboxService(
+      final MongoTemplate mongoTemplate, final OutboxProperties properties) {
+    if (!properties.externalRelay()) {
+      throw new IllegalStateException(
+          "Servlet mode has no outbox relay: run WebFlux instances with crm.outbox.relay-enabled"
+              + " against the same database and set crm.outbox.external-relay=true");
+    }
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  public void record(
+      OutboxEventType type, ObjectId clientId, ObjectId aggregateId, Object payload) {
+    Document document = new Document();
+    if (payload != null) mongoTemplate.getConverter().write(payload, document);
+    document.remove("_class");
+    ObjectId orderingKey = OutboxEvent.orderingKey(clientId, aggregateId);
+    Document counter =
+        mongoTemplate.findAndModify(
+            OutboxService.nextSequenceQuery(orderingKey),
+            OutboxService.nextSequenceUpdate(),
+            FindAndModifyOptions.options().returnNew(true).upsert(true),
+            Document.class,
+            OutboxEvent.SEQUENCES);
+    mongoTemplate.insert(
+        OutboxEvent.builder()
+            .type(type)
+            .clientId(clientId)
+            .aggregateId(aggregateId)
+            .orderingKey(orderingKey)
+            .sequence(counter.get("value", Number.class).longValue())
+            .payload(document)
+            .createdAt(Instant.now())
+            .build());
+  }
+}
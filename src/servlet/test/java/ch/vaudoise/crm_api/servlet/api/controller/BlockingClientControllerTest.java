@@ -0,0 +1,212 @@
+package ch.vaudoise.crm_api.servlet.api.controller;
+
+import static ch.vaudoise.crm_api.fixtures.ClientFixture.*;
+import static ch.vaudoise.crm_api.fixtures.ContractFixture.aResponseContractDTO;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
+import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
+import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.service.IdempotencyService;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import ch.vaudoise.crm_api.servlet.service.BlockingClientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = BlockingClientController.class)
+@ActiveProfiles(CrmServletApplication.PROFILE)
+class BlockingClientControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @MockitoBean private BlockingClientService clientService;
+
+  @Nested
+  class Get {
+    @Test
+    void testGetClientShouldReturn200WithETag() throws Exception {
+      ResponseClientDTO client = aVersionedClient(3);
+      when(clientService.findById("1")).thenReturn(client);
+
+      mockMvc
+          .perform(get("/api/clients/1").accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+          .andExpect(jsonPath("$.name").value(client.name()));
+    }
+
+    @Test
+    void testGetClientWithMatchingETagShouldReturn304() throws Exception {
+      when(clientService.findById("1")).thenReturn(aVersionedClient(3));
+
+      mockMvc
+          .perform(get("/api/clients/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+          .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetUnknownClientShouldReturn404() throws Exception {
+      when(clientService.findById("1")).thenThrow(new NotFoundException("Client not found: 1"));
+
+      mockMvc.perform(get("/api/clients/1")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetClientsByIdsShouldReturn200() throws Exception {
+      when(clientService.findAllById(List.of("1", "2")))
+          .thenReturn(
+              List.of(
+                  ClientLookupDTO.of("1", aResponseClientDTO()), ClientLookupDTO.of("2", null)));
+
+      mockMvc
+          .perform(get("/api/clients").queryParam("ids", "1", "2"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].found").value(true))
+          .andExpect(jsonPath("$[1].found").value(false));
+    }
+
+    @Test
+    void testLookupWithoutIdsShouldReturn400() throws Exception {
+      mockMvc
+          .perform(
+              post("/api/clients/lookup").contentType(MediaType.APPLICATION_JSON).content("[]"))
+          .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetContractsShouldReturn200WithETag() throws Exception {
+      when(clientService.getAllActiveContracts("1", null, null))
+          .thenReturn(List.of(aResponseContractDTO()));
+
+      mockMvc
+          .perform(get("/api/clients/1/contracts"))
+          .andExpect(status().isOk())
+          .andExpect(header().exists(HttpHeaders.ETAG))
+          .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void testGetContractsTotalShouldReturn200() throws Exception {
+      when(clientService.getAllActiveContractsTotalSum("1")).thenReturn(Decimal128.parse("12"));
+
+      mockMvc.perform(get("/api/clients/1/contracts/total")).andExpect(status().isOk());
+    }
+  }
+
+  @Nested
+  class Create {
+    @Test
+    void testCreateClientShouldReturn201() throws Exception {
+      when(clientService.create(any(CreateClientDTO.class))).thenReturn("1");
+
+      mockMvc
+          .perform(
+              post("/api/clients")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(aCreateClientDTO())))
+          .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testIdempotencyKeyShouldBeRejected() throws Exception {
+      mockMvc
+          .perform(
+              post("/api/clients")
+                  .header(IdempotencyService.HEADER, "key")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(aCreateClientDTO())))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value(containsString(IdempotencyService.HEADER)));
+      verify(clientService, never()).create(any());
+    }
+
+    @Test
+    void testMissingNameShouldReturn400() throws Exception {
+      CreateClientDTO missingName = aCreateClientDTO().toBuilder().name(null).build();
+
+      mockMvc
+          .perform(
+              post("/api/clients")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(missingName)))
+          .andExpect(status().isBadRequest());
+    }
+  }
+
+  @Nested
+  class Update {
+    @Test
+    void testValidShouldReturn200() throws Exception {
+      mockMvc
+          .perform(
+              put("/api/clients/1")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(anUpdateClientDTO())))
+          .andExpect(status().isOk());
+
+      verify(clientService).update(eq("1"), any(UpdateClientDTO.class), isNull());
+    }
+
+    @Test
+    void testStaleIfMatchShouldReturn412() throws Exception {
+      doThrow(new PreconditionFailedException("Client 1 is at version 3"))
+          .when(clientService)
+          .update(eq("1"), any(UpdateClientDTO.class), eq(2));
+
+      mockMvc
+          .perform(
+              put("/api/clients/1")
+                  .header(HttpHeaders.IF_MATCH, "\"2\"")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(anUpdateClientDTO())))
+          .andExpect(status().isPreconditionFailed());
+    }
+  }
+
+  @Nested
+  class Delete {
+    @Test
+    void testShouldReturn204() throws Exception {
+      mockMvc.perform(delete("/api/clients/1")).andExpect(status().isNoContent());
+
+      verify(clientService).delete("1");
+    }
+  }
+
+  private static ResponseClientDTO aVersionedClient(int version) {
+    ResponseClientDTO client = aResponseClientDTO();
+    return new ResponseClientDTO(
+        client.id(),
+        client.type(),
+        client.name(),
+        client.phone(),
+        client.email(),
+        client.birthday(),
+        client.companyIdentifier(),
+        version);
+  }
+}
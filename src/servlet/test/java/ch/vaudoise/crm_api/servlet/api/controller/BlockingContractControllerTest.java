@@ -0,0 +1,166 @@
+package ch.vaudoise.crm_api.servlet.api.controller;
+
+import static ch.vaudoise.crm_api.fixtures.ContractFixture.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
+import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.service.IdempotencyService;
+import ch.vaudoise.crm_api.servlet.CrmServletApplication;
+import ch.vaudoise.crm_api.servlet.service.BlockingContractService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = BlockingContractController.class)
+@ActiveProfiles(CrmServletApplication.PROFILE)
+class BlockingContractControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @MockitoBean private BlockingContractService contractService;
+
+  @Nested
+  class Create {
+    @Test
+    void testCreateContractShouldReturn201() throws Exception {
+      when(contractService.create(eq("1"), any(CreateContractDTO.class))).thenReturn("2");
+
+      mockMvc
+          .perform(
+              post("/api/contracts")
+                  .queryParam("clientId", "1")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(aCreateContractDTO())))
+          .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testIdempotencyKeyShouldBeRejected() throws Exception {
+      mockMvc
+          .perform(
+              post("/api/contracts")
+                  .queryParam("clientId", "1")
+                  .header(IdempotencyService.HEADER, "key")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(aCreateContractDTO())))
+          .andExpect(status().isBadRequest());
+      verify(contractService, never()).create(any(), any());
+    }
+
+    @Test
+    void testMissingRequiredFieldShouldReturn400() throws Exception {
+      CreateContractDTO missingCostDTO = aCreateContractDTO().toBuilder().cost(null).build();
+
+      mockMvc
+          .perform(
+              post("/api/contracts")
+                  .queryParam("clientId", "1")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(missingCostDTO)))
+          .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testNegativeCostShouldReturn400() throws Exception {
+      CreateContractDTO invalidCost =
+          new CreateContractDTO(LocalDate.now(), null, new Decimal128(-10));
+
+      mockMvc
+          .perform(
+              post("/api/contracts")
+                  .queryParam("clientId", "1")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(invalidCost)))
+          .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUnknownClientShouldReturn404() throws Exception {
+      when(contractService.create(eq("1"), any(CreateContractDTO.class)))
+          .thenThrow(new NotFoundException("Client not found: 1"));
+
+      mockMvc
+          .perform(
+              post("/api/contracts")
+                  .queryParam("clientId", "1")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(aCreateContractDTO())))
+          .andExpect(status().isNotFound());
+    }
+  }
+
+  @Nested
+  class Update {
+    @Test
+    void testValidShouldReturn204() throws Exception {
+      mockMvc
+          .perform(
+              put("/api/contracts/1")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(anUpdateContractDTO())))
+          .andExpect(status().isNoContent());
+
+      verify(contractService).update(eq("1"), any(UpdateContractDTO.class), isNull());
+    }
+
+    @Test
+    void testNegativeCostShouldReturn400() throws Exception {
+      UpdateContractDTO invalidUpdate =
+          new UpdateContractDTO(LocalDate.now(), null, new Decimal128(-50));
+
+      mockMvc
+          .perform(
+              put("/api/contracts/1")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(invalidUpdate)))
+          .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStaleIfMatchShouldReturn412() throws Exception {
+      doThrow(new PreconditionFailedException("Contract 1 is at version 3"))
+          .when(contractService)
+          .update(eq("1"), any(UpdateContractDTO.class), eq(2));
+
+      mockMvc
+          .perform(
+              put("/api/contracts/1")
+                  .header(HttpHeaders.IF_MATCH, "\"2\"")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsBytes(anUpdateContractDTO())))
+          .andExpect(status().isPreconditionFailed());
+    }
+  }
+
+  @Nested
+  class Delete {
+    @Test
+    void testShouldReturn204() throws Exception {
+      mockMvc.perform(delete("/api/contracts/1")).andExpect(status().isNoContent());
+
+      verify(contractService).delete("1");
+    }
+  }
+}
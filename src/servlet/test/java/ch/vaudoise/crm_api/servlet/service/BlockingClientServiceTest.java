@@ -0,0 +1,281 @@
+package ch.vaudoise.crm_api.servlet.service;
+
+import static ch.vaudoise.crm_api.fixtures.ClientFixture.*;
+import static ch.vaudoise.crm_api.fixtures.ContractFixture.aContract;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
+import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.servlet.repository.BlockingClientRepository;
+import ch.vaudoise.crm_api.servlet.repository.BlockingContractRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class BlockingClientServiceTest {
+
+  @InjectMocks private BlockingClientService clientService;
+
+  @Mock private BlockingClientRepository clientRepository;
+
+  @Mock private BlockingContractRepository contractRepository;
+
+  @Mock private BlockingOutboxService outboxService;
+
+  @Mock private BlockingClientSummaryFanOut clientSummaryFanOut;
+
+  @Mock private CacheManager cacheManager;
+
+  @Nested
+  class FindById {
+
+    @Test
+    void shouldReturnClient() {
+      Client mockClient = aClient();
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+
+      assertThat(clientService.findById(mockClient.getId().toString()))
+          .isEqualTo(mockClient.toDTO());
+    }
+
+    @Test
+    void shouldThrowWhenNotFound() {
+      ObjectId id = new ObjectId();
+      Mockito.when(clientRepository.findById(id)).thenReturn(Optional.empty());
+
+      assertThatThrownBy(() -> clientService.findById(id.toString()))
+          .isInstanceOf(NotFoundException.class);
+    }
+  }
+
+  @Nested
+  class FindAllById {
+
+    @Test
+    void shouldServeHitsFromCacheAndLoadMissesInOneQuery() {
+      Client cached = aClient();
+      Client stored = aClient().toBuilder().id(new ObjectId()).name("Jane Doe").build();
+      ObjectId unknown = new ObjectId();
+      CaffeineCache cache = new CaffeineCache("clients", Caffeine.newBuilder().build(), true);
+      cache.put(cached.getId().toString(), cached.toDTO());
+      Mockito.when(cacheManager.getCache("clients")).thenReturn(cache);
+      Mockito.when(clientRepository.findAllById(anyIterable())).thenReturn(List.of(stored));
+
+      assertThat(
+              clientService.findAllById(
+                  List.of(
+                      unknown.toString(), stored.getId().toString(), cached.getId().toString())))
+          .containsExactly(
+              new ClientLookupDTO(unknown.toString(), false, null),
+              new ClientLookupDTO(stored.getId().toString(), true, stored.toDTO()),
+              new ClientLookupDTO(cached.getId().toString(), true, cached.toDTO()));
+
+      Mockito.verify(clientRepository)
+          .findAllById(
+              Mockito.<Iterable<ObjectId>>argThat(
+                  ids ->
+                      Set.copyOf((Collection<ObjectId>) ids)
+                          .equals(Set.of(unknown, stored.getId()))));
+      assertThat(cache.get(stored.getId().toString())).isNotNull();
+      assertThat(cache.get(unknown.toString())).isNull();
+    }
+
+    @Test
+    void shouldRejectInvalidId() {
+      assertThatThrownBy(() -> clientService.findAllById(List.of("not-an-id")))
+          .isInstanceOf(IllegalArgumentException.class);
+
+      Mockito.verifyNoInteractions(clientRepository);
+    }
+  }
+
+  @Nested
+  class GetAllActiveContracts {
+
+    @Test
+    void shouldServeContractsFromClientSummaryWithoutLoadingClient() {
+      Client mockClient = aClient();
+      Contract contract =
+          aContract().toBuilder().clientSummary(ClientSummary.of(mockClient)).build();
+      Mockito.when(
+              contractRepository.findByClientIdAndEndDateGreaterThanEqual(
+                  eq(mockClient.getId()), any(LocalDate.class)))
+          .thenReturn(List.of(contract));
+
+      assertThat(clientService.getAllActiveContracts(mockClient.getId().toString(), null, null))
+          .containsExactly(contract.toDTO());
+
+      Mockito.verifyNoInteractions(clientRepository);
+    }
+
+    @Test
+    void shouldLoadClientForContractsWithoutSummary() {
+      Client mockClient = aClient();
+      Contract contract = aContract();
+      Mockito.when(
+              contractRepository.findByClientIdAndEndDateGreaterThanEqual(
+                  eq(mockClient.getId()), any(LocalDate.class)))
+          .thenReturn(List.of(contract));
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+
+      assertThat(clientService.getAllActiveContracts(mockClient.getId().toString(), null, null))
+          .containsExactly(contract.toDTO(ClientSummary.of(mockClient).toDTO(mockClient.getId())));
+    }
+
+    @Test
+    void shouldThrowIfFromAfterTo() {
+      String id = new ObjectId().toString();
+      LocalDate today = LocalDate.now();
+
+      assertThatThrownBy(() -> clientService.getAllActiveContracts(id, today, today.minusDays(1)))
+          .isInstanceOf(IllegalArgumentException.class);
+
+      Mockito.verifyNoInteractions(contractRepository);
+    }
+  }
+
+  @Nested
+  class GetAllActiveContractsTotalSum {
+
+    @Test
+    void shouldReturnZeroIfNone() {
+      Client mockClient = aClient();
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+      Mockito.when(
+              contractRepository.sumActiveContractTotalCostByClientId(
+                  eq(mockClient.getId()), any(LocalDate.class)))
+          .thenReturn(null);
+
+      assertThat(clientService.getAllActiveContractsTotalSum(mockClient.getId().toString()))
+          .isEqualTo(new Decimal128(0));
+    }
+  }
+
+  @Nested
+  class CreateClient {
+
+    @Test
+    void shouldSaveClientAndRecordEvent() {
+      Client saved = aClient();
+      Mockito.when(clientRepository.save(any(Client.class))).thenReturn(saved);
+
+      assertThat(clientService.create(aCreateClientDTO())).isEqualTo(saved.getId().toString());
+
+      Mockito.verify(outboxService)
+          .record(OutboxEventType.CLIENT_CREATED, saved.getId(), saved.getId(), saved);
+    }
+  }
+
+  @Nested
+  class UpdateClient {
+
+    @Test
+    void shouldUpdateClientAndFanOutSummary() {
+      Client mockClient = aClient();
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+      Mockito.when(clientRepository.save(any(Client.class))).thenReturn(mockClient);
+
+      clientService.update(mockClient.getId().toString(), anUpdateClientDTO(), null);
+
+      ArgumentCaptor<Client> captor = ArgumentCaptor.forClass(Client.class);
+      Mockito.verify(clientRepository).save(captor.capture());
+      assertThat(captor.getValue().getPhone()).isEqualTo(anUpdateClientDTO().phone());
+      Mockito.verify(clientSummaryFanOut).afterCommit(mockClient);
+    }
+
+    @Test
+    void shouldRejectStaleIfMatchVersion() {
+      Client mockClient = aClient().toBuilder().version(3).build();
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+
+      assertThatThrownBy(
+              () ->
+                  clientService.update(
+                      mockClient.getId().toString(),
+                      new UpdateClientDTO(null, null, null, null),
+                      2))
+          .isInstanceOf(PreconditionFailedException.class);
+
+      Mockito.verify(clientRepository, Mockito.never()).save(any());
+      Mockito.verifyNoInteractions(clientSummaryFanOut);
+    }
+
+    @Test
+    void shouldMapOptimisticLockFailureToPreconditionFailed() {
+      Client mockClient = aClient().toBuilder().version(3).build();
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+      Mockito.when(clientRepository.save(any(Client.class)))
+          .thenThrow(new OptimisticLockingFailureException("stale"));
+
+      assertThatThrownBy(
+              () ->
+                  clientService.update(
+                      mockClient.getId().toString(),
+                      new UpdateClientDTO(null, null, null, null),
+                      3))
+          .isInstanceOf(PreconditionFailedException.class);
+    }
+  }
+
+  @Nested
+  class DeleteClient {
+
+    @Test
+    void shouldDeleteClientAndDetachContracts() {
+      Client mockClient = aClient();
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+
+      clientService.delete(mockClient.getId().toString());
+
+      Mockito.verify(clientRepository).delete(mockClient);
+      Mockito.verify(contractRepository).unsetClientIdByClientId(mockClient.getId());
+      Mockito.verify(contractRepository)
+          .setEndDateByClientId(eq(mockClient.getId()), any(LocalDate.class));
+      Mockito.verify(outboxService)
+          .record(OutboxEventType.CLIENT_DELETED, mockClient.getId(), mockClient.getId(), null);
+    }
+
+    @Test
+    void shouldThrowWhenNotFound() {
+      ObjectId id = new ObjectId();
+      Mockito.when(clientRepository.findById(id)).thenReturn(Optional.empty());
+
+      assertThatThrownBy(() -> clientService.delete(id.toString()))
+          .isInstanceOf(NotFoundException.class);
+
+      Mockito.verify(clientRepository, Mockito.never()).delete(any());
+    }
+  }
+}
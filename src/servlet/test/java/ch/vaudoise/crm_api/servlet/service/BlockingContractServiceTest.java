@@ -0,0 +1,165 @@
+package ch.vaudoise.crm_api.servlet.service;
+
+import static ch.vaudoise.crm_api.fixtures.ClientFixture.aClient;
+import static ch.vaudoise.crm_api.fixtures.ContractFixture.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
+import ch.vaudoise.crm_api.servlet.repository.BlockingClientRepository;
+import ch.vaudoise.crm_api.servlet.repository.BlockingContractRepository;
+import java.util.Optional;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+@ExtendWith(MockitoExtension.class)
+class BlockingContractServiceTest {
+
+  @InjectMocks private BlockingContractService contractService;
+
+  @Mock private BlockingClientRepository clientRepository;
+
+  @Mock private BlockingContractRepository contractRepository;
+
+  @Mock private BlockingOutboxService outboxService;
+
+  @Mock private MongoTemplate mongoTemplate;
+
+  @Nested
+  class Create {
+
+    @Test
+    void shouldCreateContractWithClientSummary() {
+      Client mockClient = aClient();
+      Contract saved = aContract();
+      Mockito.when(clientRepository.findById(mockClient.getId()))
+          .thenReturn(Optional.of(mockClient));
+      Mockito.when(contractRepository.save(any(Contract.class))).thenReturn(saved);
+
+      assertThat(contractService.create(mockClient.getId().toString(), aCreateContractDTO()))
+          .isEqualTo(saved.getId().toString());
+
+      Mockito.verify(contractRepository)
+          .save(
+              argThat(
+                  contract -> ClientSummary.of(mockClient).equals(contract.getClientSummary())));
+      Mockito.verify(outboxService)
+          .record(OutboxEventType.CONTRACT_CREATED, saved.getClientId(), saved.getId(), saved);
+    }
+
+    @Test
+    void shouldFailWhenClientNotFound() {
+      ObjectId clientId = new ObjectId();
+      Mockito.when(clientRepository.findById(clientId)).thenReturn(Optional.empty());
+
+      assertThatThrownBy(() -> contractService.create(clientId.toString(), aCreateContractDTO()))
+          .isInstanceOf(NotFoundException.class);
+
+      Mockito.verifyNoInteractions(contractRepository, outboxService);
+    }
+  }
+
+  @Nested
+  class Update {
+
+    @Test
+    void shouldSetOnlyChangedFields() {
+      Contract contract = aContract().toBuilder().version(3).build();
+      Mockito.when(contractRepository.findById(contract.getId())).thenReturn(Optional.of(contract));
+      Mockito.when(
+              mongoTemplate.findAndModify(
+                  any(Query.class),
+                  any(UpdateDefinition.class),
+                  any(FindAndModifyOptions.class),
+                  eq(Contract.class)))
+          .thenReturn(contract);
+
+      contractService.update(
+          contract.getId().toString(), new UpdateContractDTO(null, null, new Decimal128(1)), 3);
+
+      ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+      ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+      Mockito.verify(mongoTemplate)
+          .findAndModify(
+              query.capture(),
+              update.capture(),
+              any(FindAndModifyOptions.class),
+              eq(Contract.class));
+      assertThat(query.getValue().getQueryObject()).containsEntry("version", 3);
+      assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+          .containsOnlyKeys("cost", "updatedAt");
+      Mockito.verify(outboxService)
+          .record(
+              OutboxEventType.CONTRACT_UPDATED, contract.getClientId(), contract.getId(), contract);
+    }
+
+    @Test
+    void shouldMapConcurrentUpdateToPreconditionFailed() {
+      Contract contract = aContract().toBuilder().version(3).build();
+      Mockito.when(contractRepository.findById(contract.getId())).thenReturn(Optional.of(contract));
+
+      assertThatThrownBy(
+              () -> contractService.update(contract.getId().toString(), anUpdateContractDTO(), 3))
+          .isInstanceOf(PreconditionFailedException.class);
+
+      Mockito.verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void shouldRejectStaleIfMatchVersion() {
+      Contract contract = aContract().toBuilder().version(3).build();
+      Mockito.when(contractRepository.findById(contract.getId())).thenReturn(Optional.of(contract));
+
+      assertThatThrownBy(
+              () -> contractService.update(contract.getId().toString(), anUpdateContractDTO(), 2))
+          .isInstanceOf(PreconditionFailedException.class);
+
+      Mockito.verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shouldThrowWhenNotFound() {
+      ObjectId id = new ObjectId();
+      Mockito.when(contractRepository.findById(id)).thenReturn(Optional.empty());
+
+      assertThatThrownBy(() -> contractService.update(id.toString(), anUpdateContractDTO(), null))
+          .isInstanceOf(NotFoundException.class);
+    }
+  }
+
+  @Nested
+  class Delete {
+
+    @Test
+    void shouldDeleteContractAndRecordEvent() {
+      Contract contract = aContract();
+      Mockito.when(contractRepository.findById(contract.getId())).thenReturn(Optional.of(contract));
+
+      contractService.delete(contract.getId().toString());
+
+      Mockito.verify(contractRepository).delete(contract);
+      Mockito.verify(outboxService)
+          .record(OutboxEventType.CONTRACT_DELETED, contract.getClientId(), contract.getId(), null);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package ch.vaudoise.crm_api.servlet.service;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import ch.vaudoise.crm_api.config.OutboxProperties;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+class BlockingOutboxServiceTest {
+
+  @Test
+  void shouldRefuseToStartWithoutExternalRelay() {
+    assertThatThrownBy(
+            () -> new BlockingOutboxService(mock(MongoTemplate.class), properties(false)))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("crm.outbox.external-relay");
+  }
+
+  @Test
+  void shouldStartWhenWebFluxInstancesRelay() {
+    assertThatCode(() -> new BlockingOutboxService(mock(MongoTemplate.class), properties(true)))
+        .doesNotThrowAnyException();
+  }
+
+  private static OutboxProperties properties(boolean externalRelay) {
+    return new OutboxProperties(
+        true,
+        Duration.ofSeconds(1),
+        Duration.ofSeconds(30),
+        100,
+        "memory",
+        1000,
+        Path.of("unused"),
+        externalRelay);
+  }
+}
@@ -2,36 +2,81 @@ package ch.vaudoise.crm_api.api;
 
 import static ch.vaudoise.crm_api.fixtures.ClientFixture.*;
 import static ch.vaudoise.crm_api.fixtures.ContractFixture.aResponseContractDTO;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ch.vaudoise.crm_api.api.controller.ClientController;
+import ch.vaudoise.crm_api.api.filter.ConcurrencyLimitWebFilter;
+import ch.vaudoise.crm_api.api.filter.DeadlineWebFilter;
+import ch.vaudoise.crm_api.api.filter.ReadPreferenceWebFilter;
+import ch.vaudoise.crm_api.config.NettyServerConfig;
+import ch.vaudoise.crm_api.config.NettyServerProperties;
 import ch.vaudoise.crm_api.model.ClientType;
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
 import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
 import ch.vaudoise.crm_api.model.dto.client.ResponseClientDTO;
 import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
 import ch.vaudoise.crm_api.model.dto.contract.ResponseContractDTO;
+import ch.vaudoise.crm_api.model.exception.ConflictException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
 import ch.vaudoise.crm_api.service.ClientService;
+import ch.vaudoise.crm_api.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
 import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-@WebFluxTest(controllers = ClientController.class)
+@WebFluxTest(
+    controllers = ClientController.class,
+    excludeFilters =
+        @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE,
+            classes = {ConcurrencyLimitWebFilter.class, DeadlineWebFilter.class}))
+@Import(NettyServerConfig.class)
+@EnableConfigurationProperties(NettyServerProperties.class)
+@TestPropertySource(properties = "crm.server.max-body-size=8KB")
 class ClientControllerTest {
 
   @Autowired private WebTestClient webTestClient;
 
   @MockitoBean private ClientService clientService;
+  @MockitoBean private IdempotencyService idempotencyService;
+
+  @Autowired private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+  private ObjectMapper cborMapper;
+
+  @BeforeEach
+  void setUp() {
+    cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+  }
 
   @Nested
   class Get {
@@ -51,6 +96,150 @@ class ClientControllerTest {
           .expectBody(ResponseClientDTO.class)
           .isEqualTo(response);
     }
+
+    @Test
+    void testGetClientAsCborShouldRoundTrip() throws Exception {
+      ResponseClientDTO response = aResponseClientDTO();
+
+      when(clientService.findById("1")).thenReturn(Mono.just(response));
+
+      byte[] body =
+          webTestClient
+              .get()
+              .uri("/api/clients/1")
+              .accept(MediaType.APPLICATION_CBOR)
+              .exchange()
+              .expectStatus()
+              .isOk()
+              .expectHeader()
+              .contentType(MediaType.APPLICATION_CBOR)
+              .expectBody(byte[].class)
+              .returnResult()
+              .getResponseBody();
+
+      assertThat(cborMapper.readValue(body, ResponseClientDTO.class)).isEqualTo(response);
+    }
+
+    @Test
+    void testGetClientWithMatchingETagShouldReturn304() {
+      ResponseClientDTO response =
+          new ResponseClientDTO(
+              "1",
+              ClientType.PERSON,
+              "John Doe",
+              "+41791234567",
+              "john@example.com",
+              LocalDate.of(1994, 10, 19),
+              null,
+              4);
+
+      when(clientService.findById("1")).thenReturn(Mono.just(response));
+
+      webTestClient
+          .get()
+          .uri("/api/clients/1")
+          .ifNoneMatch("\"4\"")
+          .exchange()
+          .expectStatus()
+          .isNotModified()
+          .expectHeader()
+          .valueEquals(HttpHeaders.ETAG, "\"4\"")
+          .expectBody()
+          .isEmpty();
+    }
+
+    @Test
+    void testGetClientWithPrimaryReadPreferenceShouldBypassCache() {
+      ResponseClientDTO response = aResponseClientDTO();
+
+      when(clientService.findByIdOnPrimary("1")).thenReturn(Mono.just(response));
+
+      webTestClient
+          .get()
+          .uri("/api/clients/1")
+          .header(ReadPreferenceWebFilter.READ_PREFERENCE_HEADER, "Primary")
+          .exchange()
+          .expectStatus()
+          .isOk()
+          .expectBody(ResponseClientDTO.class)
+          .isEqualTo(response);
+      verify(clientService, never()).findById(any());
+    }
+  }
+
+  @Nested
+  class GetMany {
+    @Test
+    void testGetClientsByIdsShouldReturnResultsInRequestOrder() {
+      ResponseClientDTO response = aResponseClientDTO();
+      List<ClientLookupDTO> results =
+          List.of(ClientLookupDTO.of("1", response), ClientLookupDTO.of("2", null));
+
+      when(clientService.findAllById(List.of("1", "2"))).thenReturn(Mono.just(results));
+
+      webTestClient
+          .get()
+          .uri("/api/clients?ids=1,2")
+          .accept(MediaType.APPLICATION_JSON)
+          .exchange()
+          .expectStatus()
+          .isOk()
+          .expectBody()
+          .jsonPath("$[0].id")
+          .isEqualTo("1")
+          .jsonPath("$[0].client.name")
+          .isEqualTo(response.name())
+          .jsonPath("$[1].found")
+          .isEqualTo(false)
+          .jsonPath("$[1].client")
+          .doesNotExist();
+    }
+
+    @Test
+    void testLookupClientsShouldAcceptIdsInBody() {
+      when(clientService.findAllById(List.of("1")))
+          .thenReturn(Mono.just(List.of(ClientLookupDTO.of("1", aResponseClientDTO()))));
+
+      webTestClient
+          .post()
+          .uri("/api/clients/lookup")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(List.of("1"))
+          .exchange()
+          .expectStatus()
+          .isOk()
+          .expectBodyList(ClientLookupDTO.class)
+          .hasSize(1);
+    }
+
+    @Test
+    void testLookupWithoutIdsShouldReturn400() {
+      webTestClient
+          .post()
+          .uri("/api/clients/lookup")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(List.of())
+          .exchange()
+          .expectStatus()
+          .isBadRequest();
+    }
+
+    @Test
+    void testLookupOverBodyLimitShouldReturn413() {
+      // over the configured 8KB, under the codecs' own 256KB default
+      List<String> ids = Collections.nCopies(500, "4ecbe7f9e8c1c9092c000027");
+
+      webTestClient
+          .post()
+          .uri("/api/clients/lookup")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(ids)
+          .exchange()
+          .expectStatus()
+          .isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+
+      verify(clientService, never()).findAllById(any());
+    }
   }
 
   @Nested
@@ -74,6 +263,67 @@ class ClientControllerTest {
           .contains(contractDTO);
     }
 
+    @Test
+    void testGetAllActiveContractsAsSmileShouldKeepDecimalsAndDates() throws Exception {
+      ResponseContractDTO contractDTO = aResponseContractDTO();
+
+      when(clientService.getAllActiveContracts(contractDTO.client().id(), null, null))
+          .thenReturn(Flux.just(contractDTO));
+
+      byte[] body =
+          webTestClient
+              .get()
+              .uri("/api/clients/" + contractDTO.client().id() + "/contracts")
+              .accept(ApiMediaTypes.APPLICATION_SMILE)
+              .exchange()
+              .expectStatus()
+              .isOk()
+              .expectBody(byte[].class)
+              .returnResult()
+              .getResponseBody();
+
+      ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+      assertThat(smileMapper.readValue(body, ResponseContractDTO[].class))
+          .containsExactly(contractDTO);
+    }
+
+    @Test
+    void testGetAllActiveContractsWithMatchingETagShouldReturn304() {
+      ResponseContractDTO contractDTO = aResponseContractDTO();
+      String etag = ETags.ofContracts(List.of(contractDTO));
+
+      when(clientService.getAllActiveContracts(contractDTO.client().id(), null, null))
+          .thenReturn(Flux.just(contractDTO));
+
+      webTestClient
+          .get()
+          .uri("/api/clients/" + contractDTO.client().id() + "/contracts")
+          .ifNoneMatch(etag)
+          .exchange()
+          .expectStatus()
+          .isNotModified();
+    }
+
+    @Test
+    void testGetAllActiveContractsWithPrimaryReadPreferenceShouldBypassCache() {
+      ResponseContractDTO contractDTO = aResponseContractDTO();
+
+      when(clientService.getAllActiveContractsOnPrimary(contractDTO.client().id(), null, null))
+          .thenReturn(Flux.just(contractDTO));
+
+      webTestClient
+          .get()
+          .uri("/api/clients/" + contractDTO.client().id() + "/contracts")
+          .header(ReadPreferenceWebFilter.READ_PREFERENCE_HEADER, "primary")
+          .exchange()
+          .expectStatus()
+          .isOk()
+          .expectBodyList(ResponseContractDTO.class)
+          .hasSize(1)
+          .contains(contractDTO);
+      verify(clientService, never()).getAllActiveContracts(any(), any(), any());
+    }
+
     @Test
     void testGetAllActiveContractsWithFilterShouldReturn200() {
       ResponseContractDTO contractDTO = aResponseContractDTO();
@@ -142,6 +392,25 @@ class ClientControllerTest {
           .expectBody(BigDecimal.class)
           .isEqualTo(BigDecimal.valueOf(5.2));
     }
+
+    @Test
+    void testGetAllActiveContractsTotalSumWithPrimaryReadPreferenceShouldBypassCache() {
+      String id = aResponseContractDTO().client().id();
+
+      when(clientService.getAllActiveContractsTotalSumOnPrimary(id))
+          .thenReturn(Mono.just(Decimal128.parse("5.2")));
+
+      webTestClient
+          .get()
+          .uri("/api/clients/" + id + "/contracts/total")
+          .header(ReadPreferenceWebFilter.READ_PREFERENCE_HEADER, "primary")
+          .exchange()
+          .expectStatus()
+          .isOk()
+          .expectBody(BigDecimal.class)
+          .isEqualTo(BigDecimal.valueOf(5.2));
+      verify(clientService, never()).getAllActiveContractsTotalSum(any());
+    }
   }
 
   @Nested
@@ -160,6 +429,42 @@ class ClientControllerTest {
           .isCreated();
     }
 
+    @Test
+    void testCreateClientWithIdempotencyKeyShouldReplayStoredId() {
+      when(idempotencyService.execute(eq("clients"), eq("key-1"), any(), any()))
+          .thenReturn(Mono.just("68d1aa5f8e2b4c1a9f3e7d21"));
+
+      webTestClient
+          .post()
+          .uri("/api/clients")
+          .header(IdempotencyService.HEADER, "key-1")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(aCreateClientDTO())
+          .exchange()
+          .expectStatus()
+          .isCreated()
+          .expectBody(String.class)
+          .isEqualTo("68d1aa5f8e2b4c1a9f3e7d21");
+
+      verify(clientService, never()).create(any(CreateClientDTO.class));
+    }
+
+    @Test
+    void testCreateClientWithIdempotencyKeyInProgressShouldReturn409() {
+      when(idempotencyService.execute(eq("clients"), eq("key-1"), any(), any()))
+          .thenReturn(Mono.error(new ConflictException("in progress")));
+
+      webTestClient
+          .post()
+          .uri("/api/clients")
+          .header(IdempotencyService.HEADER, "key-1")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(aCreateClientDTO())
+          .exchange()
+          .expectStatus()
+          .isEqualTo(HttpStatus.CONFLICT);
+    }
+
     @Test
     void testInvalidTypeShouldReturn400() {
       String invalidJson =
@@ -320,7 +625,8 @@ class ClientControllerTest {
   class Update {
     @Test
     void testUpdateClientShouldReturn200() {
-      when(clientService.update(eq("1"), any(UpdateClientDTO.class))).thenReturn(Mono.empty());
+      when(clientService.update(eq("1"), any(UpdateClientDTO.class), isNull()))
+          .thenReturn(Mono.empty());
 
       webTestClient
           .put()
@@ -332,6 +638,35 @@ class ClientControllerTest {
           .isOk();
     }
 
+    @Test
+    void testStaleIfMatchShouldReturn412() {
+      when(clientService.update(eq("1"), any(UpdateClientDTO.class), eq(2)))
+          .thenReturn(Mono.error(new PreconditionFailedException("Client 1 is at version 3")));
+
+      webTestClient
+          .put()
+          .uri("/api/clients/1")
+          .header(HttpHeaders.IF_MATCH, "\"2\"")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(anUpdateClientDTO())
+          .exchange()
+          .expectStatus()
+          .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testWeakIfMatchShouldReturn412() {
+      webTestClient
+          .put()
+          .uri("/api/clients/1")
+          .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(anUpdateClientDTO())
+          .exchange()
+          .expectStatus()
+          .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
     @Test
     void testInvalidEmailShouldReturn400() {
       UpdateClientDTO invalidEmailUpdate =
@@ -0,0 +1,52 @@
+package ch.vaudoise.crm_api.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClientErrorLogTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+  private ClientErrorLog clientErrors;
+
+  @BeforeEach
+  void setup() {
+    Logger logger = new LoggerContext().getLogger(ClientErrorLogTest.class);
+    appender.start();
+    logger.addAppender(appender);
+    clientErrors = new ClientErrorLog(logger, Duration.ofSeconds(10), now::get);
+  }
+
+  @Test
+  void shouldLogOncePerIntervalAndReportSuppressedCount() {
+    for (int i = 0; i < 5; i++) clientErrors.warn("Resource not found", "Client not found: " + i);
+
+    now.addAndGet(Duration.ofSeconds(10).toNanos());
+    clientErrors.warn("Resource not found", "Client not found: 5");
+
+    assertThat(appender.list)
+        .extracting(ILoggingEvent::getFormattedMessage)
+        .containsExactly(
+            "Resource not found : Client not found: 0",
+            "Resource not found : Client not found: 5 (4 more in the last 10s)");
+  }
+
+  @Test
+  void shouldLimitEachCategorySeparately() {
+    clientErrors.warn("Resource not found", "a");
+    clientErrors.warn("Conflict", "b");
+    clientErrors.warn("Conflict", "c");
+
+    assertThat(appender.list)
+        .extracting(ILoggingEvent::getFormattedMessage)
+        .containsExactly("Resource not found : a", "Conflict : b");
+  }
+}
@@ -3,29 +3,41 @@ package ch.vaudoise.crm_api.api;
 import static ch.vaudoise.crm_api.fixtures.ContractFixture.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 
 import ch.vaudoise.crm_api.api.controller.ContractController;
+import ch.vaudoise.crm_api.api.filter.ConcurrencyLimitWebFilter;
+import ch.vaudoise.crm_api.api.filter.DeadlineWebFilter;
 import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
 import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
 import ch.vaudoise.crm_api.service.ContractService;
+import ch.vaudoise.crm_api.service.IdempotencyService;
 import java.time.LocalDate;
 import org.bson.types.Decimal128;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
-@WebFluxTest(controllers = ContractController.class)
+@WebFluxTest(
+    controllers = ContractController.class,
+    excludeFilters =
+        @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE,
+            classes = {ConcurrencyLimitWebFilter.class, DeadlineWebFilter.class}))
 class ContractControllerTest {
 
   @Autowired private WebTestClient webTestClient;
 
   @MockitoBean private ContractService contractService;
+  @MockitoBean private IdempotencyService idempotencyService;
 
   @Nested
   class Create {
@@ -77,7 +89,8 @@ class ContractControllerTest {
   class Update {
     @Test
     void testValidShouldReturn204() {
-      when(contractService.update(eq("1"), any(UpdateContractDTO.class))).thenReturn(Mono.empty());
+      when(contractService.update(eq("1"), any(UpdateContractDTO.class), isNull()))
+          .thenReturn(Mono.empty());
 
       webTestClient
           .put()
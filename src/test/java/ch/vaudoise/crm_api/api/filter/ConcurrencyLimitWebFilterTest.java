@@ -0,0 +1,90 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.vaudoise.crm_api.config.ConcurrencyLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ConcurrencyLimitWebFilterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ConcurrencyLimitWebFilter filter;
+
+  @BeforeEach
+  void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    ConcurrencyLimitProperties properties =
+        new ConcurrencyLimitProperties(
+            true,
+            new ConcurrencyLimitProperties.Route(1, 1, 10),
+            new ConcurrencyLimitProperties.Route(1, 1, 10),
+            2.0,
+            0.2,
+            Duration.ofSeconds(2));
+    filter = new ConcurrencyLimitWebFilter(properties, new ObjectMapper(), meterRegistry);
+  }
+
+  @Test
+  void shouldShedReadsBeyondLimitWith503() {
+    Disposable pending =
+        filter
+            .filter(exchange(MockServerHttpRequest.get("/api/clients/1")), e -> Mono.never())
+            .subscribe();
+
+    MockServerWebExchange rejected = exchange(MockServerHttpRequest.get("/api/clients/2"));
+    StepVerifier.create(filter.filter(rejected, e -> Mono.empty())).verifyComplete();
+
+    assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER))
+        .isEqualTo("2");
+    assertThat(meterRegistry.counter("crm.concurrency.rejected", "route", "read").count())
+        .isEqualTo(1);
+
+    pending.dispose();
+    assertThat(meterRegistry.get("crm.concurrency.in_flight").tag("route", "read").gauge().value())
+        .isZero();
+  }
+
+  @Test
+  void shouldLimitWritesSeparatelyFromReads() {
+    Disposable pending =
+        filter
+            .filter(exchange(MockServerHttpRequest.get("/api/clients/1")), e -> Mono.never())
+            .subscribe();
+
+    MockServerWebExchange write = exchange(MockServerHttpRequest.post("/api/clients"));
+    StepVerifier.create(filter.filter(write, e -> Mono.empty())).verifyComplete();
+
+    assertThat(write.getResponse().getStatusCode()).isNull();
+    pending.dispose();
+  }
+
+  @Test
+  void shouldNotLimitNonApiPaths() {
+    Disposable pending =
+        filter
+            .filter(exchange(MockServerHttpRequest.get("/api/clients/1")), e -> Mono.never())
+            .subscribe();
+
+    MockServerWebExchange health = exchange(MockServerHttpRequest.get("/actuator/health"));
+    StepVerifier.create(filter.filter(health, e -> Mono.empty())).verifyComplete();
+
+    assertThat(health.getResponse().getStatusCode()).isNull();
+    pending.dispose();
+  }
+
+  private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+    return MockServerWebExchange.from(request);
+  }
+}
@@ -0,0 +1,86 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.vaudoise.crm_api.config.DeadlineProperties;
+import ch.vaudoise.crm_api.repository.Deadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class DeadlineWebFilterTest {
+
+  private final DeadlineWebFilter filter =
+      new DeadlineWebFilter(
+          new DeadlineProperties(
+              true,
+              "X-Request-Timeout",
+              Duration.ofSeconds(5),
+              Duration.ofSeconds(10),
+              List.of(
+                  new DeadlineProperties.Route(
+                      "/api/clients/{id}/contracts/total", Duration.ofSeconds(2)))),
+          new ObjectMapper());
+
+  @Test
+  void shouldUseRouteDefault() {
+    assertThat(remainingFor(MockServerHttpRequest.get("/api/clients/1/contracts/total")))
+        .isBetween(Duration.ofMillis(1500), Duration.ofSeconds(2));
+    assertThat(remainingFor(MockServerHttpRequest.get("/api/clients/1")))
+        .isBetween(Duration.ofMillis(4500), Duration.ofSeconds(5));
+  }
+
+  @Test
+  void shouldHonourHeaderUpToMaximum() {
+    assertThat(
+            remainingFor(
+                MockServerHttpRequest.get("/api/clients/1").header("X-Request-Timeout", "800")))
+        .isBetween(Duration.ofMillis(500), Duration.ofMillis(800));
+    assertThat(
+            remainingFor(
+                MockServerHttpRequest.get("/api/clients/1").header("X-Request-Timeout", "1m")))
+        .isBetween(Duration.ofSeconds(9), Duration.ofSeconds(10));
+  }
+
+  @Test
+  void shouldCancelAndAnswer504WhenDeadlineExpires() {
+    AtomicBoolean cancelled = new AtomicBoolean();
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/clients/1").header("X-Request-Timeout", "50ms"));
+
+    StepVerifier.create(
+            filter.filter(exchange, e -> Mono.<Void>never().doOnCancel(() -> cancelled.set(true))))
+        .verifyComplete();
+
+    assertThat(cancelled).isTrue();
+    assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+  }
+
+  @Test
+  void shouldLeaveNonApiPathsWithoutDeadline() {
+    assertThat(remainingFor(MockServerHttpRequest.get("/actuator/health"))).isNull();
+  }
+
+  private Duration remainingFor(MockServerHttpRequest.BaseBuilder<?> request) {
+    AtomicReference<Duration> remaining = new AtomicReference<>();
+    WebFilterChain chain =
+        e ->
+            Mono.deferContextual(
+                context -> {
+                  Deadline.remaining(context).ifPresent(remaining::set);
+                  return Mono.empty();
+                });
+    filter.filter(MockServerWebExchange.from(request), chain).block();
+    return remaining.get();
+  }
+}
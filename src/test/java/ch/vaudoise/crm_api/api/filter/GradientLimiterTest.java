@@ -0,0 +1,90 @@
+package ch.vaudoise.crm_api.api.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class GradientLimiterTest {
+
+  private static final long FAST = Duration.ofMillis(5).toNanos();
+  private static final long SLOW = Duration.ofMillis(200).toNanos();
+
+  @Test
+  void shouldRejectBeyondLimit() {
+    GradientLimiter limiter = new GradientLimiter(2, 1, 10, 2.0, 0.2);
+
+    assertThat(limiter.tryAcquire()).isZero();
+    assertThat(limiter.tryAcquire()).isEqualTo(1);
+    assertThat(limiter.tryAcquire()).isNegative();
+
+    limiter.drop(FAST, 1);
+    assertThat(limiter.inFlight()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldGrowWhileLatencyIsStable() {
+    GradientLimiter limiter = new GradientLimiter(20, 5, 100, 2.0, 0.2);
+
+    saturate(limiter, FAST, 50);
+
+    assertThat(limiter.limit()).isGreaterThan(20);
+  }
+
+  @Test
+  void shouldShrinkWhenLatencyRises() {
+    GradientLimiter limiter = new GradientLimiter(50, 5, 100, 2.0, 0.2);
+    saturate(limiter, FAST, 20);
+    int before = limiter.limit();
+
+    saturate(limiter, SLOW, 20);
+
+    assertThat(limiter.limit()).isLessThan(before).isGreaterThanOrEqualTo(5);
+  }
+
+  @Test
+  void shouldIgnoreSamplesWhenUnderused() {
+    GradientLimiter limiter = new GradientLimiter(20, 5, 100, 2.0, 0.2);
+
+    for (int i = 0; i < 50; i++) {
+      limiter.release(i < 10 ? FAST : SLOW, limiter.tryAcquire());
+    }
+
+    assertThat(limiter.limit()).isEqualTo(20);
+  }
+
+  @Test
+  void shouldShrinkWhenRequestsAreCancelledAtDeadline() {
+    GradientLimiter limiter = new GradientLimiter(50, 5, 100, 2.0, 0.2);
+    saturate(limiter, FAST, 20);
+    int before = limiter.limit();
+
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire();
+      limiter.drop(SLOW, limiter.limit());
+    }
+
+    assertThat(limiter.limit()).isLessThan(before);
+  }
+
+  @Test
+  void shouldIgnoreEarlyCancellations() {
+    GradientLimiter limiter = new GradientLimiter(50, 5, 100, 2.0, 0.2);
+    saturate(limiter, SLOW, 20);
+    int before = limiter.limit();
+
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire();
+      limiter.drop(FAST, limiter.limit());
+    }
+
+    assertThat(limiter.limit()).isEqualTo(before);
+  }
+
+  private static void saturate(GradientLimiter limiter, long rttNanos, int rounds) {
+    for (int i = 0; i < rounds; i++) {
+      limiter.tryAcquire();
+      limiter.release(rttNanos, limiter.limit());
+    }
+  }
+}
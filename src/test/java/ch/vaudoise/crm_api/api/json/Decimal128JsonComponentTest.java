@@ -0,0 +1,58 @@
+package ch.vaudoise.crm_api.api.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+class Decimal128JsonComponentTest {
+
+  private final ObjectMapper mapper =
+      JsonMapper.builder()
+          .addModule(
+              new SimpleModule()
+                  .addSerializer(Decimal128.class, new Decimal128JsonComponent.Serializer())
+                  .addDeserializer(Decimal128.class, new Decimal128JsonComponent.Deserializer()))
+          .build();
+
+  @Test
+  void shouldWriteNumber() throws Exception {
+    assertThat(mapper.writeValueAsString(Decimal128.parse("1234.50"))).isEqualTo("1234.50");
+  }
+
+  @Test
+  void shouldWriteNegativeAndScaledNumbers() throws Exception {
+    assertThat(mapper.writeValueAsString(Decimal128.parse("-0.005"))).isEqualTo("-0.005");
+    assertThat(mapper.writeValueAsString(new Decimal128(0))).isEqualTo("0");
+  }
+
+  @Test
+  void shouldWriteNonFiniteValuesAsStrings() throws Exception {
+    assertThat(mapper.writeValueAsString(Decimal128.NaN)).isEqualTo("\"NaN\"");
+  }
+
+  @Test
+  void shouldRoundTripWithoutPrecisionLoss() throws Exception {
+    Decimal128 value = Decimal128.parse("12345678901234567890.123456789");
+
+    assertThat(mapper.readValue(mapper.writeValueAsString(value), Decimal128.class))
+        .isEqualTo(value);
+  }
+
+  @Test
+  void shouldReadIntegersAndNumericStrings() throws Exception {
+    assertThat(mapper.readValue("42", Decimal128.class)).isEqualTo(new Decimal128(42));
+    assertThat(mapper.readValue("\"0.10\"", Decimal128.class)).isEqualTo(Decimal128.parse("0.10"));
+  }
+
+  @Test
+  void shouldRejectNonNumericStrings() {
+    assertThatThrownBy(() -> mapper.readValue("\"abc\"", Decimal128.class))
+        .isInstanceOf(InvalidFormatException.class);
+  }
+}
@@ -0,0 +1,72 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.validation.ClientValidator;
+import ch.vaudoise.crm_api.validation.ValidClient;
+import jakarta.validation.constraints.Pattern;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class CrmApiRuntimeHintsTest {
+
+  private final RuntimeHints hints = new RuntimeHints();
+
+  CrmApiRuntimeHintsTest() {
+    new CrmApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  void registersLombokEntitiesWhole() {
+    assertThat(
+            RuntimeHintsPredicates.reflection()
+                .onType(Client.class)
+                .withMemberCategories(
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(Client.class, "setName"))
+        .accepts(hints);
+  }
+
+  @Test
+  void registersNestedDecimal128ForBinding() {
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(CreateContractDTO.class, "cost"))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(Decimal128.class)).accepts(hints);
+  }
+
+  @Test
+  void registersCustomAndBuiltInConstraintValidators() {
+    assertThat(
+            RuntimeHintsPredicates.reflection()
+                .onType(ClientValidator.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(ValidClient.class)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(Pattern.class)).accepts(hints);
+    assertThat(
+            RuntimeHintsPredicates.reflection()
+                .onType(
+                    TypeReference.of(
+                        "org.hibernate.validator.internal.constraintvalidators.bv.number.sign.PositiveOrZeroValidatorForNumber")))
+        .accepts(hints);
+  }
+
+  @Test
+  void registersSwaggerUiWebjar() {
+    assertThat(
+            RuntimeHintsPredicates.resource()
+                .forResource("META-INF/resources/webjars/swagger-ui/5.28.1/index.html"))
+        .accepts(hints);
+    assertThat(
+            RuntimeHintsPredicates.resource()
+                .forResource("META-INF/maven/org.webjars/swagger-ui/pom.properties"))
+        .accepts(hints);
+  }
+}
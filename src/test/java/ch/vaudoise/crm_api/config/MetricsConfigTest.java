@@ -0,0 +1,42 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+class MetricsConfigTest {
+
+  private final Function<String, String> uriTag =
+      MetricsConfig.uriTag(
+          () ->
+              Stream.of("/api/clients", "/api/clients/{id}", "/api/clients/lookup")
+                  .map(PathPatternParser.defaultInstance::parse)
+                  .sorted(PathPattern.SPECIFICITY_COMPARATOR)
+                  .toList());
+
+  @Test
+  void shouldReportMatchedRoute() {
+    assertThat(uriTag.apply("/api/clients/4ecbe7f9e8c1c9092c000027"))
+        .isEqualTo("/api/clients/{id}");
+    assertThat(uriTag.apply("/api/clients/not-an-object-id")).isEqualTo("/api/clients/{id}");
+    assertThat(uriTag.apply("/api/clients?ids=1,2")).isEqualTo("/api/clients");
+  }
+
+  @Test
+  void shouldPreferMostSpecificRoute() {
+    assertThat(uriTag.apply("/api/clients/lookup")).isEqualTo("/api/clients/lookup");
+  }
+
+  @Test
+  void shouldReportUnknownPathsAsUnmatched() {
+    assertThat(
+            List.of(
+                "/wp-admin/setup.php", "/api/clients/1/2/3", "/api/contracts/" + "x".repeat(40)))
+        .allSatisfy(uri -> assertThat(uriTag.apply(uri)).isEqualTo(MetricsConfig.UNMATCHED));
+  }
+}
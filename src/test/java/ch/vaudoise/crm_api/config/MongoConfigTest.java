@@ -0,0 +1,28 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.ConnectionString;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+
+class MongoConfigTest {
+
+  private final MongoConnectionDetails serviceConnection =
+      () -> new ConnectionString("mongodb://container:27017/crm-it");
+
+  @Test
+  void shouldUseDatabaseOfConnectionDetails() {
+    assertThat(MongoConfig.databaseName(new MongoProperties(), serviceConnection))
+        .isEqualTo("crm-it");
+  }
+
+  @Test
+  void shouldPreferConfiguredDatabase() {
+    MongoProperties properties = new MongoProperties();
+    properties.setDatabase("crm");
+
+    assertThat(MongoConfig.databaseName(properties, serviceConnection)).isEqualTo("crm");
+  }
+}
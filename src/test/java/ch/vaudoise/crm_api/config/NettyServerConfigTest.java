@@ -0,0 +1,97 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BiPredicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerConfig;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+class NettyServerConfigTest {
+
+  private final LoopResources loops = LoopResources.create("crm-http-test", 1, true);
+
+  @AfterEach
+  void tearDown() {
+    loops.dispose();
+  }
+
+  @Test
+  void shouldApplyServerProperties() {
+    NettyServerProperties properties =
+        properties(new NettyServerProperties.Compression(true, DataSize.ofKilobytes(2), JSON));
+
+    HttpServerConfig config =
+        new NettyServerConfig.ServerTuning(properties, loops)
+            .apply(HttpServer.create())
+            .configuration();
+
+    assertThat(config.idleTimeout()).isEqualTo(Duration.ofSeconds(75));
+    assertThat(config.maxKeepAliveRequests()).isEqualTo(1000);
+    assertThat(config.protocols()).containsExactly(HttpProtocol.HTTP11, HttpProtocol.H2C);
+    assertThat(config.decoder().maxHeaderSize()).isEqualTo(16 * 1024);
+    assertThat(config.decoder().h2cMaxContentLength()).isEqualTo(64 * 1024);
+    assertThat(config.minCompressionSize()).isEqualTo(2048);
+    assertThat(config.compressPredicate()).isNotNull();
+  }
+
+  @Test
+  void shouldLeaveCompressionOffWhenDisabled() {
+    NettyServerProperties properties =
+        properties(new NettyServerProperties.Compression(false, DataSize.ofKilobytes(2), JSON));
+
+    HttpServerConfig config =
+        new NettyServerConfig.ServerTuning(properties, loops)
+            .apply(HttpServer.create())
+            .configuration();
+
+    assertThat(config.minCompressionSize()).isEqualTo(-1);
+    assertThat(config.compressPredicate()).isNull();
+  }
+
+  @Test
+  void shouldOnlyCompressListedMimeTypes() {
+    BiPredicate<HttpServerRequest, HttpServerResponse> compressible =
+        NettyServerConfig.compressible(JSON);
+
+    assertThat(compressible.test(null, response("application/json;charset=UTF-8"))).isTrue();
+    assertThat(compressible.test(null, response("application/problem+json"))).isTrue();
+    assertThat(compressible.test(null, response("application/cbor"))).isFalse();
+    assertThat(compressible.test(null, response("not a mime type"))).isFalse();
+    assertThat(compressible.test(null, response(null))).isFalse();
+  }
+
+  private static final List<String> JSON = List.of("application/json", "application/problem+json");
+
+  private static NettyServerProperties properties(NettyServerProperties.Compression compression) {
+    return new NettyServerProperties(
+        1,
+        Duration.ofSeconds(75),
+        1000,
+        DataSize.ofKilobytes(16),
+        DataSize.ofKilobytes(64),
+        List.of(HttpProtocol.HTTP11, HttpProtocol.H2C),
+        compression);
+  }
+
+  private static HttpServerResponse response(String contentType) {
+    HttpHeaders headers = new DefaultHttpHeaders();
+    if (contentType != null) headers.set(HttpHeaderNames.CONTENT_TYPE, contentType);
+    HttpServerResponse response = mock(HttpServerResponse.class);
+    when(response.responseHeaders()).thenReturn(headers);
+    return response;
+  }
+}
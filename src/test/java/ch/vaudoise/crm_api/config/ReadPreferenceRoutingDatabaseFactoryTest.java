@@ -0,0 +1,105 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.model.exception.DeadlineExceededException;
+import ch.vaudoise.crm_api.repository.Deadline;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import com.mongodb.MongoOperationTimeoutException;
+import com.mongodb.ReadPreference;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReadPreferenceRoutingDatabaseFactoryTest {
+
+  @Mock private ReactiveMongoDatabaseFactory delegate;
+
+  @Mock private MongoDatabase database;
+
+  @Mock private MongoDatabase primaryDatabase;
+
+  @Test
+  void shouldKeepDefaultReadPreferenceWithoutContextFlag() {
+    when(delegate.getMongoDatabase()).thenReturn(Mono.just(database));
+
+    StepVerifier.create(new ReadPreferenceRoutingDatabaseFactory(delegate).getMongoDatabase())
+        .expectNext(database)
+        .verifyComplete();
+    verify(database, never()).withReadPreference(ReadPreference.primary());
+  }
+
+  @Test
+  void shouldRouteToPrimaryWhenRequestedInContext() {
+    when(delegate.getMongoDatabase()).thenReturn(Mono.just(database));
+    when(database.withReadPreference(ReadPreference.primary())).thenReturn(primaryDatabase);
+
+    StepVerifier.create(
+            new ReadPreferenceRoutingDatabaseFactory(delegate)
+                .getMongoDatabase()
+                .contextWrite(ReadConsistency.primary()))
+        .expectNext(primaryDatabase)
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldBoundOperationsByRemainingDeadline() {
+    when(delegate.getMongoDatabase()).thenReturn(Mono.just(database));
+    when(database.withTimeout(anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(primaryDatabase);
+
+    StepVerifier.create(
+            new ReadPreferenceRoutingDatabaseFactory(delegate)
+                .getMongoDatabase()
+                .contextWrite(Deadline.in(Duration.ofSeconds(2))))
+        .expectNext(primaryDatabase)
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldFailWhenDeadlineAlreadyPassed() {
+    when(delegate.getMongoDatabase()).thenReturn(Mono.just(database));
+
+    StepVerifier.create(
+            new ReadPreferenceRoutingDatabaseFactory(delegate)
+                .getMongoDatabase()
+                .contextWrite(Deadline.in(Duration.ofMillis(-1))))
+        .expectError(DeadlineExceededException.class)
+        .verify();
+  }
+
+  @Test
+  void shouldTranslateOperationTimeouts() {
+    PersistenceExceptionTranslator fallback = ex -> null;
+    when(delegate.getExceptionTranslator()).thenReturn(fallback);
+
+    assertThat(
+            new ReadPreferenceRoutingDatabaseFactory(delegate)
+                .getExceptionTranslator()
+                .translateExceptionIfPossible(new MongoOperationTimeoutException("timed out")))
+        .isInstanceOf(QueryTimeoutException.class);
+  }
+
+  @Test
+  void shouldBuildBoundedStalenessReadPreference() {
+    ReadPreference preference =
+        new ReadPreferenceProperties("secondaryPreferred", Duration.ofSeconds(120))
+            .toReadPreference();
+
+    assertThat(preference).isEqualTo(ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,66 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.vaudoise.crm_api.observability.ReactorRequestContext;
+import com.mongodb.ConnectionString;
+import com.mongodb.RequestContext;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.observability.MongoHandlerContext;
+import reactor.util.context.Context;
+
+class TracingConfigTest {
+
+  private static final ConnectionDescription CONNECTION =
+      new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+  @Test
+  void shouldObserveMongoCommandsOfARequest() {
+    Observation request = Observation.start("http.server.requests", ObservationRegistry.NOOP);
+
+    assertThat(
+            TracingConfig.hasParent(
+                "mongodb.command",
+                mongoContext(
+                    new ReactorRequestContext(
+                        Context.of(ObservationThreadLocalAccessor.KEY, request)))))
+        .isTrue();
+  }
+
+  @Test
+  void shouldNotObserveMongoCommandsWithoutParent() {
+    assertThat(
+            TracingConfig.hasParent(
+                "mongodb.command", mongoContext(new ReactorRequestContext(Context.empty()))))
+        .isFalse();
+    assertThat(TracingConfig.hasParent("mongodb.command", mongoContext(null))).isFalse();
+  }
+
+  @Test
+  void shouldLeaveOtherObservationsAlone() {
+    assertThat(TracingConfig.hasParent("crm.service", new Observation.Context())).isTrue();
+  }
+
+  private static MongoHandlerContext mongoContext(RequestContext requestContext) {
+    return new MongoHandlerContext(
+        new ConnectionString("mongodb://localhost/crm-api"),
+        new CommandStartedEvent(
+            requestContext,
+            1,
+            1,
+            CONNECTION,
+            "crm-api",
+            "find",
+            BsonDocument.parse("{find: 'outbox', filter: {}}")),
+        requestContext);
+  }
+}
@@ -0,0 +1,101 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mongodb.MongoException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class TransientTransactionRetryInterceptorTest {
+
+  private Writes target;
+  private Writes proxy;
+
+  @BeforeEach
+  void setup() {
+    target = new Writes();
+    ProxyFactory factory = new ProxyFactory(target);
+    factory.setProxyTargetClass(true);
+    factory.addAdvisor(TransientTransactionRetryInterceptor.advisor());
+    proxy = (Writes) factory.getProxy();
+  }
+
+  @Test
+  void shouldRetryTransientTransactionError() {
+    target.failures = 2;
+
+    StepVerifier.create(proxy.write(transientError())).expectNext("written").verifyComplete();
+
+    assertThat(target.calls).hasValue(3);
+  }
+
+  @Test
+  void shouldGiveUpAfterMaxRetries() {
+    target.failures = Integer.MAX_VALUE;
+
+    StepVerifier.create(proxy.write(transientError()))
+        .expectError(UncategorizedMongoDbException.class)
+        .verify();
+
+    assertThat(target.calls).hasValue(TransientTransactionRetryInterceptor.MAX_RETRIES + 1);
+  }
+
+  @Test
+  void shouldNotRetryOtherErrors() {
+    target.failures = 1;
+
+    StepVerifier.create(proxy.write(new DataIntegrityViolationException("duplicate")))
+        .expectError(DataIntegrityViolationException.class)
+        .verify();
+
+    assertThat(target.calls).hasValue(1);
+  }
+
+  @Test
+  void shouldRetryBlockingTransactions() {
+    target.failures = 1;
+
+    assertThat(proxy.writeBlocking(transientError())).isEqualTo("written");
+    assertThat(target.calls).hasValue(2);
+  }
+
+  @Test
+  void shouldNotRetryBlockingNonTransientErrors() {
+    target.failures = 1;
+
+    assertThatThrownBy(() -> proxy.writeBlocking(new DataIntegrityViolationException("duplicate")))
+        .isInstanceOf(DataIntegrityViolationException.class);
+    assertThat(target.calls).hasValue(1);
+  }
+
+  private static RuntimeException transientError() {
+    MongoException cause = new MongoException(112, "WriteConflict");
+    cause.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+    return new UncategorizedMongoDbException("WriteConflict", cause);
+  }
+
+  static class Writes {
+
+    final AtomicInteger calls = new AtomicInteger();
+    int failures;
+
+    @Transactional
+    public Mono<String> write(RuntimeException error) {
+      return calls.incrementAndGet() <= failures ? Mono.error(error) : Mono.just("written");
+    }
+
+    @Transactional
+    public String writeBlocking(RuntimeException error) {
+      if (calls.incrementAndGet() <= failures) throw error;
+      return "written";
+    }
+  }
+}
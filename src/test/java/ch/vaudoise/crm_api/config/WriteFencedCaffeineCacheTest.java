@@ -0,0 +1,66 @@
+package ch.vaudoise.crm_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class WriteFencedCaffeineCacheTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private WriteFencedCaffeineCache cache(Duration window) {
+    return new WriteFencedCaffeineCache(
+        "clients",
+        Caffeine.newBuilder().buildAsync(),
+        true,
+        () -> ObservationRegistry.NOOP,
+        window,
+        nanos::get);
+  }
+
+  @Test
+  void shouldNotCacheEvictedKeyUntilWindowElapsed() {
+    WriteFencedCaffeineCache cache = cache(Duration.ofSeconds(90));
+    cache.put("1", "before");
+    cache.evict("1");
+
+    cache.put("1", "stale");
+    cache.put("2", "other");
+    assertThat(cache.get("1")).isNull();
+    assertThat(cache.get("2")).isNotNull();
+
+    nanos.addAndGet(Duration.ofSeconds(90).toNanos());
+    cache.put("1", "fresh");
+    assertThat(cache.get("1").get()).isEqualTo("fresh");
+  }
+
+  @Test
+  void shouldNotCacheAnyKeyUntilWindowElapsedAfterClear() {
+    WriteFencedCaffeineCache cache = cache(Duration.ofSeconds(90));
+    cache.clear();
+
+    cache.put("1", "stale");
+    assertThat(cache.putIfAbsent("2", "stale")).isNull();
+    assertThat(cache.get("1")).isNull();
+    assertThat(cache.get("2")).isNull();
+
+    nanos.addAndGet(Duration.ofSeconds(90).toNanos());
+    cache.put("1", "fresh");
+    assertThat(cache.get("1").get()).isEqualTo("fresh");
+  }
+
+  @Test
+  void shouldCacheRightAwayWhenReadingFromPrimary() {
+    WriteFencedCaffeineCache cache = cache(Duration.ZERO);
+    cache.evict("1");
+    cache.clear();
+
+    cache.put("1", "fresh");
+    assertThat(cache.isFenced("1")).isFalse();
+    assertThat(cache.get("1").get()).isEqualTo("fresh");
+  }
+}
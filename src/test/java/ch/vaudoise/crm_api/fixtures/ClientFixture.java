@@ -29,6 +29,7 @@ public class ClientFixture {
         "+41791234567",
         "john@example.com",
         LocalDate.of(1994, 10, 19),
+        null,
         null);
   }
 
@@ -30,7 +30,8 @@ public class ContractFixture {
         LocalDate.now().minusYears(2),
         LocalDate.now().minusMonths(5),
         Decimal128.parse("10"),
-        aResponseClientDTO());
+        aResponseClientDTO(),
+        null);
   }
 
   public static CreateContractDTO aCreateContractDTO() {
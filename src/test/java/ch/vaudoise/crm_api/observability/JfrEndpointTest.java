@@ -0,0 +1,105 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ch.vaudoise.crm_api.config.JfrProperties;
+import ch.vaudoise.crm_api.observability.JfrEndpoint.RecordingDescriptor;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+class JfrEndpointTest {
+
+  @TempDir Path directory;
+  private JfrEndpoint endpoint;
+
+  @BeforeEach
+  void setup() {
+    endpoint =
+        new JfrEndpoint(
+            new JfrProperties(
+                directory,
+                "default",
+                Duration.ofMinutes(1),
+                Duration.ofMinutes(5),
+                DataSize.ofMegabytes(16),
+                2));
+  }
+
+  @AfterEach
+  void teardown() {
+    endpoint.shutdown();
+  }
+
+  @Test
+  void shouldStartStopAndDownloadRecording() throws Exception {
+    RecordingDescriptor started = endpoint.start(null, null);
+    assertThat(started.state()).isEqualTo("RUNNING");
+    assertThat(started.settings()).isEqualTo("default");
+
+    WebEndpointResponse<Resource> snapshot = endpoint.download(started.id());
+    assertThat(snapshot.getStatus()).isEqualTo(200);
+    assertThat(snapshot.getBody().contentLength()).isPositive();
+
+    assertThat(endpoint.stop(started.id()).getBody().state()).isEqualTo("CLOSED");
+    WebEndpointResponse<Resource> file = endpoint.download(started.id());
+    assertThat(file.getBody().getFile().toPath()).isEqualTo(Path.of(started.file()));
+  }
+
+  @Test
+  void shouldLeaveEnvironmentAndSystemPropertiesOutOfRecordings() throws Exception {
+    RecordingDescriptor started = endpoint.start("profile", null);
+
+    Path snapshot = endpoint.download(started.id()).getBody().getFile().toPath();
+    endpoint.stop(started.id());
+
+    for (Path file : List.of(snapshot, Path.of(started.file()))) {
+      assertThat(RecordingFile.readAllEvents(file))
+          .isNotEmpty()
+          .extracting(event -> event.getEventType().getName())
+          .doesNotContainAnyElementsOf(JfrEndpoint.SENSITIVE_EVENTS);
+    }
+  }
+
+  @Test
+  void shouldAllowOneRunningRecording() {
+    endpoint.start("default", Duration.ofSeconds(30));
+
+    assertThatThrownBy(() -> endpoint.start("default", Duration.ofSeconds(30)))
+        .isInstanceOf(InvalidEndpointRequestException.class);
+  }
+
+  @Test
+  void shouldRejectUnknownSettingsAndLongDurations() {
+    assertThatThrownBy(() -> endpoint.start("verbose", null))
+        .isInstanceOf(InvalidEndpointRequestException.class);
+    assertThatThrownBy(() -> endpoint.start(null, Duration.ofHours(1)))
+        .isInstanceOf(InvalidEndpointRequestException.class);
+  }
+
+  @Test
+  void shouldKeepOnlyTheLastRecordings() {
+    for (int i = 0; i < 3; i++) {
+      endpoint.stop(endpoint.start(null, null).id());
+    }
+
+    assertThat(endpoint.recordings()).hasSize(2);
+    assertThat(directory.toFile().list()).hasSize(2);
+  }
+
+  @Test
+  void shouldAnswerNotFoundForUnknownRecording() throws Exception {
+    assertThat(endpoint.download(-1).getStatus()).isEqualTo(404);
+    assertThat(endpoint.stop(-1).getStatus()).isEqualTo(404);
+  }
+}
@@ -0,0 +1,73 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JfrObservationHandlerTest {
+
+  private final ObservationRegistry registry = ObservationRegistry.create();
+
+  @TempDir Path directory;
+
+  @BeforeEach
+  void setup() {
+    registry.observationConfig().observationHandler(new JfrObservationHandler());
+  }
+
+  @Test
+  void shouldRecordServiceOperationWhileEnabled() throws Exception {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(ServiceOperationEvent.class);
+      recording.start();
+      observe("ClientService#findById", "42", "hit", "1");
+      recording.stop();
+      Path file = directory.resolve("service.jfr");
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    }
+
+    assertThat(events)
+        .filteredOn(e -> e.getEventType().getName().equals("ch.vaudoise.crm.ServiceOperation"))
+        .singleElement()
+        .satisfies(
+            event -> {
+              assertThat(event.getString("operation")).isEqualTo("ClientService#findById");
+              assertThat(event.getString("clientId")).isEqualTo("42");
+              assertThat(event.getString("cache")).isEqualTo("hit");
+              assertThat(event.getLong("rows")).isEqualTo(1);
+              assertThat(event.getString("outcome")).isEqualTo("SUCCESS");
+            });
+  }
+
+  @Test
+  void shouldNotAttachEventWhileDisabled() {
+    Observation observation = observe("ClientService#findById", "42", null, "1");
+
+    assertThat((Object) observation.getContext().get(ServiceOperationEvent.class)).isNull();
+  }
+
+  private Observation observe(String operation, String clientId, String cache, String rows) {
+    Observation observation =
+        Observation.createNotStarted(ObservedMethodInterceptor.DEFAULT_NAME, registry)
+            .contextualName(operation)
+            .highCardinalityKeyValue(ObservedMethodInterceptor.CLIENT_ID, clientId)
+            .start();
+    if (cache != null) observation.highCardinalityKeyValue(ObservedCaffeineCache.RESULT, cache);
+    observation
+        .highCardinalityKeyValue(ObservedMethodInterceptor.ROWS, rows)
+        .lowCardinalityKeyValue(ObservedMethodInterceptor.OUTCOME, "SUCCESS")
+        .stop();
+    return observation;
+  }
+}
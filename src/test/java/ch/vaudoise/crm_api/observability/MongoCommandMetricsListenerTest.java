@@ -0,0 +1,122 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.util.context.Context;
+
+class MongoCommandMetricsListenerTest {
+
+  private static final ConnectionDescription CONNECTION =
+      new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+  private SimpleMeterRegistry registry;
+  private MongoCommandMetricsListener listener;
+
+  @BeforeEach
+  void setup() {
+    registry = new SimpleMeterRegistry();
+    listener = new MongoCommandMetricsListener(registry);
+  }
+
+  @Test
+  void shouldRecordLatencyAndDocumentsTaggedByRepositoryMethod() {
+    ReactorRequestContext context =
+        new ReactorRequestContext(
+            Context.of(
+                RepositoryMethodInterceptor.REPOSITORY_METHOD_KEY,
+                "ContractRepository.findByClientIdAndEndDateGreaterThanEqual"));
+
+    listener.commandStarted(
+        new CommandStartedEvent(
+            context,
+            1,
+            42,
+            CONNECTION,
+            "crm-api",
+            "find",
+            BsonDocument.parse("{find: 'contracts', filter: {}}")));
+    listener.commandSucceeded(
+        new CommandSucceededEvent(
+            context,
+            1,
+            42,
+            CONNECTION,
+            "crm-api",
+            "find",
+            BsonDocument.parse("{cursor: {firstBatch: [{}, {}, {}], id: 0}, ok: 1}"),
+            TimeUnit.MILLISECONDS.toNanos(12)));
+
+    assertThat(
+            registry
+                .get("crm.mongo.command")
+                .tag("collection", "contracts")
+                .tag("command", "find")
+                .tag(
+                    "repository_method",
+                    "ContractRepository.findByClientIdAndEndDateGreaterThanEqual")
+                .tag("outcome", "SUCCESS")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            registry
+                .get("crm.mongo.command.documents")
+                .tag("collection", "contracts")
+                .summary()
+                .totalAmount())
+        .isEqualTo(3);
+  }
+
+  @Test
+  void shouldCountFailures() {
+    listener.commandStarted(
+        new CommandStartedEvent(
+            null,
+            1,
+            7,
+            CONNECTION,
+            "crm-api",
+            "aggregate",
+            BsonDocument.parse("{aggregate: 'contracts', pipeline: []}")));
+    listener.commandFailed(
+        new CommandFailedEvent(
+            null,
+            1,
+            7,
+            CONNECTION,
+            "crm-api",
+            "aggregate",
+            1000,
+            new IllegalStateException("boom")));
+
+    assertThat(
+            registry
+                .get("crm.mongo.command.failures")
+                .tag("collection", "contracts")
+                .tag("repository_method", "none")
+                .tag("exception", "IllegalStateException")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldResolveCollectionOfGetMore() {
+    assertThat(
+            MongoCommandMetricsListener.collectionOf(
+                "getMore", BsonDocument.parse("{getMore: 1, collection: 'clients'}")))
+        .isEqualTo("clients");
+  }
+}
@@ -0,0 +1,88 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ObservedCaffeineCacheTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+  private final List<Observation.Context> stopped = new ArrayList<>();
+  private ObservedCaffeineCache cache;
+
+  @BeforeEach
+  void setup() {
+    observationRegistry
+        .observationConfig()
+        .observationHandler(new DefaultMeterObservationHandler(meterRegistry))
+        .observationHandler(
+            new ObservationHandler<>() {
+              @Override
+              public void onStop(Observation.Context context) {
+                stopped.add(context);
+              }
+
+              @Override
+              public boolean supportsContext(Observation.Context context) {
+                return true;
+              }
+            });
+    cache =
+        new ObservedCaffeineCache(
+            "clients", Caffeine.newBuilder().buildAsync(), true, () -> observationRegistry);
+  }
+
+  @Test
+  void shouldTagMissAndHit() {
+    assertThat(cache.retrieve("42")).isNull();
+    cache.put("42", "client");
+    assertThat(cache.retrieve("42").join()).isNotNull();
+
+    assertThat(count("miss")).isEqualTo(1);
+    assertThat(count("hit")).isEqualTo(1);
+  }
+
+  @Test
+  void shouldTagLoadThenHit() {
+    assertThat(cache.retrieve("42", () -> CompletableFuture.completedFuture("client")))
+        .isCompletedWithValue("client");
+    assertThat(cache.retrieve("42", () -> CompletableFuture.completedFuture("other")))
+        .isCompletedWithValue("client");
+
+    assertThat(count("load")).isEqualTo(1);
+    assertThat(count("hit")).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNestUnderCurrentObservation() {
+    Observation service = Observation.start("crm.service", observationRegistry);
+    try (Observation.Scope scope = service.openScope()) {
+      cache.retrieve("42");
+    }
+    service.stop();
+
+    assertThat(stopped.getFirst().getName()).isEqualTo(ObservedCaffeineCache.NAME);
+    assertThat(stopped.getFirst().getParentObservation()).isSameAs(service);
+  }
+
+  private long count(String result) {
+    return meterRegistry
+        .get(ObservedCaffeineCache.NAME)
+        .tag("cache", "clients")
+        .tag("result", result)
+        .timer()
+        .count();
+  }
+}
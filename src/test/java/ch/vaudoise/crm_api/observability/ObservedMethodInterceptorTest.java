@@ -0,0 +1,146 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ObservedMethodInterceptorTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+  private Sample proxy;
+
+  @BeforeEach
+  void setup() {
+    observationRegistry
+        .observationConfig()
+        .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+    ProxyFactory factory = new ProxyFactory(new Sample(observationRegistry));
+    factory.setProxyTargetClass(true);
+    factory.addAdvice(new ObservedMethodInterceptor(() -> observationRegistry));
+    proxy = (Sample) factory.getProxy();
+  }
+
+  @Test
+  void shouldTimeMonoUntilItCompletes() {
+    Mono<String> mono = proxy.slow();
+    assertThat(meterRegistry.find("crm.service").timer()).isNull();
+
+    StepVerifier.create(mono).expectNext("done").verifyComplete();
+
+    Timer timer = timer("slow", "SUCCESS");
+    assertThat(timer.count()).isEqualTo(1);
+    assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(50);
+  }
+
+  @Test
+  void shouldAssembleWithinObservationOnEachSubscription() {
+    Mono<String> mono = proxy.current();
+    assertThat(proxy.calls()).isZero();
+
+    StepVerifier.create(mono).expectNext("Sample#current").verifyComplete();
+    StepVerifier.create(mono).expectNext("Sample#current").verifyComplete();
+
+    assertThat(proxy.calls()).isEqualTo(2);
+    assertThat(timer("current", "SUCCESS").count()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldTagDomainErrorsAsRejected() {
+    StepVerifier.create(proxy.missing()).verifyError(NotFoundException.class);
+
+    assertThat(timer("missing", "REJECTED").count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldTagOtherErrorsAsError() {
+    StepVerifier.create(proxy.failing()).verifyError(IllegalStateException.class);
+
+    assertThat(timer("failing", "ERROR").getId().getTag("error"))
+        .isEqualTo("IllegalStateException");
+  }
+
+  @Test
+  void shouldTagCancelledFlux() {
+    StepVerifier.create(proxy.endless(), 1).expectNextCount(1).thenCancel().verify();
+
+    assertThat(timer("endless", "CANCELLED").count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldUseAnnotationNameOnMethod() {
+    StepVerifier.create(proxy.named()).expectNext(1).verifyComplete();
+
+    assertThat(meterRegistry.get("crm.custom").tag("kind", "test").timer().count()).isEqualTo(1);
+  }
+
+  private Timer timer(String method, String outcome) {
+    return meterRegistry
+        .get("crm.service")
+        .tag("class", "Sample")
+        .tag("method", method)
+        .tag("outcome", outcome)
+        .timer();
+  }
+
+  @Observed
+  static class Sample {
+
+    private final ObservationRegistry registry;
+    private int calls;
+
+    Sample() {
+      this(ObservationRegistry.NOOP);
+    }
+
+    Sample(ObservationRegistry registry) {
+      this.registry = registry;
+    }
+
+    int calls() {
+      return calls;
+    }
+
+    Mono<String> current() {
+      calls++;
+      return Mono.just(registry.getCurrentObservation().getContext().getContextualName());
+    }
+
+    Mono<String> slow() {
+      return Mono.just("done").delayElement(Duration.ofMillis(50));
+    }
+
+    Mono<String> missing() {
+      return Mono.error(new NotFoundException("Client not found"));
+    }
+
+    Mono<String> failing() {
+      return Mono.error(new IllegalStateException("boom"));
+    }
+
+    Flux<Long> endless() {
+      return Flux.interval(Duration.ofMillis(1));
+    }
+
+    @Observed(
+        name = "crm.custom",
+        lowCardinalityKeyValues = {"kind", "test"})
+    Mono<Integer> named() {
+      return Mono.just(1);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SamplingTurboFilterTest {
+
+  private final LoggerContext context = new LoggerContext();
+  private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+  @BeforeEach
+  void setup() {
+    filter.setContext(context);
+    filter.addSample("ch.vaudoise.crm_api.service=4");
+    filter.start();
+  }
+
+  @Test
+  void shouldKeepOneInNInfoEvents() {
+    assertThat(passed("ch.vaudoise.crm_api.service.ClientService", Level.INFO, 20)).isEqualTo(5);
+  }
+
+  @Test
+  void shouldAlwaysKeepWarningsAndErrors() {
+    assertThat(passed("ch.vaudoise.crm_api.service.ClientService", Level.WARN, 20)).isEqualTo(20);
+    assertThat(passed("ch.vaudoise.crm_api.service.ClientService", Level.ERROR, 20)).isEqualTo(20);
+  }
+
+  @Test
+  void shouldNotSampleOtherLoggers() {
+    assertThat(passed("ch.vaudoise.crm_api.service2.Other", Level.INFO, 20)).isEqualTo(20);
+    assertThat(passed("org.mongodb.driver", Level.INFO, 20)).isEqualTo(20);
+  }
+
+  @Test
+  void shouldNotCountEventsBelowLoggerLevel() {
+    String loggerName = "ch.vaudoise.crm_api.service.ContractService";
+    context.getLogger(loggerName).setLevel(Level.INFO);
+
+    assertThat(passed(loggerName, Level.DEBUG, 3)).isEqualTo(3);
+    assertThat(passed(loggerName, Level.INFO, 1)).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotCountLevelChecks() {
+    String loggerName = "ch.vaudoise.crm_api.service.ClientService";
+    for (int i = 0; i < 3; i++) {
+      filter.decide(null, context.getLogger(loggerName), Level.INFO, null, null, null);
+    }
+
+    assertThat(passed(loggerName, Level.INFO, 1)).isEqualTo(1);
+  }
+
+  private long passed(String loggerName, Level level, int events) {
+    return IntStream.range(0, events)
+        .mapToObj(
+            i -> filter.decide(null, context.getLogger(loggerName), level, "message", null, null))
+        .filter(reply -> reply == FilterReply.NEUTRAL)
+        .count();
+  }
+}
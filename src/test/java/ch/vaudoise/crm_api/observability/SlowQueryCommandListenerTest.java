@@ -0,0 +1,134 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.util.context.Context;
+
+@ExtendWith(MockitoExtension.class)
+class SlowQueryCommandListenerTest {
+
+  private static final ConnectionDescription CONNECTION =
+      new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+  private static final BsonDocument FIND =
+      BsonDocument.parse(
+          "{find: 'contracts', filter: {clientId: {$oid: '507f1f77bcf86cd799439011'},"
+              + " endDate: {$gte: {$date: '2025-01-01T00:00:00Z'}}}, $db: 'crm-api',"
+              + " lsid: {id: 1}}");
+
+  private static final String METHOD =
+      "ContractRepository.findByClientIdAndEndDateGreaterThanEqual";
+
+  private static final ReactorRequestContext TAGGED =
+      new ReactorRequestContext(
+          Context.of(RepositoryMethodInterceptor.REPOSITORY_METHOD_KEY, METHOD));
+
+  @Mock private SlowQueryRecorder recorder;
+
+  private SlowQueryCommandListener listener;
+
+  @BeforeEach
+  void setup() {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("slowQueryRecorder", recorder);
+    listener =
+        new SlowQueryCommandListener(
+            Duration.ofMillis(100),
+            Set.of(METHOD),
+            beanFactory.getBeanProvider(SlowQueryRecorder.class));
+  }
+
+  @Test
+  void shouldCaptureCommandOverThreshold() {
+    run(150);
+
+    verify(recorder).capture(eq("find"), eq(FIND), eq(METHOD), eq(Duration.ofMillis(150)));
+  }
+
+  @Test
+  void shouldKeepCopyOfCommandReleasedByDriver() {
+    BsonDocument pooled = FIND.clone();
+    listener.commandStarted(
+        new CommandStartedEvent(TAGGED, 1, 3, CONNECTION, "crm-api", "find", pooled));
+    pooled.clear();
+    succeed(150);
+
+    verify(recorder).capture(eq("find"), eq(FIND), eq(METHOD), eq(Duration.ofMillis(150)));
+  }
+
+  @Test
+  void shouldIgnoreCommandUnderThreshold() {
+    run(20);
+
+    verify(recorder, never()).capture(any(), any(), any(), any());
+  }
+
+  @Test
+  void shouldNotCopyCommandsOfOtherMethods() {
+    BsonDocument pooled = FIND.clone();
+    ReactorRequestContext other =
+        new ReactorRequestContext(
+            Context.of(
+                RepositoryMethodInterceptor.REPOSITORY_METHOD_KEY, "ClientRepository.findAllById"));
+    listener.commandStarted(
+        new CommandStartedEvent(other, 1, 3, CONNECTION, "crm-api", "find", pooled));
+    listener.commandStarted(
+        new CommandStartedEvent(null, 2, 3, CONNECTION, "crm-api", "find", pooled));
+    pooled.clear();
+    succeed(150);
+
+    verify(recorder, never()).capture(any(), any(), any(), any());
+  }
+
+  @Test
+  void shouldRedactParametersFromShape() {
+    assertThat(QueryShapes.shapeOf("find", FIND).toJson())
+        .isEqualTo(
+            "{\"find\": \"contracts\", \"filter\": {\"clientId\": \"?object_id\","
+                + " \"endDate\": {\"$gte\": \"?date_time\"}}}");
+  }
+
+  @Test
+  void shouldStripSessionFieldsBeforeExplain() {
+    assertThat(QueryShapes.explainable(FIND).keySet()).containsExactly("find", "filter");
+  }
+
+  private void run(long elapsedMillis) {
+    listener.commandStarted(
+        new CommandStartedEvent(TAGGED, 1, 3, CONNECTION, "crm-api", "find", FIND));
+    succeed(elapsedMillis);
+  }
+
+  private void succeed(long elapsedMillis) {
+    listener.commandSucceeded(
+        new CommandSucceededEvent(
+            null,
+            1,
+            3,
+            CONNECTION,
+            "crm-api",
+            "find",
+            BsonDocument.parse("{ok: 1}"),
+            TimeUnit.MILLISECONDS.toNanos(elapsedMillis)));
+  }
+}
@@ -0,0 +1,93 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.config.SlowQueryProperties;
+import ch.vaudoise.crm_api.model.entity.SlowQuery;
+import ch.vaudoise.crm_api.repository.SlowQueryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class SlowQueryRecorderTest {
+
+  private static final BsonDocument FIND = BsonDocument.parse("{find: 'contracts', filter: {}}");
+
+  @Mock private ReactiveMongoTemplate mongoTemplate;
+
+  @Mock private SlowQueryRepository slowQueryRepository;
+
+  private SlowQueryRecorder recorder;
+
+  @BeforeEach
+  void setup() {
+    SlowQueryProperties properties =
+        new SlowQueryProperties(
+            true, Duration.ofMillis(100), 30, DataSize.ofMegabytes(1), 10, Set.of());
+    recorder =
+        new SlowQueryRecorder(
+            mongoTemplate, slowQueryRepository, properties, new SimpleMeterRegistry());
+    lenient().when(mongoTemplate.getCollectionName(SlowQuery.class)).thenReturn("slow_queries");
+  }
+
+  @Test
+  void shouldNotCaptureBeforeCollectionIsCapped() {
+    recorder.capture("find", FIND, null, Duration.ofSeconds(1));
+
+    verify(mongoTemplate, never()).executeCommand(any(Document.class));
+  }
+
+  @Test
+  void shouldCreateCappedCollectionWhenMissing() {
+    when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(Mono.just(listing()));
+    when(mongoTemplate.createCollection(eq(SlowQuery.class), any(CollectionOptions.class)))
+        .thenReturn(Mono.empty());
+
+    recorder.createCappedCollection();
+
+    verify(mongoTemplate)
+        .createCollection(
+            eq(SlowQuery.class),
+            argThat((CollectionOptions options) -> options.getCapped().orElse(false)));
+  }
+
+  @Test
+  void shouldConvertUncappedCollection() {
+    when(mongoTemplate.executeCommand(any(Document.class)))
+        .thenReturn(
+            Mono.just(
+                listing(new Document("name", "slow_queries").append("options", new Document()))))
+        .thenReturn(Mono.just(new Document("ok", 1)));
+
+    recorder.createCappedCollection();
+
+    verify(mongoTemplate)
+        .executeCommand(
+            argThat((Document command) -> "slow_queries".equals(command.get("convertToCapped"))));
+    verify(mongoTemplate, never())
+        .createCollection(eq(SlowQuery.class), any(CollectionOptions.class));
+  }
+
+  private static Document listing(Document... collections) {
+    return new Document("cursor", new Document("firstBatch", List.of(collections)));
+  }
+}
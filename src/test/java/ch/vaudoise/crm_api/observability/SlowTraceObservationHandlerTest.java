@@ -0,0 +1,104 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import ch.vaudoise.crm_api.config.TracingProperties.SlowTrace;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+class SlowTraceObservationHandlerTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+  private final Logger logger = (Logger) LoggerFactory.getLogger(SlowTraceObservationHandler.class);
+  private final ObservationRegistry registry = ObservationRegistry.create();
+
+  @BeforeEach
+  void setup() {
+    appender.start();
+    logger.addAppender(appender);
+    registry
+        .observationConfig()
+        .observationHandler(
+            new SlowTraceObservationHandler(
+                new SlowTrace(true, Duration.ofMillis(500), 1, 3), now::get));
+  }
+
+  @AfterEach
+  void teardown() {
+    logger.detachAppender(appender);
+  }
+
+  @Test
+  void shouldLogBreakdownOfSlowTrace() {
+    Observation request = start("http get /api/clients/{id}", null);
+    Observation service = start("ClientService#findById", request);
+    advance(2);
+    Observation cache = start("cache clients", service);
+    advance(1);
+    cache.stop();
+    Observation find = start("find crm-api.clients", service);
+    advance(600);
+    find.error(new IllegalStateException("timeout")).stop();
+    service.stop();
+    advance(10);
+    request.stop();
+
+    assertThat(appender.list).hasSize(1);
+    assertThat(appender.list.getFirst().getFormattedMessage())
+        .isEqualTo(
+            String.join(
+                System.lineSeparator(),
+                "Slow trace http get /api/clients/{id} took 613 ms",
+                "   613 ms at +0     http get /api/clients/{id}",
+                "   603 ms at +0       ClientService#findById",
+                "     1 ms at +2         cache clients",
+                "   600 ms at +3         find crm-api.clients [error]"));
+  }
+
+  @Test
+  void shouldNotLogFastTrace() {
+    Observation request = start("http get /api/clients/{id}", null);
+    advance(499);
+    request.stop();
+
+    assertThat(appender.list).isEmpty();
+  }
+
+  @Test
+  void shouldCapStepsAndLogsPerMinute() {
+    for (int trace = 0; trace < 2; trace++) {
+      Observation request = start("http get /api/clients", null);
+      for (int i = 0; i < 4; i++) {
+        start("find crm-api.clients", request).stop();
+      }
+      advance(500);
+      request.stop();
+    }
+
+    assertThat(appender.list).hasSize(1);
+    assertThat(appender.list.getFirst().getFormattedMessage().lines())
+        .hasSize(6)
+        .endsWith("1 more steps not shown");
+  }
+
+  private Observation start(String name, Observation parent) {
+    return Observation.createNotStarted(name, registry)
+        .contextualName(name)
+        .parentObservation(parent)
+        .start();
+  }
+
+  private void advance(long millis) {
+    now.addAndGet(Duration.ofMillis(millis).toNanos());
+  }
+}
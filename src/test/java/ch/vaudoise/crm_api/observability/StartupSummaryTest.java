@@ -0,0 +1,38 @@
+package ch.vaudoise.crm_api.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+class StartupSummaryTest {
+
+  @Test
+  void shouldSummarizePhasesAndBeansBySelfTime() throws InterruptedException {
+    BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+    StartupStep refresh = startup.start("spring.context.refresh");
+    StartupStep outer = startup.start(StartupSummary.INSTANTIATE).tag("beanName", "outer");
+    Thread.sleep(20);
+    StartupStep inner = startup.start(StartupSummary.INSTANTIATE).tag("beanName", "inner");
+    Thread.sleep(80);
+    inner.end();
+    outer.end();
+    refresh.end();
+
+    Map<String, Object> summary =
+        StartupSummary.summarize(
+            startup.getBufferedTimeline(), Duration.ofMillis(500), Duration.ofMillis(800));
+
+    assertThat(summary)
+        .containsEntry("total", 800L)
+        .containsEntry("jvm", 300L)
+        .containsEntry("ready", 500L)
+        .doesNotContainKey("environment");
+    assertThat((Long) summary.get("refresh")).isGreaterThanOrEqualTo(100L);
+    assertThat((Long) summary.get("beans")).isGreaterThanOrEqualTo(100L);
+    assertThat((String) summary.get("slowest-beans")).matches("inner:\\d+,outer:\\d+");
+  }
+}
@@ -0,0 +1,124 @@
+package ch.vaudoise.crm_api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoSocketOpenException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.ServerAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexesTest {
+
+  @Mock private ReactiveMongoTemplate mongoTemplate;
+
+  @Mock private ReactiveIndexOperations indexOperations;
+
+  private MongoIndexes indexes;
+
+  @BeforeEach
+  void setup() {
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+    mappingContext.setInitialEntitySet(Set.of(Client.class, Contract.class));
+    mappingContext.afterPropertiesSet();
+    indexes = new MongoIndexes(mongoTemplate, mappingContext);
+    lenient().when(mongoTemplate.indexOps(any(Class.class))).thenReturn(indexOperations);
+  }
+
+  @Test
+  void shouldBeReadyOnceUniqueIndexesExist() {
+    when(indexOperations.createIndex(any())).thenReturn(Mono.just("index"));
+
+    assertThat(indexes.health().block().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    indexes.create();
+
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> verify(indexOperations, times(4)).createIndex(any()));
+    assertThat(indexes.health().block().getStatus()).isEqualTo(Status.UP);
+    assertThat(indexes.health().block().getDetails()).containsEntry("unique", 1);
+  }
+
+  @Test
+  void shouldStayOutOfServiceUntilUniqueIndexCreationSucceeds() {
+    when(indexOperations.createIndex(any()))
+        .thenAnswer(
+            invocation -> {
+              IndexDefinition definition = invocation.getArgument(0);
+              return Boolean.TRUE.equals(definition.getIndexOptions().get("unique"))
+                  ? Mono.error(
+                      new DataAccessResourceFailureException(
+                          "refused", new MongoSocketOpenException("refused", new ServerAddress())))
+                  : Mono.just("index");
+            })
+        .thenReturn(Mono.just("index"));
+
+    indexes.create();
+
+    assertThat(indexes.health().block().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(indexes.health().block().getStatus()).isEqualTo(Status.UP));
+  }
+
+  @Test
+  void shouldGoDownWithoutRetryingPermanentFailure() {
+    when(indexOperations.createIndex(any()))
+        .thenReturn(
+            Mono.error(
+                new UncategorizedMongoDbException(
+                    "conflict",
+                    new MongoCommandException(
+                        new BsonDocument("code", new BsonInt32(86))
+                            .append("errmsg", new BsonString("IndexKeySpecsConflict")),
+                        new ServerAddress()))));
+
+    indexes.create();
+
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> assertThat(indexes.health().block().getStatus()).isEqualTo(Status.DOWN));
+    assertThat(indexes.health().block().getDetails()).containsKey("error");
+    verify(indexOperations, times(1)).createIndex(any());
+  }
+
+  @Test
+  void shouldRetryOnlyTransientFailures() {
+    assertThat(
+            MongoIndexes.isTransient(
+                new DataAccessResourceFailureException(
+                    "timeout", new MongoTimeoutException("no server selected"))))
+        .isTrue();
+    assertThat(MongoIndexes.isTransient(new IllegalStateException("bug"))).isFalse();
+  }
+}
@@ -5,16 +5,29 @@ import static ch.vaudoise.crm_api.fixtures.ContractFixture.aContract;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 
+import ch.vaudoise.crm_api.config.WriteFencedCaffeineCache;
+import ch.vaudoise.crm_api.model.dto.client.ClientLookupDTO;
 import ch.vaudoise.crm_api.model.dto.client.CreateClientDTO;
 import ch.vaudoise.crm_api.model.dto.client.UpdateClientDTO;
 import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
 import ch.vaudoise.crm_api.model.entity.Contract;
 import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
 import ch.vaudoise.crm_api.repository.ClientRepository;
 import ch.vaudoise.crm_api.repository.ContractRepository;
+import ch.vaudoise.crm_api.repository.ReadConsistency;
+import ch.vaudoise.crm_api.service.outbox.OutboxService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import org.bson.types.Decimal128;
 import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,9 +36,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import reactor.util.context.Context;
 
 @ExtendWith(MockitoExtension.class)
 class ClientServiceTest {
@@ -36,6 +53,20 @@ class ClientServiceTest {
 
   @Mock private ContractRepository contractRepository;
 
+  @Mock private OutboxService outboxService;
+
+  @Mock private ClientSummaryFanOut clientSummaryFanOut;
+
+  @Mock private CacheManager cacheManager;
+
+  @BeforeEach
+  void setUp() {
+    Mockito.lenient()
+        .when(outboxService.record(any(), any(), any(), any()))
+        .thenReturn(Mono.empty());
+    Mockito.lenient().when(clientSummaryFanOut.afterCommit(any())).thenReturn(Mono.empty());
+  }
+
   @Nested
   class FindById {
 
@@ -50,6 +81,23 @@ class ClientServiceTest {
           .verifyComplete();
     }
 
+    @Test
+    void shouldReadFromPrimary() {
+      Client mockClient = aClient();
+      ObjectId clientId = mockClient.getId();
+      Mockito.when(clientRepository.findById(clientId))
+          .thenReturn(
+              Mono.deferContextual(
+                  context ->
+                      ReadConsistency.isPrimary(context)
+                          ? Mono.just(mockClient)
+                          : Mono.error(new IllegalStateException("not on primary"))));
+
+      StepVerifier.create(clientService.findByIdOnPrimary(clientId.toString()))
+          .expectNext(mockClient.toDTO())
+          .verifyComplete();
+    }
+
     @Test
     void shouldThrowWhenNotFound() {
       Client mockClient = aClient();
@@ -83,7 +131,10 @@ class ClientServiceTest {
       StepVerifier.create(
               clientService.getAllActiveContracts(
                   mockClient.getId().toString(), LocalDate.now().minusDays(5), LocalDate.now()))
-          .expectNextMatches(dto -> dto.equals(mockContract.toDTO(mockClient.toDTO())))
+          .expectNextMatches(
+              dto ->
+                  dto.equals(
+                      mockContract.toDTO(ClientSummary.of(mockClient).toDTO(mockClient.getId()))))
           .verifyComplete();
     }
 
@@ -101,7 +152,10 @@ class ClientServiceTest {
 
       StepVerifier.create(
               clientService.getAllActiveContracts(mockClient.getId().toString(), null, null))
-          .expectNextMatches(dto -> dto.equals(mockContract.toDTO(mockClient.toDTO())))
+          .expectNextMatches(
+              dto ->
+                  dto.equals(
+                      mockContract.toDTO(ClientSummary.of(mockClient).toDTO(mockClient.getId()))))
           .verifyComplete();
     }
 
@@ -121,7 +175,10 @@ class ClientServiceTest {
       StepVerifier.create(
               clientService.getAllActiveContracts(
                   mockClient.getId().toString(), LocalDate.now(), null))
-          .expectNextMatches(dto -> dto.equals(mockContract.toDTO(mockClient.toDTO())))
+          .expectNextMatches(
+              dto ->
+                  dto.equals(
+                      mockContract.toDTO(ClientSummary.of(mockClient).toDTO(mockClient.getId()))))
           .verifyComplete();
     }
 
@@ -140,8 +197,35 @@ class ClientServiceTest {
       StepVerifier.create(
               clientService.getAllActiveContracts(
                   mockClient.getId().toString(), null, LocalDate.now()))
-          .expectNextMatches(dto -> dto.equals(mockContract.toDTO(mockClient.toDTO())))
+          .expectNextMatches(
+              dto ->
+                  dto.equals(
+                      mockContract.toDTO(ClientSummary.of(mockClient).toDTO(mockClient.getId()))))
+          .verifyComplete();
+    }
+
+    @Test
+    void shouldServeContractsFromClientSummaryWithoutLoadingClient() {
+      Client mockClient = aClient().toBuilder().version(2).build();
+      Contract mockContract =
+          aContract().toBuilder().clientSummary(ClientSummary.of(mockClient)).build();
+      Mockito.when(
+              contractRepository.findByClientIdAndEndDateGreaterThanEqual(
+                  eq(mockClient.getId()), any()))
+          .thenReturn(Flux.just(mockContract));
+
+      StepVerifier.create(
+              clientService.getAllActiveContracts(mockClient.getId().toString(), null, null))
+          .assertNext(
+              dto -> {
+                assertThat(dto.client().id()).isEqualTo(mockClient.getId().toString());
+                assertThat(dto.client().name()).isEqualTo(mockClient.getName());
+                assertThat(dto.client().email()).isEqualTo(mockClient.getEmail());
+                assertThat(dto.client().version()).isEqualTo(2);
+              })
           .verifyComplete();
+
+      Mockito.verify(clientRepository, Mockito.never()).findById(any(ObjectId.class));
     }
 
     @Test
@@ -149,6 +233,8 @@ class ClientServiceTest {
       Client mockClient = aClient();
       ObjectId clientId = mockClient.getId();
       Mockito.when(clientRepository.findById(clientId)).thenReturn(Mono.empty());
+      Mockito.when(contractRepository.findByClientIdAndEndDateGreaterThanEqual(eq(clientId), any()))
+          .thenReturn(Flux.empty());
 
       StepVerifier.create(clientService.getAllActiveContracts(clientId.toString(), null, null))
           .expectErrorSatisfies(
@@ -163,13 +249,14 @@ class ClientServiceTest {
     void shouldThrowIfFromAfterTo() {
       Client mockClient = aClient();
       ObjectId clientId = mockClient.getId();
-      Mockito.when(clientRepository.findById(clientId)).thenReturn(Mono.just(mockClient));
 
       StepVerifier.create(
               clientService.getAllActiveContracts(
                   clientId.toString(), LocalDate.now(), LocalDate.now().minusDays(2)))
           .expectError(IllegalArgumentException.class)
           .verify();
+
+      Mockito.verifyNoInteractions(clientRepository, contractRepository);
     }
   }
 
@@ -250,6 +337,126 @@ class ClientServiceTest {
     }
   }
 
+  @Nested
+  class FindAllById {
+
+    @Test
+    void shouldServeHitsFromCacheAndLoadMissesInOneQuery() {
+      Client cached = aClient();
+      Client stored = aClient().toBuilder().id(new ObjectId()).name("Jane Doe").build();
+      ObjectId unknown = new ObjectId();
+      CaffeineCache cache = new CaffeineCache("clients", Caffeine.newBuilder().buildAsync(), true);
+      cache.put(cached.getId().toString(), cached.toDTO());
+      Mockito.when(cacheManager.getCache("clients")).thenReturn(cache);
+      Mockito.when(clientRepository.findAllById(anyIterable())).thenReturn(Flux.just(stored));
+
+      StepVerifier.create(
+              clientService.findAllById(
+                  List.of(
+                      unknown.toString(), stored.getId().toString(), cached.getId().toString())))
+          .assertNext(
+              results ->
+                  assertThat(results)
+                      .containsExactly(
+                          new ClientLookupDTO(unknown.toString(), false, null),
+                          new ClientLookupDTO(stored.getId().toString(), true, stored.toDTO()),
+                          new ClientLookupDTO(cached.getId().toString(), true, cached.toDTO())))
+          .verifyComplete();
+
+      Mockito.verify(clientRepository)
+          .findAllById(
+              Mockito.<Iterable<ObjectId>>argThat(
+                  ids ->
+                      Set.copyOf((Collection<ObjectId>) ids)
+                          .equals(Set.of(unknown, stored.getId()))));
+      assertThat(cache.get(stored.getId().toString())).isNotNull();
+      assertThat(cache.get(unknown.toString())).isNull();
+    }
+
+    @Test
+    void shouldLoadMissesWithCallerContext() {
+      Client stored = aClient();
+      CaffeineCache cache = new CaffeineCache("clients", Caffeine.newBuilder().buildAsync(), true);
+      Mockito.when(cacheManager.getCache("clients")).thenReturn(cache);
+      Mockito.when(clientRepository.findAllById(anyIterable()))
+          .thenReturn(
+              Flux.deferContextual(
+                  context ->
+                      context.hasKey("caller")
+                          ? Flux.just(stored)
+                          : Flux.error(new IllegalStateException("context lost"))));
+
+      StepVerifier.create(
+              clientService
+                  .findAllById(List.of(stored.getId().toString()))
+                  .contextWrite(Context.of("caller", "test")))
+          .assertNext(
+              results ->
+                  assertThat(results)
+                      .containsExactly(
+                          new ClientLookupDTO(stored.getId().toString(), true, stored.toDTO())))
+          .verifyComplete();
+    }
+
+    @Test
+    void shouldBypassCacheOnPrimaryRead() {
+      Client stored = aClient();
+      String id = stored.getId().toString();
+      CaffeineCache cache = new CaffeineCache("clients", Caffeine.newBuilder().buildAsync(), true);
+      cache.put(id, aClient().toBuilder().name("Stale").build().toDTO());
+      Mockito.when(cacheManager.getCache("clients")).thenReturn(cache);
+      Mockito.when(clientRepository.findAllById(anyIterable()))
+          .thenReturn(
+              Flux.deferContextual(
+                  context ->
+                      ReadConsistency.isPrimary(context)
+                          ? Flux.just(stored)
+                          : Flux.error(new IllegalStateException("not on primary"))));
+
+      StepVerifier.create(
+              clientService.findAllById(List.of(id)).contextWrite(ReadConsistency.primary()))
+          .assertNext(
+              results ->
+                  assertThat(results)
+                      .containsExactly(new ClientLookupDTO(id, true, stored.toDTO())))
+          .verifyComplete();
+    }
+
+    @Test
+    void shouldNotCacheClientsJustWritten() {
+      Client stored = aClient();
+      String id = stored.getId().toString();
+      WriteFencedCaffeineCache cache =
+          new WriteFencedCaffeineCache(
+              "clients",
+              Caffeine.newBuilder().buildAsync(),
+              true,
+              () -> ObservationRegistry.NOOP,
+              Duration.ofSeconds(90));
+      cache.evict(id);
+      Mockito.when(cacheManager.getCache("clients")).thenReturn(cache);
+      Mockito.when(clientRepository.findAllById(anyIterable())).thenReturn(Flux.just(stored));
+
+      StepVerifier.create(clientService.findAllById(List.of(id)))
+          .assertNext(
+              results ->
+                  assertThat(results)
+                      .containsExactly(new ClientLookupDTO(id, true, stored.toDTO())))
+          .verifyComplete();
+
+      assertThat(cache.get(id)).isNull();
+    }
+
+    @Test
+    void shouldRejectInvalidId() {
+      StepVerifier.create(clientService.findAllById(List.of("not-an-id")))
+          .expectError(IllegalArgumentException.class)
+          .verify();
+
+      Mockito.verifyNoInteractions(clientRepository);
+    }
+  }
+
   @Nested
   class UpdateClient {
 
@@ -267,7 +474,7 @@ class ClientServiceTest {
       Mockito.when(clientRepository.findById(mockClient.getId())).thenReturn(Mono.just(mockClient));
       Mockito.when(clientRepository.save(any(Client.class))).thenReturn(Mono.just(mockClient));
 
-      StepVerifier.create(clientService.update(mockClient.getId().toString(), dto))
+      StepVerifier.create(clientService.update(mockClient.getId().toString(), dto, null))
           .verifyComplete();
 
       ArgumentCaptor<Client> captor = ArgumentCaptor.forClass(Client.class);
@@ -276,6 +483,7 @@ class ClientServiceTest {
           .usingRecursiveComparison()
           .ignoringActualNullFields()
           .isEqualTo(mockClient);
+      Mockito.verify(clientSummaryFanOut).afterCommit(mockClient);
     }
 
     @Test
@@ -286,7 +494,7 @@ class ClientServiceTest {
       Mockito.when(clientRepository.findById(mockClient.getId())).thenReturn(Mono.just(mockClient));
       Mockito.when(clientRepository.save(any(Client.class))).thenReturn(Mono.just(mockClient));
 
-      StepVerifier.create(clientService.update(mockClient.getId().toString(), dto))
+      StepVerifier.create(clientService.update(mockClient.getId().toString(), dto, null))
           .verifyComplete();
 
       ArgumentCaptor<Client> captor = ArgumentCaptor.forClass(Client.class);
@@ -304,10 +512,39 @@ class ClientServiceTest {
 
       StepVerifier.create(
               clientService.update(
-                  mockClient.getId().toString(), new UpdateClientDTO(null, null, null, null)))
+                  mockClient.getId().toString(), new UpdateClientDTO(null, null, null, null), null))
           .expectError(NotFoundException.class)
           .verify();
     }
+
+    @Test
+    void shouldRejectStaleIfMatchVersion() {
+      Client mockClient = aClient().toBuilder().version(3).build();
+      Mockito.when(clientRepository.findById(mockClient.getId())).thenReturn(Mono.just(mockClient));
+
+      StepVerifier.create(
+              clientService.update(
+                  mockClient.getId().toString(), new UpdateClientDTO(null, null, null, null), 2))
+          .expectError(PreconditionFailedException.class)
+          .verify();
+
+      Mockito.verify(clientRepository, Mockito.never()).save(any());
+      Mockito.verify(clientSummaryFanOut, Mockito.never()).afterCommit(any());
+    }
+
+    @Test
+    void shouldMapOptimisticLockFailureToPreconditionFailed() {
+      Client mockClient = aClient().toBuilder().version(3).build();
+      Mockito.when(clientRepository.findById(mockClient.getId())).thenReturn(Mono.just(mockClient));
+      Mockito.when(clientRepository.save(any(Client.class)))
+          .thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+
+      StepVerifier.create(
+              clientService.update(
+                  mockClient.getId().toString(), new UpdateClientDTO(null, null, null, null), 3))
+          .expectError(PreconditionFailedException.class)
+          .verify();
+    }
   }
 
   @Nested
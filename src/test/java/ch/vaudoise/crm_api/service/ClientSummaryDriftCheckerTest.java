@@ -0,0 +1,120 @@
+package ch.vaudoise.crm_api.service;
+
+import static ch.vaudoise.crm_api.fixtures.ClientFixture.aClient;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.config.ClientSummaryProperties;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.repository.ClientRepository;
+import ch.vaudoise.crm_api.repository.ContractRepository;
+import ch.vaudoise.crm_api.repository.ContractRepository.ClientSummaries;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ClientSummaryDriftCheckerTest {
+
+  @Mock private ContractRepository contractRepository;
+
+  @Mock private ClientRepository clientRepository;
+
+  @Mock private ClientSummaryFanOut clientSummaryFanOut;
+
+  @Mock private LeaseService leaseService;
+
+  private final Client client = aClient().toBuilder().version(3).build();
+
+  @Test
+  void shouldNotRepairContractsInSync() {
+    when(contractRepository.findClientSummaries())
+        .thenReturn(Flux.just(summaries(ClientSummary.of(client))));
+    when(clientRepository.findAllById(List.of(client.getId()))).thenReturn(Flux.just(client));
+
+    StepVerifier.create(checker(true).check()).expectNext(0L).verifyComplete();
+
+    verify(clientSummaryFanOut, never()).propagate(any(), any());
+  }
+
+  @Test
+  void shouldRepairOutdatedAndMissingSummaries() {
+    ClientSummary outdated = new ClientSummary("Old Name", client.getType(), client.getEmail(), 2);
+    when(contractRepository.findClientSummaries()).thenReturn(Flux.just(summaries(outdated, null)));
+    when(clientRepository.findAllById(List.of(client.getId()))).thenReturn(Flux.just(client));
+    when(clientSummaryFanOut.propagate(client.getId(), ClientSummary.of(client)))
+        .thenReturn(Mono.just(2L));
+
+    StepVerifier.create(checker(true).check()).expectNext(1L).verifyComplete();
+
+    verify(clientSummaryFanOut).propagate(client.getId(), ClientSummary.of(client));
+  }
+
+  @Test
+  void shouldOnlyCountDriftWhenRepairIsDisabled() {
+    when(contractRepository.findClientSummaries())
+        .thenReturn(Flux.just(summaries((ClientSummary) null)));
+    when(clientRepository.findAllById(List.of(client.getId()))).thenReturn(Flux.just(client));
+
+    StepVerifier.create(checker(false).check()).expectNext(1L).verifyComplete();
+
+    verify(clientSummaryFanOut, never()).propagate(any(), any());
+  }
+
+  @Test
+  void shouldIgnoreContractsOfUnknownClients() {
+    ObjectId unknown = new ObjectId();
+    when(contractRepository.findClientSummaries())
+        .thenReturn(Flux.just(new ClientSummaries(unknown, Arrays.asList((ClientSummary) null))));
+    when(clientRepository.findAllById(List.of(unknown))).thenReturn(Flux.empty());
+
+    StepVerifier.create(checker(true).check()).expectNext(0L).verifyComplete();
+  }
+
+  @Test
+  void shouldCheckWhenHoldingLease() {
+    when(leaseService.acquire(ClientSummaryDriftChecker.LEASE, Duration.ofHours(1)))
+        .thenReturn(Mono.just(true));
+    when(contractRepository.findClientSummaries())
+        .thenReturn(Flux.just(summaries(ClientSummary.of(client))));
+    when(clientRepository.findAllById(List.of(client.getId()))).thenReturn(Flux.just(client));
+
+    StepVerifier.create(checker(true).checkIfLeader()).expectNext(0L).verifyComplete();
+  }
+
+  @Test
+  void shouldSkipCheckWithoutLease() {
+    when(leaseService.acquire(ClientSummaryDriftChecker.LEASE, Duration.ofHours(1)))
+        .thenReturn(Mono.just(false));
+
+    StepVerifier.create(checker(true).checkIfLeader()).verifyComplete();
+
+    verify(contractRepository, never()).findClientSummaries();
+  }
+
+  private ClientSummaryDriftChecker checker(boolean repair) {
+    return new ClientSummaryDriftChecker(
+        contractRepository,
+        clientRepository,
+        clientSummaryFanOut,
+        leaseService,
+        new ClientSummaryProperties(true, Duration.ofHours(1), 10, repair),
+        new SimpleMeterRegistry());
+  }
+
+  private ClientSummaries summaries(ClientSummary... summaries) {
+    return new ClientSummaries(client.getId(), Arrays.asList(summaries));
+  }
+}
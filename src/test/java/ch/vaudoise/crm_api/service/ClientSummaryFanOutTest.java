@@ -0,0 +1,118 @@
+package ch.vaudoise.crm_api.service;
+
+import static ch.vaudoise.crm_api.fixtures.ClientFixture.aClient;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ClientSummaryFanOutTest {
+
+  @Mock private ReactiveMongoTemplate mongoTemplate;
+
+  @Mock private CacheManager cacheManager;
+
+  @Mock private Cache contractsCache;
+
+  private ClientSummaryFanOut fanOut;
+
+  private final Client client = aClient().toBuilder().version(4).build();
+
+  @BeforeEach
+  void setup() {
+    fanOut = new ClientSummaryFanOut(mongoTemplate, cacheManager, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void shouldCopySummaryOnlyToContractsWithOlderVersions() {
+    when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Contract.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(3, 3L, null)));
+    when(cacheManager.getCache("contracts")).thenReturn(contractsCache);
+
+    StepVerifier.create(fanOut.propagate(client.getId(), ClientSummary.of(client)))
+        .expectNext(3L)
+        .verifyComplete();
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Contract.class));
+    assertThat(query.getValue().getQueryObject())
+        .containsEntry("clientId", client.getId())
+        .containsEntry("clientSummary.version", new Document("$not", new Document("$gte", 4)));
+    assertThat(update.getValue().getUpdateObject())
+        .containsOnlyKeys("$set")
+        .containsEntry("$set", new Document("clientSummary", ClientSummary.of(client)));
+    verify(contractsCache).clear();
+  }
+
+  @Test
+  void shouldKeepCacheWhenNoContractChanged() {
+    when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Contract.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+    when(cacheManager.getCache("contracts")).thenReturn(contractsCache);
+
+    StepVerifier.create(fanOut.propagate(client.getId(), ClientSummary.of(client)))
+        .expectNext(0L)
+        .verifyComplete();
+
+    verify(contractsCache, never()).clear();
+  }
+
+  @Test
+  void shouldCopyRightAwayOutsideOfTransaction() {
+    when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Contract.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    when(cacheManager.getCache("contracts")).thenReturn(contractsCache);
+
+    StepVerifier.create(fanOut.afterCommit(client)).verifyComplete();
+
+    verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(Contract.class));
+  }
+
+  @Test
+  void shouldCopyWithinCallerObservation() {
+    Observation request = Observation.start("http.server.requests", ObservationRegistry.create());
+    when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Contract.class)))
+        .thenReturn(
+            Mono.deferContextual(
+                context ->
+                    context.getOrDefault(ObservationThreadLocalAccessor.KEY, null) == request
+                        ? Mono.just(UpdateResult.acknowledged(1, 1L, null))
+                        : Mono.error(new IllegalStateException("observation lost"))));
+    when(cacheManager.getCache("contracts")).thenReturn(contractsCache);
+
+    StepVerifier.create(
+            fanOut
+                .afterCommit(client)
+                .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, request)))
+        .verifyComplete();
+
+    verify(contractsCache).clear();
+  }
+}
@@ -0,0 +1,126 @@
+package ch.vaudoise.crm_api.service;
+
+import static ch.vaudoise.crm_api.fixtures.ClientFixture.aClient;
+import static ch.vaudoise.crm_api.fixtures.ContractFixture.aContract;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
+import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
+import ch.vaudoise.crm_api.model.entity.Contract;
+import ch.vaudoise.crm_api.repository.ClientRepository;
+import ch.vaudoise.crm_api.repository.ContractRepository;
+import ch.vaudoise.crm_api.service.outbox.OutboxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/** The client summary fan-out and contract updates against a real MongoDB. */
+@DataMongoTest
+@Testcontainers
+class ClientSummaryRepositoryTest {
+
+  @Container static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:latest");
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+  }
+
+  @Autowired private ReactiveMongoTemplate mongoTemplate;
+
+  @Autowired private ClientRepository clientRepository;
+
+  @Autowired private ContractRepository contractRepository;
+
+  private ClientSummaryFanOut fanOut;
+
+  private ContractService contractService;
+
+  @BeforeEach
+  void setup() {
+    OutboxService outboxService = mock(OutboxService.class);
+    when(outboxService.record(any(), any(), any(), any())).thenReturn(Mono.empty());
+    fanOut =
+        new ClientSummaryFanOut(
+            mongoTemplate, new ConcurrentMapCacheManager(), new SimpleMeterRegistry());
+    contractService =
+        new ContractService(
+            clientRepository,
+            contractRepository,
+            mock(ContractHistoryRecorder.class),
+            outboxService,
+            mongoTemplate);
+  }
+
+  @AfterEach
+  void cleanup() {
+    contractRepository.deleteAll().then(clientRepository.deleteAll()).block();
+  }
+
+  @Test
+  void shouldAcceptIfMatchReadBeforeClientSummaryFanOut() {
+    Client client = clientRepository.save(aClient()).block();
+    Contract contract =
+        contractRepository
+            .save(
+                aContract().toBuilder()
+                    .clientId(client.getId())
+                    .clientSummary(ClientSummary.of(client))
+                    .build())
+            .block();
+    Integer ifMatch = contract.getVersion();
+    Client renamed = clientRepository.save(client.toBuilder().name("Jane Doe").build()).block();
+
+    StepVerifier.create(fanOut.propagate(client.getId(), ClientSummary.of(renamed)))
+        .expectNext(1L)
+        .verifyComplete();
+    StepVerifier.create(
+            contractService.update(
+                contract.getId().toHexString(),
+                new UpdateContractDTO(null, null, new Decimal128(5)),
+                ifMatch))
+        .verifyComplete();
+
+    StepVerifier.create(contractRepository.findById(contract.getId()))
+        .assertNext(
+            updated -> {
+              assertThat(updated.getCost()).isEqualTo(new Decimal128(5));
+              assertThat(updated.getClientSummary()).isEqualTo(ClientSummary.of(renamed));
+              assertThat(updated.getVersion()).isEqualTo(ifMatch + 1);
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldNotCopySameOrOlderSummaryAgain() {
+    Client client = clientRepository.save(aClient()).block();
+    contractRepository
+        .save(
+            aContract().toBuilder()
+                .clientId(client.getId())
+                .clientSummary(ClientSummary.of(client))
+                .build())
+        .block();
+
+    StepVerifier.create(fanOut.propagate(client.getId(), ClientSummary.of(client)))
+        .expectNext(0L)
+        .verifyComplete();
+  }
+}
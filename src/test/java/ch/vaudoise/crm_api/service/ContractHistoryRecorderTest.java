@@ -0,0 +1,117 @@
+package ch.vaudoise.crm_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.config.ContractHistoryProperties;
+import ch.vaudoise.crm_api.model.entity.ContractHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ContractHistoryRecorderTest {
+
+  @Mock private ReactiveMongoTemplate mongoTemplate;
+
+  private ContractHistoryProperties properties;
+  private ContractHistoryRecorder recorder;
+
+  @BeforeEach
+  void setup() {
+    properties =
+        new ContractHistoryProperties(
+            10,
+            3,
+            Duration.ofMinutes(1),
+            ContractHistoryProperties.Overflow.DROP,
+            Path.of("unused.jsonl"),
+            Duration.ofSeconds(1));
+    recorder = new ContractHistoryRecorder(mongoTemplate, properties, new SimpleMeterRegistry());
+    when(mongoTemplate.collectionExists(ContractHistory.class)).thenReturn(Mono.just(true));
+    recorder.start();
+  }
+
+  @Test
+  void shouldFlushWhenBatchIsFull() {
+    when(mongoTemplate.insertAll(anyList())).thenReturn(Flux.empty());
+
+    recorder.record(anEntry());
+    recorder.record(anEntry());
+    verify(mongoTemplate, never()).insertAll(anyList());
+
+    recorder.record(anEntry());
+    verify(mongoTemplate).insertAll(argThat((List<ContractHistory> batch) -> batch.size() == 3));
+  }
+
+  @Test
+  void shouldFlushRemainingEntriesOnShutdown() {
+    when(mongoTemplate.insertAll(anyList())).thenReturn(Flux.empty());
+
+    recorder.record(anEntry());
+    recorder.stop();
+
+    verify(mongoTemplate).insertAll(argThat((List<ContractHistory> batch) -> batch.size() == 1));
+  }
+
+  @Test
+  void shouldDropEntriesWhenQueueOverflows() {
+    when(mongoTemplate.insertAll(anyList())).thenReturn(Flux.never());
+
+    for (int i = 0; i < 20; i++) recorder.record(anEntry());
+
+    verify(mongoTemplate).insertAll(argThat((List<ContractHistory> batch) -> batch.size() == 3));
+  }
+
+  @Test
+  void shouldWaitForInFlightFlushOnStop() {
+    AtomicBoolean written = new AtomicBoolean();
+    when(mongoTemplate.insertAll(anyList()))
+        .thenReturn(
+            Mono.delay(Duration.ofMillis(200))
+                .doOnNext(tick -> written.set(true))
+                .thenMany(Flux.empty()))
+        .thenReturn(Flux.empty());
+
+    for (int i = 0; i < 4; i++) recorder.record(anEntry());
+    recorder.stop();
+
+    assertThat(written).isTrue();
+    verify(mongoTemplate).insertAll(argThat((List<ContractHistory> batch) -> batch.size() == 1));
+  }
+
+  @Test
+  void shouldNotFlushBeforeCollectionExists() {
+    ContractHistoryRecorder notStarted =
+        new ContractHistoryRecorder(mongoTemplate, properties, new SimpleMeterRegistry());
+
+    for (int i = 0; i < 3; i++) notStarted.record(anEntry());
+    notStarted.flush();
+
+    verify(mongoTemplate, never()).insertAll(anyList());
+  }
+
+  private static ContractHistory anEntry() {
+    return ContractHistory.builder()
+        .changedAt(Instant.now())
+        .contractId(new ObjectId())
+        .clientId(new ObjectId())
+        .build();
+  }
+}
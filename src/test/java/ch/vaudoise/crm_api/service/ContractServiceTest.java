@@ -2,23 +2,35 @@ package ch.vaudoise.crm_api.service;
 
 import static ch.vaudoise.crm_api.fixtures.ClientFixture.aClient;
 import static ch.vaudoise.crm_api.fixtures.ContractFixture.aContract;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import ch.vaudoise.crm_api.model.OutboxEventType;
 import ch.vaudoise.crm_api.model.dto.contract.CreateContractDTO;
 import ch.vaudoise.crm_api.model.dto.contract.UpdateContractDTO;
 import ch.vaudoise.crm_api.model.entity.Client;
+import ch.vaudoise.crm_api.model.entity.ClientSummary;
 import ch.vaudoise.crm_api.model.entity.Contract;
 import ch.vaudoise.crm_api.model.exception.NotFoundException;
+import ch.vaudoise.crm_api.model.exception.PreconditionFailedException;
 import ch.vaudoise.crm_api.repository.ClientRepository;
 import ch.vaudoise.crm_api.repository.ContractRepository;
+import ch.vaudoise.crm_api.service.outbox.OutboxService;
 import java.time.LocalDate;
+import org.bson.Document;
 import org.bson.types.Decimal128;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -31,6 +43,19 @@ class ContractServiceTest {
 
   @Mock private ClientRepository clientRepository;
 
+  @Mock private ContractHistoryRecorder contractHistoryRecorder;
+
+  @Mock private OutboxService outboxService;
+
+  @Mock private ReactiveMongoTemplate mongoTemplate;
+
+  @BeforeEach
+  void setUp() {
+    Mockito.lenient()
+        .when(outboxService.record(any(), any(), any(), any()))
+        .thenReturn(Mono.empty());
+  }
+
   @Nested
   class Create {
     @Test
@@ -50,7 +75,10 @@ class ContractServiceTest {
           .verifyComplete();
 
       verify(clientRepository).findById(clientId);
-      verify(contractRepository).save(any(Contract.class));
+      verify(contractRepository)
+          .save(
+              argThat(
+                  contract -> ClientSummary.of(mockClient).equals(contract.getClientSummary())));
     }
 
     @Test
@@ -101,13 +129,35 @@ class ContractServiceTest {
           new UpdateContractDTO(LocalDate.now(), LocalDate.now().plusDays(1), new Decimal128(1));
 
       when(contractRepository.findById(mockContract.getId())).thenReturn(Mono.just(mockContract));
-      when(contractRepository.save(any(Contract.class))).thenReturn(Mono.just(mockContract));
+      when(modify()).thenReturn(Mono.just(mockContract));
 
-      StepVerifier.create(contractService.update(mockContract.getId().toHexString(), dto))
+      StepVerifier.create(contractService.update(mockContract.getId().toHexString(), dto, null))
           .verifyComplete();
 
       verify(contractRepository).findById(mockContract.getId());
-      verify(contractRepository).save(any(Contract.class));
+      assertThat(capturedUpdate().get("$set", Document.class))
+          .containsOnlyKeys("startDate", "endDate", "cost", "updatedAt");
+    }
+
+    @Test
+    void shouldRecordHistoryWhenCostChanges() {
+      Contract mockContract = aContract();
+      UpdateContractDTO dto = new UpdateContractDTO(null, null, new Decimal128(1));
+
+      when(contractRepository.findById(mockContract.getId())).thenReturn(Mono.just(mockContract));
+      when(modify())
+          .thenReturn(Mono.just(mockContract.toBuilder().cost(new Decimal128(1)).build()));
+
+      StepVerifier.create(contractService.update(mockContract.getId().toHexString(), dto, null))
+          .verifyComplete();
+
+      verify(contractHistoryRecorder)
+          .record(
+              argThat(
+                  h ->
+                      h.getContractId().equals(mockContract.getId())
+                          && h.getPreviousCost().equals(Decimal128.parse("2"))
+                          && h.getCost().equals(new Decimal128(1))));
     }
 
     @Test
@@ -116,13 +166,62 @@ class ContractServiceTest {
       UpdateContractDTO dto = new UpdateContractDTO(null, null, new Decimal128(1));
 
       when(contractRepository.findById(mockContract.getId())).thenReturn(Mono.just(mockContract));
-      when(contractRepository.save(any(Contract.class))).thenReturn(Mono.just(mockContract));
+      when(modify()).thenReturn(Mono.just(mockContract));
 
-      StepVerifier.create(contractService.update(mockContract.getId().toHexString(), dto))
+      StepVerifier.create(contractService.update(mockContract.getId().toHexString(), dto, null))
           .verifyComplete();
 
       verify(contractRepository).findById(mockContract.getId());
-      verify(contractRepository).save(any(Contract.class));
+      assertThat(capturedUpdate().get("$set", Document.class))
+          .containsOnlyKeys("cost", "updatedAt");
+    }
+
+    @Test
+    void shouldAcceptIfMatchReadBeforeClientSummaryFanOut() {
+      Client client = aClient().toBuilder().version(2).build();
+      Contract read =
+          aContract().toBuilder()
+              .version(3)
+              .clientSummary(new ClientSummary("Old Name", client.getType(), client.getEmail(), 1))
+              .build();
+      // the fan-out copies the new summary without bumping the contract version
+      assertThat(ClientSummaryFanOut.copy(ClientSummary.of(client)).getUpdateObject())
+          .containsOnlyKeys("$set");
+      Contract afterFanOut = read.toBuilder().clientSummary(ClientSummary.of(client)).build();
+      when(contractRepository.findById(read.getId())).thenReturn(Mono.just(afterFanOut));
+      when(modify()).thenReturn(Mono.just(afterFanOut.toBuilder().version(4).build()));
+
+      StepVerifier.create(
+              contractService.update(
+                  read.getId().toHexString(),
+                  new UpdateContractDTO(null, null, new Decimal128(1)),
+                  read.getVersion()))
+          .verifyComplete();
+
+      ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+      verify(mongoTemplate)
+          .findAndModify(
+              query.capture(),
+              any(UpdateDefinition.class),
+              any(FindAndModifyOptions.class),
+              eq(Contract.class));
+      assertThat(query.getValue().getQueryObject()).containsEntry("version", 3);
+      assertThat(capturedUpdate().get("$set", Document.class)).doesNotContainKey("clientSummary");
+    }
+
+    @Test
+    void shouldMapConcurrentUpdateToPreconditionFailed() {
+      Contract mockContract = aContract().toBuilder().version(3).build();
+      when(contractRepository.findById(mockContract.getId())).thenReturn(Mono.just(mockContract));
+      when(modify()).thenReturn(Mono.empty());
+
+      StepVerifier.create(
+              contractService.update(
+                  mockContract.getId().toHexString(), new UpdateContractDTO(null, null, null), 3))
+          .expectError(PreconditionFailedException.class)
+          .verify();
+
+      verify(outboxService, never()).record(any(), any(), any(), any());
     }
 
     @Test
@@ -133,12 +232,33 @@ class ContractServiceTest {
 
       StepVerifier.create(
               contractService.update(
-                  mockContract.getId().toHexString(), new UpdateContractDTO(null, null, null)))
+                  mockContract.getId().toHexString(),
+                  new UpdateContractDTO(null, null, null),
+                  null))
           .expectError(NotFoundException.class)
           .verify();
 
       verify(contractRepository).findById(mockContract.getId());
-      verify(contractRepository, never()).save(any());
+      verifyNoInteractions(mongoTemplate);
+    }
+
+    private Mono<Contract> modify() {
+      return mongoTemplate.findAndModify(
+          any(Query.class),
+          any(UpdateDefinition.class),
+          any(FindAndModifyOptions.class),
+          eq(Contract.class));
+    }
+
+    private Document capturedUpdate() {
+      ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+      verify(mongoTemplate)
+          .findAndModify(
+              any(Query.class),
+              update.capture(),
+              any(FindAndModifyOptions.class),
+              eq(Contract.class));
+      return update.getValue().getUpdateObject();
     }
   }
 
@@ -155,6 +275,8 @@ class ContractServiceTest {
 
       verify(contractRepository).findById(contractId);
       verify(contractRepository).delete(mockContract);
+      verify(outboxService)
+          .record(OutboxEventType.CONTRACT_DELETED, mockContract.getClientId(), contractId, null);
     }
 
     @Test
@@ -169,6 +291,7 @@ class ContractServiceTest {
 
       verify(contractRepository).findById(contractId);
       verify(contractRepository, never()).delete(any());
+      verify(outboxService, never()).record(any(), any(), any(), any());
     }
   }
 }
@@ -0,0 +1,290 @@
+package ch.vaudoise.crm_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.config.IdempotencyProperties;
+import ch.vaudoise.crm_api.model.entity.IdempotencyRecord;
+import ch.vaudoise.crm_api.model.exception.ConflictException;
+import ch.vaudoise.crm_api.repository.Deadline;
+import ch.vaudoise.crm_api.repository.IdempotencyRecordRepository;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+  @Mock private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  private IdempotencyService idempotencyService;
+
+  @BeforeEach
+  void setup() {
+    idempotencyService =
+        new IdempotencyService(
+            idempotencyRecordRepository, new IdempotencyProperties(Duration.ofHours(1), 100, 16));
+  }
+
+  @Test
+  void shouldExecuteOnceAndReplayFromCache() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    AtomicInteger executions = new AtomicInteger();
+
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(
+              idempotencyService.execute(
+                  "clients",
+                  "key",
+                  "request",
+                  () -> Mono.fromSupplier(() -> "id-" + executions.incrementAndGet())))
+          .expectNext("id-1")
+          .verifyComplete();
+    }
+
+    verify(idempotencyRecordRepository, times(1)).insert(any(IdempotencyRecord.class));
+  }
+
+  @Test
+  void shouldMakeConcurrentDuplicateWaitForOriginal() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    Sinks.One<String> result = Sinks.one();
+
+    Mono<String> first =
+        idempotencyService.execute("clients", "key", "request", result::asMono).cache();
+    Mono<String> duplicate =
+        idempotencyService.execute(
+            "clients", "key", "request", () -> Mono.error(new AssertionError("re-executed")));
+    first.subscribe();
+
+    StepVerifier.create(duplicate)
+        .then(() -> result.tryEmitValue("id-1"))
+        .expectNext("id-1")
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldKeepRunningForDuplicateWhenOriginalIsCancelled() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    Sinks.One<String> result = Sinks.one();
+
+    StepVerifier.create(idempotencyService.execute("clients", "key", "request", result::asMono))
+        .thenCancel()
+        .verify();
+    StepVerifier.create(
+            idempotencyService.execute(
+                "clients", "key", "request", () -> Mono.error(new AssertionError("re-executed"))))
+        .then(() -> result.tryEmitValue("id-1"))
+        .expectNext("id-1")
+        .verifyComplete();
+    StepVerifier.create(
+            idempotencyService.execute(
+                "clients", "key", "request", () -> Mono.error(new AssertionError("re-executed"))))
+        .expectNext("id-1")
+        .verifyComplete();
+
+    verify(idempotencyRecordRepository).save(any(IdempotencyRecord.class));
+    verify(idempotencyRecordRepository, never()).deleteById(any(String.class));
+  }
+
+  @Test
+  void shouldRunActionWithCallerContext() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    StepVerifier.create(
+            idempotencyService
+                .execute(
+                    "clients",
+                    "key",
+                    "request",
+                    () -> Mono.deferContextual(context -> Mono.just(context.get("trace"))))
+                .contextWrite(Context.of("trace", "abc")))
+        .expectNext("abc")
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldReplayResultStoredByAnotherInstance() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+    when(idempotencyRecordRepository.findById("clients:key"))
+        .thenReturn(Mono.just(aRecord(IdempotencyService.fingerprint("request"), "id-1")));
+
+    StepVerifier.create(
+            idempotencyService.execute(
+                "clients", "key", "request", () -> Mono.error(new AssertionError("re-executed"))))
+        .expectNext("id-1")
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldRejectKeyReusedForDifferentRequest() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+    when(idempotencyRecordRepository.findById("clients:key"))
+        .thenReturn(Mono.just(aRecord(IdempotencyService.fingerprint("other"), "id-1")));
+
+    StepVerifier.create(
+            idempotencyService.execute("clients", "key", "request", () -> Mono.just("id-2")))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+  }
+
+  @Test
+  void shouldRejectDuplicateStillRunningElsewhere() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+    when(idempotencyRecordRepository.findById("clients:key"))
+        .thenReturn(Mono.just(aRecord(IdempotencyService.fingerprint("request"), null)));
+
+    StepVerifier.create(
+            idempotencyService.execute("clients", "key", "request", () -> Mono.just("id-1")))
+        .expectError(ConflictException.class)
+        .verify();
+  }
+
+  @Test
+  void shouldReleaseKeyWhenActionFails() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.deleteById("clients:key")).thenReturn(Mono.empty());
+
+    StepVerifier.create(
+            idempotencyService.execute(
+                "clients", "key", "request", () -> Mono.error(new IllegalStateException("boom"))))
+        .expectError(IllegalStateException.class)
+        .verify();
+
+    verify(idempotencyRecordRepository).deleteById("clients:key");
+    verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+  }
+
+  @Test
+  void shouldRecordResultPastRequestDeadline() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(
+            invocation ->
+                Mono.deferContextual(
+                    context ->
+                        context.hasKey(Deadline.CONTEXT_KEY)
+                            ? Mono.error(new IllegalStateException("deadline exceeded"))
+                            : Mono.just(invocation.getArgument(0))));
+
+    StepVerifier.create(
+            idempotencyService
+                .execute("clients", "key", "request", () -> Mono.just("id-1"))
+                .contextWrite(Deadline.in(Duration.ZERO)))
+        .expectNext("id-1")
+        .verifyComplete();
+
+    verify(idempotencyRecordRepository, never()).deleteById(any(String.class));
+  }
+
+  @Test
+  void shouldRetryRecordingResult() {
+    AtomicInteger attempts = new AtomicInteger();
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(
+            invocation ->
+                Mono.defer(
+                    () ->
+                        attempts.incrementAndGet() == 1
+                            ? Mono.error(new IllegalStateException("primary stepped down"))
+                            : Mono.just(invocation.getArgument(0))));
+
+    StepVerifier.create(
+            idempotencyService.execute("clients", "key", "request", () -> Mono.just("id-1")))
+        .expectNext("id-1")
+        .verifyComplete();
+
+    assertThat(attempts).hasValue(2);
+    verify(idempotencyRecordRepository, never()).deleteById(any(String.class));
+  }
+
+  @Test
+  void shouldKeepReservationWhenResultCannotBeRecorded() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenReturn(Mono.error(new IllegalStateException("unreachable")));
+    AtomicInteger executions = new AtomicInteger();
+
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(
+              idempotencyService.execute(
+                  "clients",
+                  "key",
+                  "request",
+                  () -> Mono.fromSupplier(() -> "id-" + executions.incrementAndGet())))
+          .expectNext("id-1")
+          .verifyComplete();
+    }
+
+    verify(idempotencyRecordRepository, never()).deleteById(any(String.class));
+  }
+
+  @Test
+  void shouldAcceptRetryAfterFailure() {
+    when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    when(idempotencyRecordRepository.deleteById("clients:key")).thenReturn(Mono.empty());
+    when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    StepVerifier.create(
+            idempotencyService.execute(
+                "clients", "key", "request", () -> Mono.error(new IllegalStateException("boom"))))
+        .expectError(IllegalStateException.class)
+        .verify();
+    StepVerifier.create(
+            idempotencyService.execute("clients", "key", "request", () -> Mono.just("id-1")))
+        .expectNext("id-1")
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldRejectOversizedKey() {
+    StepVerifier.create(
+            idempotencyService.execute(
+                "clients", "k".repeat(17), "request", () -> Mono.just("id-1")))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+  }
+
+  private static IdempotencyRecord aRecord(String fingerprint, String result) {
+    return IdempotencyRecord.builder()
+        .id("clients:key")
+        .fingerprint(fingerprint)
+        .result(result)
+        .build();
+  }
+}
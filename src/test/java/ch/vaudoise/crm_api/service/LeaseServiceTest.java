@@ -0,0 +1,64 @@
+package ch.vaudoise.crm_api.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import java.time.Duration;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseServiceTest {
+
+  @Mock private ReactiveMongoTemplate mongoTemplate;
+
+  private LeaseService leaseService;
+
+  @BeforeEach
+  void setup() {
+    leaseService = new LeaseService(mongoTemplate);
+  }
+
+  @Test
+  void shouldHoldLeaseWhenFreeOrOwn() {
+    when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(LeaseService.COLLECTION)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, new BsonString("job"))));
+
+    StepVerifier.create(leaseService.acquire("job", Duration.ofSeconds(30)))
+        .expectNext(true)
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldNotHoldLeaseOfAnotherInstance() {
+    when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(LeaseService.COLLECTION)))
+        .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+
+    StepVerifier.create(leaseService.acquire("job", Duration.ofSeconds(30)))
+        .expectNext(false)
+        .verifyComplete();
+  }
+
+  @Test
+  void shouldNotHoldLeaseWhenMongoIsDown() {
+    when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(LeaseService.COLLECTION)))
+        .thenReturn(Mono.error(new DataAccessResourceFailureException("down")));
+
+    StepVerifier.create(leaseService.acquire("job", Duration.ofSeconds(30)))
+        .expectNext(false)
+        .verifyComplete();
+  }
+}
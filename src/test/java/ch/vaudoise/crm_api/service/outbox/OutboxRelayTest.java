@@ -0,0 +1,136 @@
+package ch.vaudoise.crm_api.service.outbox;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.vaudoise.crm_api.config.OutboxProperties;
+import ch.vaudoise.crm_api.model.OutboxEventType;
+import ch.vaudoise.crm_api.model.entity.OutboxEvent;
+import ch.vaudoise.crm_api.repository.OutboxEventRepository;
+import ch.vaudoise.crm_api.service.LeaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+  @Mock private OutboxEventRepository outboxEventRepository;
+
+  @Mock private OutboxSink outboxSink;
+
+  @Mock private LeaseService leaseService;
+
+  private OutboxRelay relay;
+
+  @BeforeEach
+  void setup() {
+    OutboxProperties properties =
+        new OutboxProperties(
+            true,
+            Duration.ofMinutes(1),
+            Duration.ofSeconds(30),
+            2,
+            "memory",
+            10,
+            Path.of("unused"),
+            false);
+    relay =
+        new OutboxRelay(
+            outboxEventRepository, outboxSink, leaseService, properties, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void shouldAcknowledgeBatchOncePublished() {
+    List<OutboxEvent> batch = List.of(anEvent(), anEvent());
+    when(outboxEventRepository.findPending(any(), eq(Limit.of(2))))
+        .thenReturn(Flux.fromIterable(batch));
+    when(outboxSink.publish(batch)).thenReturn(Mono.empty());
+    when(outboxEventRepository.markPublished(anyList(), any())).thenReturn(Mono.empty());
+    when(outboxEventRepository.countByPublishedAtIsNull()).thenReturn(Mono.just(0L));
+
+    StepVerifier.create(relay.relay()).verifyComplete();
+
+    verify(outboxEventRepository)
+        .markPublished(eq(List.of(batch.get(0).getId(), batch.get(1).getId())), any());
+  }
+
+  @Test
+  void shouldNotAcknowledgeWhenSinkFails() {
+    List<OutboxEvent> batch = List.of(anEvent());
+    when(outboxEventRepository.findPending(any(), eq(Limit.of(2))))
+        .thenReturn(Flux.fromIterable(batch));
+    when(outboxSink.publish(batch)).thenReturn(Mono.error(new IllegalStateException("down")));
+
+    StepVerifier.create(relay.relay()).verifyComplete();
+
+    verify(outboxEventRepository, never()).markPublished(anyList(), any());
+  }
+
+  @Test
+  void shouldContinueFromLastClientAfterFullBatchAndStartOverAfterwards() {
+    ObjectId clientId = new ObjectId();
+    List<OutboxEvent> full = List.of(anEvent(new ObjectId(), 1), anEvent(clientId, 1));
+    List<OutboxEvent> rest = List.of(anEvent(clientId, 2));
+    when(outboxEventRepository.findPending(any(), eq(Limit.of(2))))
+        .thenReturn(Flux.fromIterable(full), Flux.fromIterable(rest), Flux.empty());
+    when(outboxSink.publish(anyList())).thenReturn(Mono.empty());
+    when(outboxEventRepository.markPublished(anyList(), any())).thenReturn(Mono.empty());
+    when(outboxEventRepository.countByPublishedAtIsNull()).thenReturn(Mono.just(0L));
+
+    StepVerifier.create(relay.relay()).verifyComplete();
+    StepVerifier.create(relay.relay()).verifyComplete();
+    StepVerifier.create(relay.relay()).verifyComplete();
+
+    InOrder order = inOrder(outboxEventRepository);
+    order.verify(outboxEventRepository).findPending(any(), eq(Limit.of(2)));
+    order.verify(outboxEventRepository).findPending(eq(clientId), eq(Limit.of(2)));
+    order
+        .verify(outboxEventRepository)
+        .findPending(eq(new ObjectId(new byte[12])), eq(Limit.of(2)));
+  }
+
+  @Test
+  void shouldNotPollWithoutLease() {
+    when(leaseService.acquire(OutboxRelay.LEASE, Duration.ofSeconds(30)))
+        .thenReturn(Mono.just(false));
+
+    StepVerifier.create(relay.relayIfLeader()).verifyComplete();
+
+    verify(outboxEventRepository, never()).findPending(any(), any());
+  }
+
+  private static OutboxEvent anEvent() {
+    return anEvent(new ObjectId(), 1);
+  }
+
+  private static OutboxEvent anEvent(ObjectId clientId, long sequence) {
+    return OutboxEvent.builder()
+        .id(new ObjectId())
+        .type(OutboxEventType.CLIENT_UPDATED)
+        .clientId(clientId)
+        .aggregateId(clientId)
+        .orderingKey(clientId)
+        .sequence(sequence)
+        .createdAt(Instant.now())
+        .build();
+  }
+}
@@ -0,0 +1,27 @@
+#!/bin/sh
+# Time-to-first-request of the plain jar image against the AOT + CDS image.
+# Usage : ./startup-time.sh [runs]   (default 5, needs docker and curl, no MongoDB required)
+set -eu
+
+RUNS=${1:-5}
+PORT=18080
+
+docker build -q --target jar -t crm-api:jar . >/dev/null
+docker build -q --target runtime -t crm-api:cds . >/dev/null
+
+measure() {
+  image=$1
+  for run in $(seq "$RUNS"); do
+    start=$(date +%s%N)
+    container=$(docker run -d --rm -p "$PORT:8080" -e SPRING_PROFILES_ACTIVE=docker "$image")
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/v3/api-docs")" != "000" ]; do
+      sleep 0.02
+    done
+    end=$(date +%s%N)
+    docker stop -t 1 "$container" >/dev/null
+    echo $(((end - start) / 1000000))
+  done | sort -n | awk -v image="$image" '{ t[NR] = $1 } END { printf "%-12s median %6d ms  min %6d ms  max %6d ms\n", image, t[int((NR + 1) / 2)], t[1], t[NR] }'
+}
+
+measure crm-api:jar
+measure crm-api:cds